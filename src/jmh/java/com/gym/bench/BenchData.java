@@ -0,0 +1,100 @@
+package com.gym.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.storage.CsvStorage;
+
+// Deterministic synthetic rosters for the benchmarks
+final class BenchData {
+
+    private static final String[] FIRST = {
+            "Olivia", "Liam", "Emma", "Noah", "Ava", "Elijah", "Sophia", "James", "Isabella", "Lucas",
+            "Mia", "Mason", "Amelia", "Ethan", "Harper", "Logan", "Evelyn", "Aiden", "Abigail", "Jackson"
+    };
+    private static final String[] LAST = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"
+    };
+    static final YearMonth FIRST_MONTH = YearMonth.of(2022, 1);
+
+    private BenchData() {}
+
+    // n members of all three types, each with monthsOfHistory performance records
+    static List<Member> members(int n, int monthsOfHistory, long seed) {
+        Random rnd = new Random(seed);
+        List<Member> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String id = String.format("M%08x", i);
+            String first = FIRST[rnd.nextInt(FIRST.length)] + (i % 1000);
+            String last = LAST[rnd.nextInt(LAST.length)];
+            int age = 16 + rnd.nextInt(60);
+            LocalDate join = LocalDate.of(2015, 1, 1).plusDays(rnd.nextInt(3000));
+            double base = 20 + rnd.nextInt(60) + 0.5 * rnd.nextInt(2);
+
+            Member m = switch (i % 3) {
+                case 0 -> new RegularMember(id, first, last, age, join, base);
+                case 1 -> new PersonalTrainingMember(id, first, last, age, join, base, 1 + rnd.nextInt(12), 25.0);
+                default -> new PremiumMember(id, first, last, age, join, base, rnd.nextBoolean(), 15.0);
+            };
+            for (int k = 0; k < monthsOfHistory; k++) {
+                m.addPerformance(new Performance(id, FIRST_MONTH.plusMonths(k), rnd.nextInt(3) == 0,
+                        1 + rnd.nextInt(5), rnd.nextInt(4) == 0 ? "checked in often" : ""));
+            }
+            list.add(m);
+        }
+        return list;
+    }
+
+    // Same members without history, as the loaders produce them
+    static List<Member> withoutHistory(List<Member> members) {
+        List<Member> copy = new ArrayList<>(members.size());
+        for (Member m : members) {
+            if (m instanceof PersonalTrainingMember pt) {
+                copy.add(new PersonalTrainingMember(m.getMemberId(), m.getFirstName(), m.getLastName(), m.getAge(),
+                        m.getJoinDate(), m.getBaseFee(), pt.getSessionsPerMonth(), pt.getFeePerSession()));
+            } else if (m instanceof PremiumMember pm) {
+                copy.add(new PremiumMember(m.getMemberId(), m.getFirstName(), m.getLastName(), m.getAge(),
+                        m.getJoinDate(), m.getBaseFee(), pm.hasSpaAccess(), pm.getPremiumServiceFee()));
+            } else {
+                copy.add(new RegularMember(m.getMemberId(), m.getFirstName(), m.getLastName(), m.getAge(),
+                        m.getJoinDate(), m.getBaseFee()));
+            }
+        }
+        return copy;
+    }
+
+    static List<Performance> performances(List<Member> members) {
+        List<Performance> all = new ArrayList<>();
+        for (Member m : members) all.addAll(m.getPerformanceHistory());
+        return all;
+    }
+
+    // Writes members.csv and performances.csv into a fresh temp directory
+    static Path writeFiles(List<Member> members) throws IOException {
+        Path dir = Files.createTempDirectory("gym-bench");
+        CsvStorage storage = new CsvStorage();
+        storage.saveMembersToFile(members, dir.resolve("members.csv").toString());
+        storage.savePerformancesOfMembersToFile(members, dir.resolve("performances.csv").toString());
+        return dir;
+    }
+
+    static void deleteFiles(Path dir) throws IOException {
+        if (dir == null) return;
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+}
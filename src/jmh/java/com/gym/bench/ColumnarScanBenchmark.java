@@ -0,0 +1,80 @@
+package com.gym.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.model.Member;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.repository.ColumnarMemberStore;
+
+// The same roster-wide aggregations over Member objects and over ColumnarMemberStore columns
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarScanBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(2017, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2017, 3, 31);
+
+    @Param({"1000000"})
+    public int size;
+
+    List<Member> members;
+    ColumnarMemberStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        members = BenchData.members(size, 0, 42);
+        store = ColumnarMemberStore.of(members);
+    }
+
+    @Benchmark
+    public double listFeesObjects() {
+        double total = 0;
+        for (Member m : members) {
+            double fee = m.getBaseFee();
+            if (m instanceof PersonalTrainingMember pt) fee += pt.getSessionsPerMonth() * pt.getFeePerSession();
+            else if (m instanceof PremiumMember pm) fee += pm.getPremiumServiceFee();
+            total += Math.max(fee, 0);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double[] listFeesColumnar() {
+        return store.listFeesByType();
+    }
+
+    @Benchmark
+    public int joinedInQuarterObjects() {
+        int n = 0;
+        for (Member m : members) {
+            LocalDate d = m.getJoinDate();
+            if (!d.isBefore(FROM) && !d.isAfter(TO)) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int joinedInQuarterColumnar() {
+        return store.countJoinedBetween(FROM, TO);
+    }
+}
@@ -0,0 +1,108 @@
+package com.gym.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.storage.CsvStorage;
+
+// Load throughput of the sequential and memory-mapped loaders.
+// The "rows" and "bytes" counters are reported per second, i.e. rows/s and bytes/s (MB/s = bytes / 1e6).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvLoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"100000"})
+        public int members;
+
+        final CsvStorage storage = new CsvStorage();
+        Path dir;
+        String membersFile;
+        String performancesFile;
+        long membersBytes;
+        long performancesBytes;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = BenchData.writeFiles(BenchData.members(members, 12, 7));
+            membersFile = dir.resolve("members.csv").toString();
+            performancesFile = dir.resolve("performances.csv").toString();
+            membersBytes = Files.size(dir.resolve("members.csv"));
+            performancesBytes = Files.size(dir.resolve("performances.csv"));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchData.deleteFiles(dir);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public long rows;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    public List<Member> loadMembers(Dataset f, Throughput t) throws IOException {
+        List<Member> result = f.storage.loadMembers(f.membersFile);
+        t.rows += result.size();
+        t.bytes += f.membersBytes;
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> loadMembersMapped(Dataset f, Throughput t) throws IOException {
+        List<Member> result = f.storage.loadMembersMapped(f.membersFile);
+        t.rows += result.size();
+        t.bytes += f.membersBytes;
+        return result;
+    }
+
+    @Benchmark
+    public List<Performance> loadPerformances(Dataset f, Throughput t) throws IOException {
+        List<Performance> result = f.storage.loadPerformances(f.performancesFile);
+        t.rows += result.size();
+        t.bytes += f.performancesBytes;
+        return result;
+    }
+
+    @Benchmark
+    public List<Performance> loadPerformancesMapped(Dataset f, Throughput t) throws IOException {
+        List<Performance> result = f.storage.loadPerformancesMapped(f.performancesFile);
+        t.rows += result.size();
+        t.bytes += f.performancesBytes;
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.gym.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.storage.CsvStorage;
+
+// Snapshot writes and attaching loaded performances to loaded members.
+// Throughput is snapshots (or attach passes) per second; rows/s = that times the row counts below.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvSaveBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Roster {
+        @Param({"100000"})
+        public int members;
+
+        final CsvStorage storage = new CsvStorage();
+        List<Member> roster;
+        List<Performance> performances;
+        Path dir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            roster = BenchData.members(members, 12, 11);
+            performances = BenchData.performances(roster);
+            dir = Files.createTempDirectory("gym-bench-save");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            BenchData.deleteFiles(dir);
+        }
+    }
+
+    // attach mutates members, so each invocation gets a fresh history-less copy
+    @State(Scope.Thread)
+    public static class Detached {
+        List<Member> members;
+
+        @Setup(Level.Invocation)
+        public void setUp(Roster r) {
+            members = BenchData.withoutHistory(r.roster);
+        }
+    }
+
+    @Benchmark
+    public String saveMembersToFile(Roster r) throws IOException {
+        return r.storage.saveMembersToFile(r.roster, r.dir.resolve("members.csv").toString());
+    }
+
+    @Benchmark
+    public String savePerformancesOfMembersToFile(Roster r) throws IOException {
+        return r.storage.savePerformancesOfMembersToFile(r.roster, r.dir.resolve("performances.csv").toString());
+    }
+
+    @Benchmark
+    public List<Member> attachPerformancesToMembers(Roster r, Detached d) {
+        r.storage.attachPerformancesToMembers(d.members, r.performances);
+        return d.members;
+    }
+}
@@ -0,0 +1,85 @@
+package com.gym.bench;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.billing.BillingEngine;
+import com.gym.billing.BillingRun;
+import com.gym.model.Member;
+
+// calculateMonthlyFee per subtype for a member with a multi-year history, plus a whole-roster billing run
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class OneMember {
+        // which subtype to measure
+        @Param({"REGULAR", "PT", "PREMIUM"})
+        public String type;
+
+        @Param({"60"})
+        public int months;
+
+        Member member;
+        YearMonth[] queries;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Member> three = BenchData.members(3, months, 3);
+            member = three.get(switch (type) {
+                case "REGULAR" -> 0;
+                case "PT" -> 1;
+                default -> 2;
+            });
+            queries = new YearMonth[months + 4]; // a few months without a record too
+            for (int i = 0; i < queries.length; i++) queries[i] = BenchData.FIRST_MONTH.plusMonths(i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public double calculateMonthlyFee(OneMember s, Cursor c) {
+        return s.member.calculateMonthlyFee(s.queries[c.next++ % s.queries.length]);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Roster {
+        @Param({"100000"})
+        public int members;
+
+        List<Member> roster;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            roster = BenchData.members(members, 12, 5);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public BillingRun billingRun(Roster r) {
+        return new BillingEngine().run(r.roster, BenchData.FIRST_MONTH.plusMonths(6));
+    }
+}
@@ -0,0 +1,150 @@
+package com.gym.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.gym.billing.FeeCache;
+import com.gym.model.Member;
+import com.gym.repository.MemberRepository;
+import com.gym.server.MemberHttpServer;
+
+// Closed-loop load test of MemberHttpServer: the server runs in-process on a free port over a
+// synthetic roster, and every client is a virtual thread that sends its next request as soon as
+// the previous answer arrives. The mix is 50% lookup by ID, 20% name search, 25% monthly fee and
+// 5% performance recording. Not a JMH benchmark; run it as
+//   java -cp target/benchmarks.jar com.gym.bench.HttpLoadTest [clients] [seconds] [members]
+// and it prints requests/s and latency percentiles once warm-up is over.
+public final class HttpLoadTest {
+
+    private static final int WARMUP_SECONDS = 5;
+    private static final String[] NAMES = {"Olivia", "liam", "Smith", "Emma1", "noah 42", "Garcia"};
+
+    private HttpLoadTest() {}
+
+    // Latencies of one client in microseconds; only written by that client's thread
+    private static final class Samples {
+        long[] micros = new long[1024];
+        int count;
+        int errors;
+
+        void add(long us) {
+            if (count == micros.length) micros = Arrays.copyOf(micros, count * 2);
+            micros[count++] = us;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        // as GymApp does for --http: without it every response waits ~40 ms on a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        List<Member> roster = BenchData.members(size, 12, 42);
+        MemberRepository repo = new MemberRepository();
+        repo.replaceAllMembers(roster);
+        String[] ids = roster.stream().map(Member::getMemberId).toArray(String[]::new);
+
+        try (MemberHttpServer server = new MemberHttpServer(repo, new FeeCache(1024),
+                p -> repo.recordPerformance(p.getMemberId(), p))) {
+            server.start(0);
+            String base = "http://127.0.0.1:" + server.getPort() + "/members";
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            System.out.printf("%d clients, %d members, %ds warm-up + %ds measured%n",
+                    clients, size, WARMUP_SECONDS, seconds);
+            long measureFrom = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+            long stopAt = measureFrom + seconds * 1_000_000_000L;
+
+            List<Future<Samples>> results = new ArrayList<>(clients);
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    results.add(pool.submit(() -> client(http, base, ids, measureFrom, stopAt)));
+                }
+            }
+
+            long total = 0;
+            int errors = 0;
+            for (Future<Samples> f : results) {
+                Samples s = f.get();
+                total += s.count;
+                errors += s.errors;
+            }
+            long[] all = new long[(int) total];
+            int at = 0;
+            for (Future<Samples> f : results) {
+                Samples s = f.get();
+                System.arraycopy(s.micros, 0, all, at, s.count);
+                at += s.count;
+            }
+            Arrays.sort(all);
+
+            System.out.printf("requests: %d in %ds = %.0f requests/s, %d errors%n",
+                    total, seconds, total / (double) seconds, errors);
+            System.out.printf("latency:  p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                    percentile(all, 0.999), all.length == 0 ? 0.0 : all[all.length - 1] / 1000.0);
+        }
+    }
+
+    private static Samples client(HttpClient http, String base, String[] ids, long measureFrom, long stopAt) {
+        Samples samples = new Samples();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < stopAt) {
+            HttpRequest request = request(base, ids[rnd.nextInt(ids.length)], rnd);
+            int status;
+            try {
+                status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            long done = System.nanoTime();
+            if (now < measureFrom) continue;
+            if (status < 200 || status >= 300) samples.errors++;
+            else samples.add((done - now) / 1000);
+        }
+        return samples;
+    }
+
+    private static HttpRequest request(String base, String id, ThreadLocalRandom rnd) {
+        int pick = rnd.nextInt(100);
+        if (pick < 50) {
+            return HttpRequest.newBuilder(URI.create(base + "/" + id)).GET().build();
+        } else if (pick < 70) {
+            String name = NAMES[rnd.nextInt(NAMES.length)].replace(" ", "%20");
+            return HttpRequest.newBuilder(URI.create(base + "?limit=20&name=" + name)).GET().build();
+        } else if (pick < 95) {
+            YearMonth month = BenchData.FIRST_MONTH.plusMonths(rnd.nextInt(12));
+            return HttpRequest.newBuilder(URI.create(base + "/" + id + "/fee?month=" + month)).GET().build();
+        }
+        YearMonth recent = BenchData.FIRST_MONTH.plusMonths(12 + rnd.nextInt(3));
+        String body = "{\"month\":\"" + recent + "\",\"goalAchieved\":" + rnd.nextBoolean()
+                + ",\"rating\":" + (1 + rnd.nextInt(5)) + ",\"notes\":\"load test\"}";
+        return HttpRequest.newBuilder(URI.create(base + "/" + id + "/performances"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // In milliseconds; all must be sorted
+    private static double percentile(long[] all, double p) {
+        if (all.length == 0) return 0.0;
+        int i = (int) Math.ceil(p * all.length) - 1;
+        return all[Math.max(0, Math.min(i, all.length - 1))] / 1000.0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.gym.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+
+// Speed-up of the chunked parallel loaders across pool sizes; compare with CsvLoadBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelLoadBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Benchmark
+    public List<Member> loadMembersParallel(CsvLoadBenchmark.Dataset f, CsvLoadBenchmark.Throughput t)
+            throws IOException {
+        List<Member> result = f.storage.loadMembersParallel(f.membersFile, threads);
+        t.rows += result.size();
+        t.bytes += f.membersBytes;
+        return result;
+    }
+
+    @Benchmark
+    public List<Performance> loadPerformancesParallel(CsvLoadBenchmark.Dataset f, CsvLoadBenchmark.Throughput t)
+            throws IOException {
+        List<Performance> result = f.storage.loadPerformancesParallel(f.performancesFile, threads);
+        t.rows += result.size();
+        t.bytes += f.performancesBytes;
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.gym.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.model.Member;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.repository.MemberQuery;
+import com.gym.repository.MemberRepository;
+
+// ID lookup, name search and indexed queries against rosters of 10k, 100k and 1M members.
+// Lookups are safe to run concurrently: use -t 1, -t 2, -t 4 ... to see read scaling.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Roster {
+        @Param({"10000", "100000", "1000000"})
+        public int size;
+
+        MemberRepository repo;
+        String[] ids;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Member> members = BenchData.members(size, 0, 42);
+            repo = new MemberRepository();
+            repo.replaceAllMembers(members);
+            ids = new String[members.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = members.get(i).getMemberId().toUpperCase();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        // a mix of selective and broad substrings, plus one that matches nobody
+        final String[] queries = {"olivia12", "smith", "mia 9", "ez", "no such name"};
+        int next;
+    }
+
+    @Benchmark
+    public Member findMemberById(Roster r, Cursor c) {
+        return r.repo.findMemberById(r.ids[c.next++ % r.ids.length]);
+    }
+
+    // selective (one quarter, one type, over 50) and broad (one age band) index queries
+    private static final MemberQuery JOINED_Q1_PT_OVER_50 = new MemberQuery()
+            .joinedBetween(LocalDate.of(2018, 1, 1), LocalDate.of(2018, 3, 31))
+            .ofType(PersonalTrainingMember.class)
+            .ageBetween(51, Integer.MAX_VALUE);
+    private static final MemberQuery AGED_30_TO_39 = new MemberQuery().ageBetween(30, 39);
+
+    @Benchmark
+    public int querySelective(Roster r) {
+        return r.repo.count(JOINED_Q1_PT_OVER_50);
+    }
+
+    @Benchmark
+    public int queryBroad(Roster r) {
+        return r.repo.count(AGED_30_TO_39);
+    }
+
+    @Benchmark
+    public int findMembersByName(Roster r, Cursor c) {
+        return r.repo.findMembersByName(c.queries[c.next++ % c.queries.length]).size();
+    }
+}
@@ -0,0 +1,100 @@
+package com.gym.bench;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.repository.MemberQuery;
+import com.gym.repository.MemberRepository;
+
+// Read throughput of name search and indexed queries with many threads on one repository.
+// "readers" runs readers only: they share the read lock, so throughput grows with the thread
+// count until the lock's state word becomes the bottleneck. "mixed" adds one thread recording
+// performances, which makes readers wait whenever a write holds the lock.
+// Scale the groups with -tg, e.g. -tg 8 for eight readers, -tg 7,1 for seven readers and a writer.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryScalingBenchmark {
+
+    private static final MemberQuery JOINED_Q1_PT = new MemberQuery()
+            .joinedBetween(LocalDate.of(2018, 1, 1), LocalDate.of(2018, 3, 31))
+            .ofType(PersonalTrainingMember.class);
+    private static final String[] NAMES = {"olivia12", "smith", "mia 9", "no such name"};
+
+    @State(Scope.Group)
+    public static class Roster {
+        @Param({"100000"})
+        public int size;
+
+        MemberRepository repo;
+        String[] ids;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Member> members = BenchData.members(size, 0, 42);
+            repo = new MemberRepository();
+            repo.replaceAllMembers(members);
+            ids = new String[members.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = members.get(i).getMemberId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    // alternates an indexed count and a name search, the two index read paths
+    private static int read(Roster r, Cursor c) {
+        int n = c.next++;
+        return (n & 1) == 0
+                ? r.repo.count(JOINED_Q1_PT)
+                : r.repo.findMembersByName(NAMES[(n >> 1) % NAMES.length]).size();
+    }
+
+    @Benchmark
+    @Group("readers")
+    @GroupThreads(4)
+    public int readersOnly(Roster r, Cursor c) {
+        return read(r, c);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public int mixedReader(Roster r, Cursor c) {
+        return read(r, c);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public boolean mixedWriter(Roster r, Cursor c) {
+        int n = c.next++;
+        String id = r.ids[n % r.ids.length];
+        YearMonth month = BenchData.FIRST_MONTH.plusMonths(n % 24);
+        return r.repo.recordPerformance(id, new Performance(id, month, (n & 1) == 0, 1 + n % 5, ""));
+    }
+}
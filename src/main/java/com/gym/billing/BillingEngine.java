@@ -0,0 +1,92 @@
+package com.gym.billing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.gym.model.Member;
+
+// Computes fees for a whole roster in one pass, spreading members across cores.
+// Members are only read, so the roster must not be changed while a run is in progress.
+public class BillingEngine {
+
+	// Members per parallel batch when streaming to CSV
+	private static final int CSV_BATCH = 10_000;
+
+	// Bills every member for a single month
+	public BillingRun run(List<Member> members, YearMonth month) {
+		return run(members, month, month);
+	}
+
+	// Bills every member for each month from..to inclusive; lines are month by month, roster order within
+	public BillingRun run(List<Member> members, YearMonth from, YearMonth to) {
+		Objects.requireNonNull(members, "members");
+		checkRange(from, to);
+
+		List<FeeLine> lines = new ArrayList<>();
+		for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+			lines.addAll(bill(members, month));
+		}
+		return new BillingRun(from, to, lines);
+	}
+
+	// Writes the line items straight to a CSV file in batches, so large rosters need not fit in memory
+	// as FeeLine objects; returns the number of lines written
+	public long writeCsv(List<Member> members, YearMonth from, YearMonth to, String filePath) throws IOException {
+		Objects.requireNonNull(members, "members");
+		checkRange(from, to);
+		Path file = Paths.get(filePath);
+		Path parent = file.getParent();
+		if (parent != null && !Files.exists(parent)) Files.createDirectories(parent);
+
+		long written = 0;
+		try (BufferedWriter w = Files.newBufferedWriter(file)) {
+			w.write("memberId,type,month,base,extras,discount,penalty,total");
+			w.newLine();
+			for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+				for (int i = 0; i < members.size(); i += CSV_BATCH) {
+					List<Member> batch = members.subList(i, Math.min(members.size(), i + CSV_BATCH));
+					for (FeeLine line : bill(batch, month)) {
+						w.write(String.join(",",
+								line.getMemberId(),
+								line.getMemberType(),
+								line.getMonth().toString(),
+								money(line.getBase()),
+								money(line.getExtras()),
+								money(line.getDiscount()),
+								money(line.getPenalty()),
+								money(line.getTotal())));
+						w.newLine();
+						written++;
+					}
+				}
+			}
+		}
+		return written;
+	}
+
+	// Parallel map that keeps the input order
+	private static List<FeeLine> bill(List<Member> members, YearMonth month) {
+		return members.parallelStream()
+				.map(m -> FeeLine.of(m, month))
+				.collect(Collectors.toList());
+	}
+
+	private static void checkRange(YearMonth from, YearMonth to) {
+		Objects.requireNonNull(from, "from");
+		Objects.requireNonNull(to, "to");
+		if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+	}
+
+	private static String money(double d) {
+		return String.format(Locale.ROOT, "%.2f", d);
+	}
+}
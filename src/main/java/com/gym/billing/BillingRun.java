@@ -0,0 +1,41 @@
+package com.gym.billing;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Result of a billing run: every line item plus totals per member type
+public final class BillingRun {
+
+	private final YearMonth from;
+	private final YearMonth to;
+	private final List<FeeLine> lines;
+	private final Map<String, Double> totalsByType;
+	private final double grandTotal;
+
+	BillingRun(YearMonth from, YearMonth to, List<FeeLine> lines) {
+		this.from = from;
+		this.to = to;
+		this.lines = Collections.unmodifiableList(lines);
+
+		Map<String, Double> totals = new LinkedHashMap<>();
+		totals.put("REGULAR", 0.0);
+		totals.put("PT", 0.0);
+		totals.put("PREMIUM", 0.0);
+		double sum = 0.0;
+		for (FeeLine line : lines) {
+			totals.merge(line.getMemberType(), line.getTotal(), Double::sum);
+			sum += line.getTotal();
+		}
+		this.totalsByType = Collections.unmodifiableMap(totals);
+		this.grandTotal = sum;
+	}
+
+	public YearMonth getFrom()                 { return from; }
+	public YearMonth getTo()                   { return to; }
+	public List<FeeLine> getLines()            { return lines; }
+	public Map<String, Double> getTotalsByType() { return totalsByType; }
+	public double getGrandTotal()              { return grandTotal; }
+}
@@ -0,0 +1,135 @@
+package com.gym.billing;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.gym.model.Member;
+import com.gym.model.MemberId;
+import com.gym.model.PackedPerformance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Bounded LRU cache of fee breakdowns per (member, month).
+// A breakdown depends only on the member's ID, type, base fee, extras and record for the month,
+// so an entry is checked against those on every hit rather than against the Member instance:
+// the file viewer builds fresh Member objects for every query and still hits, while a conversion,
+// a new fee or a record added, replaced or removed for that month makes the entry miss and be
+// dropped, however the change was made. Only the three member classes whose fee rules FeeLine
+// knows are cached. Entries nobody asks for again simply age out.
+// Safe to share between threads.
+public class FeeCache {
+
+	private final int capacity;
+	private final Map<Key, Entry> entries;
+	private long hits;
+	private long misses;
+	private long invalidations;
+
+	private static final class Key {
+		final Object member; // MemberId.key
+		final int month;     // PackedPerformance.epochMonth
+
+		Key(Object member, int month) {
+			this.member = member;
+			this.month = month;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key k = (Key) o;
+			return month == k.month && member.equals(k.member);
+		}
+
+		@Override
+		public int hashCode() {
+			return member.hashCode() * 31 + month;
+		}
+	}
+
+	// What the breakdown was computed from, next to the breakdown itself (which holds the base
+	// fee and extras); no reference to the member, so a dropped member is not kept alive
+	private static final class Entry {
+		final Class<?> type;
+		final long packedId; // MemberId.NOT_PACKED when the ID is compared as text
+		final int record;
+		final FeeLine line;
+
+		Entry(Member m, int record, FeeLine line) {
+			this.type = m.getClass();
+			this.packedId = m.getPackedId();
+			this.record = record;
+			this.line = line;
+		}
+
+		// Same spelling of the ID (the line shows it) and the same fee inputs
+		boolean matches(Member m, int record) {
+			if (type != m.getClass() || this.record != record) return false;
+			if (line.getBase() != m.getBaseFee() || line.getExtras() != FeeLine.extrasOf(m)) return false;
+			long id = m.getPackedId();
+			return id == packedId && (id != MemberId.NOT_PACKED || line.getMemberId().equals(m.getMemberId()));
+		}
+	}
+
+	public FeeCache(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) { // access order, eldest = least recently used
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > FeeCache.this.capacity;
+			}
+		};
+	}
+
+	// The member's fee breakdown for the month, from the cache when still valid
+	public synchronized FeeLine get(Member m, YearMonth month) {
+		// a month with no key (and no record either), or a member type whose rules are unknown
+		if (!PackedPerformance.fits(month) || !cacheable(m)) return FeeLine.of(m, month);
+		Key key = new Key(MemberId.key(m), PackedPerformance.epochMonth(month));
+		int record = m.getPackedPerformance(month);
+		Entry e = entries.get(key);
+		if (e != null) {
+			if (e.matches(m, record)) {
+				hits++;
+				return e.line;
+			}
+			invalidations++;
+		}
+		misses++;
+		FeeLine line = FeeLine.of(m, month);
+		entries.put(key, new Entry(m, record, line));
+		return line;
+	}
+
+	// Subclasses may bring fee rules of their own, which the entry checks would not see
+	private static boolean cacheable(Member m) {
+		Class<?> type = m.getClass();
+		return type == RegularMember.class || type == PersonalTrainingMember.class || type == PremiumMember.class;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size()            { return entries.size(); }
+	public int getCapacity()                  { return capacity; }
+	public synchronized long getHits()        { return hits; }
+	public synchronized long getMisses()      { return misses; }
+	// misses caused by a stale entry rather than a missing one
+	public synchronized long getInvalidations() { return invalidations; }
+
+	// Share of lookups answered from the cache, 0.0 before the first lookup
+	public synchronized double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : hits / (double) total;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "FeeCache[" + entries.size() + "/" + capacity + " entries, " + hits + " hits, " + misses
+				+ " misses, " + invalidations + " invalidated]";
+	}
+}
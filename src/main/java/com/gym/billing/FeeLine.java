@@ -0,0 +1,87 @@
+package com.gym.billing;
+
+import java.time.YearMonth;
+
+import com.gym.model.Member;
+import com.gym.model.PackedPerformance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// One member's fee for one month, split into the parts the subclasses add up
+public final class FeeLine {
+
+	private final String memberId;
+	private final String memberType;
+	private final YearMonth month;
+	private final double base;
+	private final double extras;
+	private final double discount;
+	private final double penalty;
+	private final double total;
+
+	private FeeLine(String memberId, String memberType, YearMonth month, double base, double extras,
+	                double discount, double penalty, double total) {
+		this.memberId = memberId;
+		this.memberType = memberType;
+		this.month = month;
+		this.base = base;
+		this.extras = extras;
+		this.discount = discount;
+		this.penalty = penalty;
+		this.total = total;
+	}
+
+	// Breaks down the member's fee; the total is always the member's own calculateMonthlyFee
+	public static FeeLine of(Member m, YearMonth month) {
+		double base = m.getBaseFee();
+		double extras = extrasOf(m);
+
+		// same rule as the subclasses: discount when the goal was met, otherwise penalty for a low rating
+		double discount = 0.0;
+		double penalty = 0.0;
+		int p = m.getPackedPerformance(month);
+		if (p != PackedPerformance.NONE) {
+			if (PackedPerformance.goalAchieved(p)) {
+				discount = (base + extras) * 0.10;
+			} else if (PackedPerformance.rating(p) <= 2) {
+				penalty = 10;
+			}
+		}
+		return new FeeLine(m.getMemberId(), typeOf(m), month, base, extras, discount, penalty,
+				m.calculateMonthlyFee(month));
+	}
+
+	// Session or premium service charges on top of the base fee
+	static double extrasOf(Member m) {
+		if (m instanceof PersonalTrainingMember pt) return pt.getSessionsPerMonth() * pt.getFeePerSession();
+		if (m instanceof PremiumMember pm) return pm.getPremiumServiceFee();
+		return 0.0;
+	}
+
+	// Type code as written in members.csv
+	public static String typeOf(Member m) {
+		if (m instanceof RegularMember) return "REGULAR";
+		if (m instanceof PersonalTrainingMember) return "PT";
+		if (m instanceof PremiumMember) return "PREMIUM";
+		return "OTHER";
+	}
+
+	public String getMemberId()   { return memberId; }
+	public String getMemberType() { return memberType; }
+	public YearMonth getMonth()   { return month; }
+	public double getBase()       { return base; }
+	public double getExtras()     { return extras; }
+	public double getDiscount()   { return discount; }
+	public double getPenalty()    { return penalty; }
+	public double getTotal()      { return total; }
+
+	@Override
+	public String toString() {
+		return memberId + " " + month + " [" + memberType + "] base=" + String.format("%.2f", base)
+				+ " extras=" + String.format("%.2f", extras)
+				+ " discount=" + String.format("%.2f", discount)
+				+ " penalty=" + String.format("%.2f", penalty)
+				+ " total=" + String.format("%.2f", total);
+	}
+}
@@ -0,0 +1,178 @@
+package com.gym.billing;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gym.model.Member;
+import com.gym.model.PackedPerformance;
+import com.gym.model.Performance;
+import com.gym.repository.MemberRepository;
+import com.gym.repository.RepositoryListener;
+
+// Projected revenue per month and member type, kept up to date from repository changes so a
+// month's totals are read in O(1) instead of billing the whole roster.
+// Every member owes its list fee (base + extras) each month; a month only differs by the
+// discounts and penalties of members with a record for it, so those are kept as per-month
+// adjustments. Each fee is rounded once to whole millionths (cents would lose the sub-cent
+// discounts) and summed in longs: taking a member out cancels exactly what adding it put in, so
+// the sums do not drift however many updates are applied, and rebuilding for a new roster costs a
+// multiply and a round per member and record under the repository's write lock.
+// Only changes made through the repository are seen: a history edited directly on a Member
+// leaves the totals stale, which verify() reports.
+public class RevenueAggregates implements RepositoryListener {
+
+	// same type codes as FeeLine and BillingRun
+	private static final String[] TYPES = {"REGULAR", "PT", "PREMIUM", "OTHER"};
+
+	// fees in millionths of a currency unit
+	private static final double UNITS = 1_000_000.0;
+
+	private final long[] listFees = new long[TYPES.length];
+	private final int[] counts = new int[TYPES.length];
+	// epoch month -> adjustments for months in which at least one member has a record
+	private final Map<Integer, Adjustment> months = new HashMap<>();
+
+	// Discounts and penalties of one month, relative to the list fees
+	private static final class Adjustment {
+		final long[] byType = new long[TYPES.length];
+		int records;
+	}
+
+	// Creates aggregates over the repository's current roster and keeps them in step with it
+	public static RevenueAggregates attach(MemberRepository repo) {
+		RevenueAggregates aggregates = new RevenueAggregates();
+		repo.addListener(aggregates);
+		return aggregates;
+	}
+
+	// Projected revenue for the month, all types together
+	public synchronized double total(YearMonth month) {
+		Adjustment adj = adjustment(month);
+		long sum = 0;
+		for (int t = 0; t < TYPES.length; t++) {
+			sum += listFees[t];
+			if (adj != null) sum += adj.byType[t];
+		}
+		return sum / UNITS;
+	}
+
+	// Projected revenue for the month per type, keyed like BillingRun.getTotalsByType
+	public synchronized Map<String, Double> totalsByType(YearMonth month) {
+		Adjustment adj = adjustment(month);
+		Map<String, Double> totals = new LinkedHashMap<>();
+		for (int t = 0; t < TYPES.length; t++) {
+			if (t == TYPES.length - 1 && counts[t] == 0) break; // OTHER only when present
+			totals.put(TYPES[t], (adj == null ? listFees[t] : listFees[t] + adj.byType[t]) / UNITS);
+		}
+		return totals;
+	}
+
+	// Members counted, all types together
+	public synchronized int memberCount() {
+		int n = 0;
+		for (int c : counts) n += c;
+		return n;
+	}
+
+	// Verification mode: bills the members in full for each month from..to and returns one
+	// line per type and month where the aggregates disagree (beyond rounding); empty when all agree.
+	// Pass the repository's current roster from inside MemberRepository.readAll: billing reads
+	// the members' histories, which only change under the repository's write lock.
+	public List<String> verify(List<Member> members, YearMonth from, YearMonth to) {
+		BillingEngine engine = new BillingEngine();
+		List<String> mismatches = new ArrayList<>();
+		for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+			Map<String, Double> expected = engine.run(members, month).getTotalsByType();
+			Map<String, Double> actual = totalsByType(month);
+			for (String type : TYPES) {
+				double e = expected.getOrDefault(type, 0.0);
+				double a = actual.getOrDefault(type, 0.0);
+				if (Math.abs(a - e) > 1e-6 * Math.max(1.0, Math.abs(e))) {
+					mismatches.add(month + " " + type + ": aggregated " + String.format("%.2f", a)
+							+ ", recomputed " + String.format("%.2f", e));
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	// Listener callbacks, made by the repository under its write lock
+
+	@Override
+	public synchronized void rosterReplaced(Collection<Member> members) {
+		Arrays.fill(listFees, 0);
+		Arrays.fill(counts, 0);
+		months.clear();
+		for (Member m : members) apply(m, 1);
+	}
+
+	@Override
+	public synchronized void memberAdded(Member member) {
+		apply(member, 1);
+	}
+
+	@Override
+	public synchronized void memberRemoved(Member member) {
+		apply(member, -1);
+	}
+
+	@Override
+	public synchronized void performanceChanging(Member member, YearMonth month) {
+		applyMonth(member, month, -1);
+	}
+
+	@Override
+	public synchronized void performanceChanged(Member member, YearMonth month) {
+		applyMonth(member, month, 1);
+	}
+
+	// Adds (sign 1) or takes out (sign -1) a member's list fee and every recorded month
+	private void apply(Member m, int sign) {
+		int t = typeIndex(m);
+		listFees[t] += sign * units(listFee(m));
+		counts[t] += sign;
+		for (Performance p : m.getPerformanceHistory()) {
+			applyMonth(m, p.getMonth(), sign);
+		}
+	}
+
+	// Adds or takes out the member's discount or penalty for the month, if it has a record for it
+	private void applyMonth(Member m, YearMonth month, int sign) {
+		if (m.getPackedPerformance(month) == PackedPerformance.NONE) return;
+		int key = PackedPerformance.epochMonth(month);
+		Adjustment adj = months.computeIfAbsent(key, k -> new Adjustment());
+		int t = typeIndex(m);
+		// the member's own calculateMonthlyFee, so the rules stay those of the subclasses
+		adj.byType[t] += sign * (units(m.calculateMonthlyFee(month)) - units(listFee(m)));
+		adj.records += sign;
+		if (adj.records == 0) months.remove(key); // the adjustments are exactly zero again
+	}
+
+	// No member has a record for a month PackedPerformance cannot hold, so there is nothing to adjust
+	private Adjustment adjustment(YearMonth month) {
+		return PackedPerformance.fits(month) ? months.get(PackedPerformance.epochMonth(month)) : null;
+	}
+
+	// calculateMonthlyFee for a month without a record
+	private static double listFee(Member m) {
+		return Math.max(m.getBaseFee() + FeeLine.extrasOf(m), 0);
+	}
+
+	private static long units(double fee) {
+		return Math.round(fee * UNITS);
+	}
+
+	private static int typeIndex(Member m) {
+		String type = FeeLine.typeOf(m);
+		for (int t = 0; t < TYPES.length - 1; t++) {
+			if (TYPES[t].equals(type)) return t;
+		}
+		return TYPES.length - 1;
+	}
+}
@@ -0,0 +1,173 @@
+package com.gym.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+import com.gym.storage.CsvStorage;
+
+// Applies commands from a file or stdin to the repository without the menu, one per line,
+// with the same fields as the CSV files:
+//   add,<members.csv row>          new member; fails if the ID is taken
+//   update,<members.csv row>       replaces the member with that ID, history kept (type may change)
+//   convert,<id>,REGULAR,<baseFee>
+//   convert,<id>,PT,<baseFee>,<sessionsPerMonth>,<feePerSession>
+//   convert,<id>,PREMIUM,<baseFee>,<spaAccess>,<premiumServiceFee>
+//                                  new type for an existing member; name, age and join date kept
+//   record,<performances.csv row>  adds or replaces the member's performance for that month
+//   delete,<id>
+// Blank lines and lines starting with # are skipped. A failing command is counted and reported,
+// and the run carries on with the next line.
+final class BatchCommands {
+
+	// error lines printed in the summary; the rest are only counted
+	private static final int MAX_REPORTED_ERRORS = 20;
+
+	private final MemberRepository repo;
+	private final int saveEvery;
+	private final Runnable save;
+
+	private int adds, updates, converts, records, deletes;
+	private int errorCount;
+	private final List<String> errors = new ArrayList<>();
+	private long elapsedNanos;
+
+	// save runs after every saveEvery applied commands (0 = never; the caller saves at the end)
+	BatchCommands(MemberRepository repo, int saveEvery, Runnable save) {
+		this.repo = repo;
+		this.saveEvery = saveEvery;
+		this.save = save;
+	}
+
+	void run(BufferedReader commands) throws IOException {
+		long start = System.nanoTime();
+		try {
+			String line;
+			int lineNo = 0;
+			while ((line = commands.readLine()) != null) {
+				lineNo++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) continue;
+				String error;
+				try {
+					error = apply(line);
+				} catch (RuntimeException e) { // e.g. a join date that does not parse
+					error = "malformed command (" + e.getMessage() + ")";
+				}
+				if (error != null) {
+					errorCount++;
+					if (errors.size() < MAX_REPORTED_ERRORS) errors.add("line " + lineNo + ": " + error);
+				} else if (saveEvery > 0 && applied() % saveEvery == 0) {
+					save.run();
+				}
+			}
+		} finally {
+			elapsedNanos += System.nanoTime() - start;
+		}
+	}
+
+	// Commands that changed the repository
+	int applied() {
+		return adds + updates + converts + records + deletes;
+	}
+
+	int errorCount() {
+		return errorCount;
+	}
+
+	void printSummary(PrintStream out) {
+		double seconds = elapsedNanos / 1e9;
+		int total = applied() + errorCount;
+		out.println("Batch: " + total + " commands in " + String.format("%.0f", seconds * 1000) + " ms ("
+				+ String.format("%.0f", seconds > 0 ? total / seconds : 0.0) + " commands/s)");
+		out.println("  applied " + applied() + ": " + adds + " add, " + updates + " update, " + converts
+				+ " convert, " + records + " record, " + deletes + " delete");
+		out.println("  errors  " + errorCount);
+		for (String e : errors) out.println("  - " + e);
+		if (errorCount > errors.size()) out.println("  ... and " + (errorCount - errors.size()) + " more");
+	}
+
+	// Returns null when applied, otherwise what went wrong
+	private String apply(String line) {
+		int comma = line.indexOf(',');
+		String command = (comma < 0 ? line : line.substring(0, comma)).trim().toLowerCase(Locale.ROOT);
+		String rest = comma < 0 ? "" : line.substring(comma + 1);
+
+		switch (command) {
+		case "add": {
+			Member m = CsvStorage.parseMemberRow(rest);
+			if (m == null) return "not a members.csv row";
+			if (!repo.addMember(m)) return "member " + m.getMemberId() + " already exists";
+			adds++;
+			return null;
+		}
+		case "update": {
+			Member m = CsvStorage.parseMemberRow(rest);
+			if (m == null) return "not a members.csv row";
+			if (!repo.replaceMember(m.getMemberId(), m)) return "no member " + m.getMemberId();
+			updates++;
+			return null;
+		}
+		case "convert": {
+			String[] cols = rest.split(",", -1);
+			Member old = repo.findMemberById(cols[0].trim());
+			if (old == null) return "no member " + cols[0].trim();
+			Member updated = converted(old, cols);
+			if (updated == null) return "expected convert,<id>,REGULAR|PT|PREMIUM,<baseFee>[,...]";
+			if (!repo.replaceMember(old.getMemberId(), updated)) return "no member " + old.getMemberId();
+			converts++;
+			return null;
+		}
+		case "record": {
+			Performance p = CsvStorage.parsePerformanceRow(rest);
+			if (p == null) return "not a performances.csv row";
+			if (!repo.recordPerformance(p.getMemberId(), p)) return "no member " + p.getMemberId();
+			records++;
+			return null;
+		}
+		case "delete": {
+			String id = rest.trim();
+			if (!repo.deleteMember(id)) return "no member " + id;
+			deletes++;
+			return null;
+		}
+		default:
+			return "unknown command '" + command + "'";
+		}
+	}
+
+	// The member rebuilt as the requested type; replaceMember carries the history over.
+	// null when the columns do not fit the type.
+	private static Member converted(Member old, String[] cols) {
+		if (cols.length < 3) return null;
+		String type = cols[1].trim().toUpperCase(Locale.ROOT);
+		double base = Double.parseDouble(cols[2].trim());
+		switch (type) {
+		case "REGULAR":
+			if (cols.length != 3) return null;
+			return new RegularMember(old.getMemberId(), old.getFirstName(), old.getLastName(),
+					old.getAge(), old.getJoinDate(), base);
+		case "PT":
+			if (cols.length != 5) return null;
+			return new PersonalTrainingMember(old.getMemberId(), old.getFirstName(), old.getLastName(),
+					old.getAge(), old.getJoinDate(), base,
+					Integer.parseInt(cols[3].trim()), Double.parseDouble(cols[4].trim()));
+		case "PREMIUM":
+			if (cols.length != 5) return null;
+			return new PremiumMember(old.getMemberId(), old.getFirstName(), old.getLastName(),
+					old.getAge(), old.getJoinDate(), base,
+					CsvStorage.parseBooleanSafe(cols[3]), Double.parseDouble(cols[4].trim()));
+		default:
+			return null;
+		}
+	}
+}
@@ -1,20 +1,35 @@
 package com.gym.main;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
+import com.gym.billing.FeeCache;
+import com.gym.billing.FeeLine;
+import com.gym.billing.RevenueAggregates;
 import com.gym.model.Member;
+import com.gym.model.PackedPerformance;
 import com.gym.model.Performance;
 import com.gym.model.PersonalTrainingMember;
 import com.gym.model.PremiumMember;
 import com.gym.model.RegularMember;
 import com.gym.repository.MemberRepository;
+import com.gym.server.MemberHttpServer;
+import com.gym.storage.BinarySnapshotStorage;
 import com.gym.storage.CsvStorage;
+import com.gym.storage.MemberFilter;
+import com.gym.storage.MemberJournal;
+import com.gym.storage.ParsedFileCache;
+import com.gym.storage.PersistenceService;
 
 public class GymApp {
 
@@ -22,18 +37,99 @@ public class GymApp {
     private final Scanner in = new Scanner(System.in);
     private final MemberRepository repo = new MemberRepository();
     private final CsvStorage storage = new CsvStorage();
+    private final BinarySnapshotStorage snapshots = new BinarySnapshotStorage();
+    // Parsed CSVs for options 1 and 5, so reopening an unchanged file skips the parse
+    private final ParsedFileCache parsedFiles = new ParsedFileCache(storage, PARSED_FILE_BUDGET);
+    // Projected revenue per month and type, kept in step with the repository
+    private final RevenueAggregates revenue = RevenueAggregates.attach(repo);
+    // Fee breakdowns shown by the viewers; operators tend to ask for the same ones again
+    private final FeeCache fees = new FeeCache(FEE_CACHE_SIZE);
 
     // File paths for data storage
     private final String DATA_DIR     = "data";
     private final String MEMBERS_FILE = DATA_DIR + "/members.csv";
     private final String PERF_FILE    = DATA_DIR + "/performances.csv";
+    private final String JOURNAL_FILE = DATA_DIR + "/journal.log";
+    private final String SNAPSHOT_FILE = DATA_DIR + "/snapshot.bin";
+    // Journal records between automatic checkpoints in --journal mode
+    private final int CHECKPOINT_EVERY = 200;
+    // (member, month) fee breakdowns kept by the fee cache
+    private static final int FEE_CACHE_SIZE = 1024;
+    // Memory the parsed-file cache may hold, in bytes
+    private static final long PARSED_FILE_BUDGET = 64L << 20;
+
+    // Non-null in --journal mode: changes are appended to the journal instead of rewriting the CSVs
+    private final MemberJournal journal;
+    // Set once the journal has been replayed; until then a checkpoint would overwrite the files
+    private boolean journalRecovered;
+    // Non-null otherwise: rewrites the CSVs in the background, one write per burst of changes
+    private final PersistenceService persistence;
+    // --verify-revenue: check the revenue aggregates against a full recompute whenever they are shown
+    private final boolean verifyRevenue;
+    // --http <port>: JSON service over the same repository next to the console; -1 when off
+    private final int httpPort;
+    // --http-bind <address>: interface to listen on; null for loopback only, the service has no login
+    private final String httpBind;
+    private MemberHttpServer http;
+
+    public GymApp(boolean journaled, boolean verifyRevenue, int httpPort, String httpBind) {
+        this.journal = journaled
+                ? new MemberJournal(storage, JOURNAL_FILE, MEMBERS_FILE, PERF_FILE, CHECKPOINT_EVERY)
+                : null;
+        this.persistence = journaled
+                ? null
+                : new PersistenceService(storage, repo, MEMBERS_FILE, PERF_FILE);
+        this.verifyRevenue = verifyRevenue;
+        this.httpPort = httpPort;
+        this.httpBind = httpBind;
+    }
 
+    // Usage: GymApp [--journal] [--verify-revenue] [--http <port> [--http-bind <address>]]
+    //              [--batch <file>|- [--save-every N]]
     public static void main(String[] args) {
-        new GymApp().run();
+        List<String> flags = Arrays.asList(args);
+        int http = flags.indexOf("--http");
+        int httpPort = http >= 0 ? intFlag(args, http, 0, 65535) : -1;
+        if (httpPort >= 0 && System.getProperty("sun.net.httpserver.nodelay") == null) {
+            // The JDK server writes the headers and the body separately; with Nagle's algorithm on, the
+            // body waits for the client's delayed ACK of the headers, about 40 ms on every request.
+            // Read once, when the first server in the JVM is created, so it is set before startHttp.
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int bind = flags.indexOf("--http-bind");
+        String httpBind = bind >= 0 && bind + 1 < args.length ? args[bind + 1] : null;
+        GymApp app = new GymApp(flags.contains("--journal"), flags.contains("--verify-revenue"), httpPort, httpBind);
+        int batch = flags.indexOf("--batch");
+        if (batch < 0) {
+            app.run();
+            return;
+        }
+        String source = batch + 1 < args.length ? args[batch + 1] : "-";
+        int every = flags.indexOf("--save-every");
+        int saveEvery = every >= 0 ? intFlag(args, every, 0, Integer.MAX_VALUE) : 0;
+        if (!app.runBatch(source, saveEvery)) System.exit(1);
+    }
+
+    // The number after the flag at args[at]; a missing or bad one ends the run with the usage
+    private static int intFlag(String[] args, int at, int min, int max) {
+        String value = at + 1 < args.length ? args[at + 1] : "";
+        try {
+            int n = Integer.parseInt(value.trim());
+            if (n >= min && n <= max) return n;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.err.println(args[at] + " needs a number from " + min + " to " + max + ", got '" + value + "'");
+        System.err.println("Usage: GymApp [--journal] [--verify-revenue] [--http <port> [--http-bind <address>]]");
+        System.err.println("              [--batch <file>|- [--save-every N]]");
+        System.exit(2);
+        return -1; // not reached
     }
 
     private void run() {
         ensureDataDir(); // Create data folder if missing
+        if (journal != null) recoverFromJournal();
+        if (httpPort >= 0) startHttp();
         while (true) {
             printMenu();
             int choice = Input.readInt(in, "Please choose an option: ");
@@ -43,13 +139,62 @@ public class GymApp {
                 case 3 -> optionUpdateMemberAndSave();     // includes recording performance + edit details
                 case 4 -> optionDeleteMemberAndSave();
                 case 5 -> optionLoadFileAndQueryOnly();
-                case 6 -> { System.out.println("Goodbye!"); return; }
+                case 6 -> optionSaveBinarySnapshot();
+                case 7 -> optionShowRevenue();
+                case 8 -> { shutdown(); System.out.println("Goodbye!"); return; }
                 default -> System.out.println("Invalid choice.");
             }
             System.out.println();
         }
     }
 
+    // Applies batch commands (see BatchCommands) to the data in the fixed files and saves once at
+    // the end, or every saveEvery commands. Returns false if anything failed.
+    private boolean runBatch(String source, int saveEvery) {
+        ensureDataDir();
+        try {
+            if (journal != null) {
+                recoverFromJournal();
+                if (!journalRecovered) return false; // saving now would overwrite the files
+            } else {
+                repo.replaceAllMembers(parsedFiles.load(MEMBERS_FILE, PERF_FILE));
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to load " + MEMBERS_FILE + ": " + e.getMessage());
+            return false;
+        }
+
+        BatchCommands batch = new BatchCommands(repo, saveEvery, this::saveBatch);
+        boolean ok = true;
+        try (BufferedReader r = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Paths.get(source))) {
+            batch.run(r);
+        } catch (IOException e) {
+            System.out.println("Failed to read " + source + ": " + e.getMessage());
+            ok = false;
+        }
+
+        // what was applied is saved even when reading stopped part way
+        if (batch.applied() > 0 && persistence != null) persistence.requestSave();
+        ok &= shutdown();
+        batch.printSummary(System.out);
+        return ok && batch.errorCount() == 0;
+    }
+
+    // Intermediate save during a batch: a background CSV rewrite, or a journal checkpoint
+    private void saveBatch() {
+        if (persistence != null) {
+            persistence.requestSave();
+            return;
+        }
+        try {
+            journal.checkpoint(repo);
+        } catch (IOException e) {
+            System.out.println("Failed to save: " + e.getMessage());
+        }
+    }
+
     private void printMenu() { // Displays main menu
         System.out.println("===== Member Management System =====");
         System.out.println("1. Load records in a new file to access latest records");
@@ -57,15 +202,29 @@ public class GymApp {
         System.out.println("3. Update member information and save to a new file");
         System.out.println("4. Delete member and save to a new file");
         System.out.println("5. Load new file to view / query member details");
-        System.out.println("6. Exit");
+        System.out.println("6. Save binary snapshot for fast loading");
+        System.out.println("7. Show projected revenue for a month");
+        System.out.println("8. Exit");
     }
 
     // Load CSV into repository
     private void optionLoadRecordsIntoRepository() {
         String membersPath = Input.readLine(in,
-                "Path to MEMBERS CSV (Enter for default " + MEMBERS_FILE + "): ");
+                "Path to MEMBERS CSV or .bin snapshot (Enter for default " + MEMBERS_FILE + "): ");
         if (membersPath.isBlank()) membersPath = MEMBERS_FILE;
 
+        // a binary snapshot already holds the performances
+        if (membersPath.endsWith(".bin")) {
+            try {
+                repo.replaceAllMembers(snapshots.load(membersPath));
+                System.out.println("Loaded into repository: " + repo.getAllMembers().size() + " members.");
+                if (journal != null) journal.checkpoint(repo);
+            } catch (IOException e) {
+                System.out.println("Failed to load: " + e.getMessage());
+            }
+            return;
+        }
+
         String perfPath = Input.readLine(in,
                 "Path to PERFORMANCES CSV (Enter for default " + PERF_FILE + ", or leave empty to skip): ");
         boolean usePerf = true;
@@ -76,18 +235,53 @@ public class GymApp {
         }
 
         try {
-            List<Member> members = storage.loadMembers(membersPath);
-            if (usePerf) {
-                List<Performance> perfs = storage.loadPerformances(perfPath);
-                storage.attachPerformancesToMembers(members, perfs);
-            }
+            List<Member> members = parsedFiles.load(membersPath, usePerf ? perfPath : null);
             repo.replaceAllMembers(members);
             System.out.println("Loaded into repository: " + repo.getAllMembers().size() + " members.");
+            // the journal replays on top of the fixed files, so they must match the new contents
+            if (journal != null) journal.checkpoint(repo);
         } catch (IOException e) {
             System.out.println("Failed to load: " + e.getMessage());
         }
     }
 
+    // Write the repository, performances included, as a binary snapshot
+    private void optionSaveBinarySnapshot() {
+        String path = Input.readLine(in, "Snapshot path (Enter for default " + SNAPSHOT_FILE + "): ");
+        if (path.isBlank()) path = SNAPSHOT_FILE;
+        try {
+            String written = snapshots.save(repo, path);
+            System.out.println("Saved " + repo.getAllMembers().size() + " members to " + written);
+        } catch (IOException e) {
+            System.out.println("Failed to save: " + e.getMessage());
+        }
+    }
+
+    // Revenue totals come from the aggregates; the roster is only billed in full in --verify-revenue mode
+    private void optionShowRevenue() {
+        YearMonth ym = readYearMonth("Month (YYYY-MM): ");
+        if (ym == null) {
+            System.out.println("Invalid month.");
+            return;
+        }
+        System.out.println("\nProjected revenue for " + ym + " (" + revenue.memberCount() + " members):");
+        for (Map.Entry<String, Double> e : revenue.totalsByType(ym).entrySet()) {
+            System.out.println(String.format("%-8s $%.2f", e.getKey(), e.getValue()));
+        }
+        System.out.println("-------------------------------");
+        System.out.println(String.format("%-8s $%.2f", "Total", revenue.total(ym)));
+
+        if (verifyRevenue) {
+            List<String> mismatches = repo.readAll(members -> revenue.verify(members, ym, ym));
+            if (mismatches.isEmpty()) {
+                System.out.println("Verified against a full recompute: OK");
+            } else {
+                System.out.println("Aggregates differ from a full recompute:");
+                for (String line : mismatches) System.out.println(" - " + line);
+            }
+        }
+    }
+
     // Add a member and save to fixed CSVs
     private void optionAddMemberAndSave() {
         Member m = createMemberInteractively();
@@ -98,7 +292,7 @@ public class GymApp {
             System.out.println("Could not add member (duplicate ID or null).");
             return;
         }
-        saveSnapshot();  // overwrites data/members.csv and data/performances.csv
+        saveMember(m);  // overwrites data/members.csv and data/performances.csv, or appends to the journal
     }
 
     // Update / Convert / Record performance / Edit personal details
@@ -125,8 +319,7 @@ public class GymApp {
             case 1 -> {
                 double newBaseFee = Input.readDouble(in,
                         "New base fee (current $" + String.format("%.2f", old.getBaseFee()) + "): ");
-                convertKeepTypeWithNewBase(old, newBaseFee);
-                saveSnapshot();
+                saveMember(convertKeepTypeWithNewBase(old, newBaseFee));
                 System.out.println("Updated and saved.");
             }
             case 2 -> {
@@ -134,8 +327,8 @@ public class GymApp {
                 Member updated = new RegularMember(
                         old.getMemberId(), old.getFirstName(), old.getLastName(),
                         old.getAge(), old.getJoinDate(), base);
-                copyPerfAndReplace(old, updated);
-                saveSnapshot();
+                replaceKeepingHistory(old, updated);
+                saveMember(updated);
                 System.out.println("Converted to Regular and saved.");
             }
             case 3 -> {
@@ -145,8 +338,8 @@ public class GymApp {
                 Member updated = new PersonalTrainingMember(
                         old.getMemberId(), old.getFirstName(), old.getLastName(),
                         old.getAge(), old.getJoinDate(), base, sessions, per);
-                copyPerfAndReplace(old, updated);
-                saveSnapshot();
+                replaceKeepingHistory(old, updated);
+                saveMember(updated);
                 System.out.println("Converted to PT and saved.");
             }
             case 4 -> {
@@ -156,8 +349,8 @@ public class GymApp {
                 Member updated = new PremiumMember(
                         old.getMemberId(), old.getFirstName(), old.getLastName(),
                         old.getAge(), old.getJoinDate(), base, spa, premium);
-                copyPerfAndReplace(old, updated);
-                saveSnapshot();
+                replaceKeepingHistory(old, updated);
+                saveMember(updated);
                 System.out.println("Converted to Premium and saved.");
             }
             case 5 -> {
@@ -171,7 +364,7 @@ public class GymApp {
         }
     }
 
-    private void convertKeepTypeWithNewBase(Member old, double newBase) {
+    private Member convertKeepTypeWithNewBase(Member old, double newBase) {
         Member updated;
         if (old instanceof RegularMember) {
             updated = new RegularMember(old.getMemberId(), old.getFirstName(), old.getLastName(),
@@ -186,16 +379,18 @@ public class GymApp {
             updated = new RegularMember(old.getMemberId(), old.getFirstName(), old.getLastName(),
                     old.getAge(), old.getJoinDate(), newBase);
         }
-        copyPerfAndReplace(old, updated);
+        replaceKeepingHistory(old, updated);
+        return updated;
     }
 
-    private void copyPerfAndReplace(Member old, Member updated) {
-        for (Performance p : old.getPerformanceHistory()) {
-            updated.addOrReplacePerformance(p);
-        }
-        // replace in repository
+    // The repository moves the history over under its lock, so a performance posted over HTTP
+    // while the console was asking for the new details ends up on the updated member too
+    private void replaceKeepingHistory(Member old, Member updated) {
         if (!repo.replaceMember(old.getMemberId(), updated)) {
-            repo.deleteMember(old.getMemberId());
+            // deleted meanwhile: nothing changes the old history any more, copy it and add back
+            for (Performance p : old.getPerformanceHistory()) {
+                updated.addOrReplacePerformance(p);
+            }
             repo.addMember(updated);
         }
     }
@@ -208,7 +403,7 @@ public class GymApp {
         String id = Input.readLine(in, "Enter Member ID to delete: ");
         boolean ok = repo.deleteMember(id);
         System.out.println(ok ? "Deleted." : "Member not found.");
-        if (ok) saveSnapshot();
+        if (ok) saveDeletion(id);
     }
 
     // Viewer for a CSV without touching repo
@@ -221,24 +416,30 @@ public class GymApp {
         String perfPath = Input.readLine(in,
                 "Path to PERFORMANCES CSV to view (Enter for default " + PERF_FILE + ", or leave empty to skip): ");
 
-        try {
-            List<Member> list = storage.loadMembers(membersPath);
+        // attach performances if a path is provided (or use default)
+        if (perfPath.isBlank()) {
+            boolean useDefault = Input.readYesNo(in, "Use default performances file? (y/n): ");
+            if (useDefault) perfPath = PERF_FILE;
+        }
 
-            // attach performances if a path is provided (or use default)
-            if (perfPath.isBlank()) {
-                boolean useDefault = Input.readYesNo(in, "Use default performances file? (y/n): ");
-                if (useDefault) perfPath = PERF_FILE;
-            }
-            if (!perfPath.isBlank()) {
-                List<Performance> perfs = storage.loadPerformances(perfPath);
-                storage.attachPerformancesToMembers(list, perfs);
-            }
+        // large archived files: answer each query with a filtered scan instead of a full load
+        if (Input.readYesNo(in, "Query the files in place without loading them? (y/n): ")) {
+            queryFilesInPlace(membersPath, perfPath);
+            return;
+        }
+
+        try {
+            List<Member> list = parsedFiles.load(membersPath, perfPath.isBlank() ? null : perfPath);
 
             if (list.isEmpty()) {
                 System.out.println("No members found in file.");
                 return;
             }
 
+            // indexed copy of the file for ID and name queries; the main repository is untouched
+            MemberRepository view = new MemberRepository();
+            view.replaceAllMembers(list);
+
             while (true) {
                 System.out.println("\n-- Viewer --");
                 System.out.println("1. List all");
@@ -250,9 +451,7 @@ public class GymApp {
                     for (Member m : list) System.out.println(m.getSummary());
                 } else if (c == 2) {
                     String id = Input.readLine(in, "ID: ");
-                    Member m = list.stream()
-                            .filter(mm -> mm.getMemberId().equalsIgnoreCase(id))
-                            .findFirst().orElse(null);
+                    Member m = view.findMemberById(id);
                     if (m == null) {
                         System.out.println("Not found.");
                     } else {
@@ -268,11 +467,8 @@ public class GymApp {
                         }
                     }
                 } else if (c == 3) {
-                    String name = Input.readLine(in, "Name contains: ").toLowerCase();
-                    list.stream()
-                        .filter(m -> (m.getFirstName() + " " + m.getLastName())
-                                .toLowerCase().contains(name))
-                        .forEach(m -> System.out.println(m.getSummary()));
+                    String name = Input.readLine(in, "Name contains: ");
+                    for (Member m : view.findMembersByName(name)) System.out.println(m.getSummary());
                 } else if (c == 4) {
                     break;
                 } else {
@@ -305,8 +501,14 @@ public class GymApp {
         String notes = Input.readLine(in, "Notes (optional): ");
 
         Performance p = new Performance(m.getMemberId(), ym, achieved, rating, notes);
-        m.addOrReplacePerformance(p);
-        saveSnapshot();
+        synchronized (this) { // the HTTP service records too, see recordFromHttp
+            // through the repository so the revenue aggregates see the change
+            if (!repo.recordPerformance(m.getMemberId(), p)) {
+                System.out.println("Member not found.");
+                return;
+            }
+            savePerformance(p);
+        }
         System.out.println("Performance saved.");
     }
 
@@ -350,59 +552,214 @@ public class GymApp {
         }
     }
 
+    // Viewer over files on disk: each query scans the members file with its predicates pushed
+    // into the scan, and only the matches get their performances loaded
+    private void queryFilesInPlace(String membersPath, String perfPath) {
+        while (true) {
+            System.out.println("\n-- File query --");
+            System.out.println("1. Find by ID");
+            System.out.println("2. Search by name");
+            System.out.println("3. Filter by type and join date");
+            System.out.println("4. Back");
+            int c = Input.readInt(in, "Choose: ");
+            MemberFilter filter = new MemberFilter();
+            if (c == 1) {
+                filter.idEquals(Input.readLine(in, "ID: "));
+            } else if (c == 2) {
+                filter.nameContains(Input.readLine(in, "Name contains: "));
+            } else if (c == 3) {
+                String type = Input.readLine(in, "Type (REGULAR/PT/PREMIUM, Enter for any): ").trim().toUpperCase();
+                if (type.equals("REGULAR")) filter.ofType(RegularMember.class);
+                else if (type.equals("PT")) filter.ofType(PersonalTrainingMember.class);
+                else if (type.equals("PREMIUM")) filter.ofType(PremiumMember.class);
+                else if (!type.isEmpty()) {
+                    System.out.println("Invalid type.");
+                    continue;
+                }
+                if (Input.readYesNo(in, "Filter by join date? (y/n): ")) {
+                    LocalDate from = Input.readLocalDate(in, "Joined on or after (YYYY-MM-DD): ");
+                    LocalDate to = Input.readLocalDate(in, "Joined on or before (YYYY-MM-DD): ");
+                    filter.joinedBetween(from, to);
+                }
+            } else if (c == 4) {
+                break;
+            } else {
+                System.out.println("Invalid.");
+                continue;
+            }
+
+            try {
+                List<Member> found = storage.findMembers(membersPath, filter);
+                if (!perfPath.isBlank()) {
+                    storage.attachPerformancesToMembers(found, storage.loadPerformancesOf(perfPath, found));
+                }
+                if (found.isEmpty()) {
+                    System.out.println("Not found.");
+                    continue;
+                }
+                for (Member m : found) System.out.println(m.getSummary());
+                if (found.size() == 1 && Input.readYesNo(in, "Calculate fee for a month? (y/n): ")) {
+                    YearMonth ym = readYearMonth("Month (YYYY-MM): ");
+                    if (ym == null) {
+                        System.out.println("Invalid month.");
+                    } else {
+                        printFeeBreakdown(found.get(0), ym);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Failed to read: " + e.getMessage());
+            }
+        }
+    }
+
+    // Same breakdown as billing runs use, so the printed total is the member's calculateMonthlyFee
     private void printFeeBreakdown(Member m, YearMonth month) {
         System.out.println("\nMonthly Fee Breakdown for " + month + ":");
         System.out.println("ID: " + m.getMemberId() + " | " + m.getFirstName() + " " + m.getLastName() +
                 " | Joined: " + m.getJoinDate() + " | Base Fee: $" + String.format("%.2f", m.getBaseFee()));
 
-        Performance p = m.getPerformance(month);
-
-        if (p == null) {
+        if (m.getPackedPerformance(month) == PackedPerformance.NONE) {
             System.out.println("(No performance record for " + month + ")");
         }
 
-        double base = m.getBaseFee();
-        double extra = 0.0;
-        double perfDiscount = 0.0;
-        double lowPenalty = 0.0;
+        FeeLine line = fees.get(m, month);
+        if (m instanceof PersonalTrainingMember) {
+            System.out.println("PT Extra:       $" + String.format("%.2f", line.getExtras()));
+        }
+        if (m instanceof PremiumMember) {
+            System.out.println("Premium Extra: $" + String.format("%.2f", line.getExtras()));
+        }
 
-        if (m instanceof PersonalTrainingMember pt) {
-            extra += pt.getSessionsPerMonth() * pt.getFeePerSession();
-            System.out.println("PT Extra:       $" + String.format("%.2f", extra));
+        System.out.println("Subtotal:       $" + String.format("%.2f", line.getBase() + line.getExtras()));
+        if (line.getDiscount() > 0) {
+            System.out.println("Performance Discount (10%): -$" + String.format("%.2f", line.getDiscount()));
         }
-        if (m instanceof PremiumMember pm) {
-            extra += pm.getPremiumServiceFee();
-            System.out.println("Premium Extra: $" + String.format("%.2f", pm.getPremiumServiceFee()));
+        if (line.getPenalty() > 0) {
+            System.out.println("Low Rating Penalty: +$" + String.format("%.2f", line.getPenalty()));
         }
 
-        double subtotal = base + extra;
-        System.out.println("Subtotal:       $" + String.format("%.2f", subtotal));
+        System.out.println("-------------------------------");
+        System.out.println("Total:          $" + String.format("%.2f", line.getTotal()));
+    }
+
+    // Queues a rewrite of the fixed files; the write itself happens off the console thread
+    private void saveSnapshot() {
+        IOException previous = persistence.getLastFailure();
+        if (previous != null) System.out.println("Previous save failed: " + previous.getMessage());
+        persistence.requestSave();
+        System.out.println("Saving to fixed files:");
+        System.out.println(" - " + MEMBERS_FILE);
+        System.out.println(" - " + PERF_FILE);
+    }
 
-        if (p != null) {
-            if (p.getGoalAchieved()) {
-                perfDiscount = subtotal * 0.10;
-                System.out.println("Performance Discount (10%): -$" + String.format("%.2f", perfDiscount));
-            }
-            if (p.getRating() <= 2) {
-                lowPenalty = 10;
-                System.out.println("Low Rating Penalty: +$10.00");
+    // Persists one added or replaced member: journal record in --journal mode, else a full snapshot
+    private void saveMember(Member m) {
+        if (journal == null) {
+            saveSnapshot();
+            return;
+        }
+        try {
+            journal.memberSaved(m);
+            journalWritten();
+        } catch (IOException e) {
+            System.out.println("Failed to save: " + e.getMessage());
+        }
+    }
+
+    private void saveDeletion(String memberId) {
+        if (journal == null) {
+            saveSnapshot();
+            return;
+        }
+        try {
+            journal.memberDeleted(memberId);
+            journalWritten();
+        } catch (IOException e) {
+            System.out.println("Failed to save: " + e.getMessage());
+        }
+    }
+
+    private void savePerformance(Performance p) {
+        if (journal == null) {
+            saveSnapshot();
+            return;
+        }
+        try {
+            journal.performanceSaved(p);
+            journalWritten();
+        } catch (IOException e) {
+            System.out.println("Failed to save: " + e.getMessage());
+        }
+    }
+
+    private void journalWritten() throws IOException {
+        System.out.println("Saved to journal: " + JOURNAL_FILE);
+        if (journal.checkpointDue()) {
+            journal.checkpoint(repo);
+            System.out.println("Checkpoint written to " + MEMBERS_FILE + " and " + PERF_FILE);
+        }
+    }
+
+    private void startHttp() {
+        if (journal != null && !journalRecovered) {
+            System.out.println("HTTP service not started: the journal was not recovered.");
+            return;
+        }
+        try {
+            http = new MemberHttpServer(repo, fees, this::recordFromHttp);
+            if (httpBind == null) {
+                http.start(httpPort);
+            } else {
+                http.start(InetAddress.getByName(httpBind), httpPort);
             }
+            System.out.println("HTTP service listening on " + (httpBind == null ? "localhost" : httpBind)
+                    + " port " + http.getPort());
+        } catch (IOException e) {
+            http = null;
+            System.out.println("Failed to start HTTP service: " + e.getMessage());
         }
+    }
 
-        double total = subtotal - perfDiscount + lowPenalty;
-        System.out.println("-------------------------------");
-        System.out.println("Total:          $" + String.format("%.2f", total));
+    // Records a performance posted to the HTTP service and persists it without console output.
+    // Holds the same lock as the console's recording, so two records for one month reach the
+    // journal in the order they were applied.
+    private synchronized boolean recordFromHttp(Performance p) throws IOException {
+        if (!repo.recordPerformance(p.getMemberId(), p)) return false;
+        if (journal == null) {
+            persistence.requestSave();
+        } else {
+            journal.performanceSaved(p);
+            if (journal.checkpointDue()) journal.checkpoint(repo);
+        }
+        return true;
     }
 
-    private void saveSnapshot() {
+    // Loads the fixed files and replays any journal left by the previous session
+    private void recoverFromJournal() {
         try {
-            storage.saveMembersToFile(repo.getAllMembers(), MEMBERS_FILE);
-            storage.savePerformancesOfMembersToFile(repo.getAllMembers(), PERF_FILE);
-            System.out.println("Saved to fixed files:");
-            System.out.println(" - " + MEMBERS_FILE);
-            System.out.println(" - " + PERF_FILE);
+            int replayed = journal.recover(repo);
+            journalRecovered = true;
+            System.out.println("Journal mode: loaded " + repo.getAllMembers().size() + " members ("
+                    + replayed + " journal records replayed).");
+        } catch (IOException e) {
+            System.out.println("Failed to recover: " + e.getMessage());
+        }
+    }
+
+    // Waits for pending background saves, or checkpoints and closes the journal; false if saving failed
+    private boolean shutdown() {
+        if (http != null) http.close(); // no more changes from outside the console
+        try {
+            if (persistence != null) {
+                persistence.close();
+                return true;
+            }
+            if (journalRecovered) journal.checkpoint(repo);
+            journal.close();
+            return true;
         } catch (IOException e) {
             System.out.println("Failed to save: " + e.getMessage());
+            return false;
         }
     }
 
@@ -472,18 +829,10 @@ public class GymApp {
             updated = new RegularMember(old.getMemberId(), first, last, age, join, old.getBaseFee());
         }
 
-        // Preserve performance history
-        for (Performance p : old.getPerformanceHistory()) {
-            updated.addOrReplacePerformance(p);
-        }
-
-        // Replace in repo and save
-        if (!repo.replaceMember(old.getMemberId(), updated)) {
-            repo.deleteMember(old.getMemberId());
-            repo.addMember(updated);
-        }
+        // Replace in repo, preserving performance history, and save
+        replaceKeepingHistory(old, updated);
 
-        saveSnapshot();
+        saveMember(updated);
         System.out.println("Personal details updated and saved.");
     }
 }
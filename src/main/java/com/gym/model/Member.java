@@ -2,8 +2,8 @@ package com.gym.model;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -13,23 +13,35 @@ import java.util.UUID;
 public abstract class Member {
 	
 	// Basic profile data kept private to ensure encapsulation and protect member state
+	// Generated IDs are held packed (see MemberId); memberId is only set for IDs in another form
+	private final int packedId;
 	private final String memberId;
 	private final String firstName;
 	private final String lastName;
 	private final int age;
 	private final LocalDate joinDate;
 	private final double baseFee;
-	private final List<Performance> performanceHistory;
+	// Performance history sorted by month, one PackedPerformance int per record;
+	// Performance objects are only built when asked for
+	private int[] history = new int[0];
+	// notes at the same index as history, allocated once some record has non-empty notes
+	private String[] historyNotes;
+	private int historySize;
+	// Running totals over the history, updated on every add, replace and remove
+	private long ratingSum;
+	private int goalsAchieved;
+	private final List<Performance> performanceHistory = new History();
 	
 	//Constructor for creating a new member with auto-generated memberId
 	public Member(String firstName,String lastName,int age,LocalDate joinDate, double baseFee) {
-		this.memberId="M" + UUID.randomUUID().toString().substring(0, 8);
+		// same 8 hex digits as UUID.toString().substring(0, 8), without building the text
+		this.packedId=(int) (UUID.randomUUID().getMostSignificantBits() >>> 32);
+		this.memberId=null;
 		this.firstName = Objects.requireNonNull(firstName, "firstName");
         this.lastName  = Objects.requireNonNull(lastName,  "lastName");
         this.age       = age;
         this.joinDate  = Objects.requireNonNull(joinDate,  "joinDate");
         this.baseFee   = baseFee;
-        this.performanceHistory = new ArrayList<>();
 		
 	}
 	
@@ -41,13 +53,14 @@ public abstract class Member {
             int age,
             LocalDate joinDate,
             double baseFee) {
-this.memberId  = Objects.requireNonNull(memberId, "memberId");
+long packed    = MemberId.pack(Objects.requireNonNull(memberId, "memberId"));
+this.packedId  = (int) packed;
+this.memberId  = packed == MemberId.NOT_PACKED ? memberId : null;
 this.firstName = Objects.requireNonNull(firstName, "firstName");
 this.lastName  = Objects.requireNonNull(lastName,  "lastName");
 this.age       = age;
 this.joinDate  = Objects.requireNonNull(joinDate,  "joinDate");
 this.baseFee   = baseFee;
-this.performanceHistory = new ArrayList<>();
 }
 	
 	//implementing by subclasses to define fee calculation per month
@@ -57,20 +70,21 @@ this.performanceHistory = new ArrayList<>();
 	//performance record only if it matches this member and doesn't already exist for that month
 	 public boolean addPerformance(Performance performance) {
 	        if (performance == null) return false;
+	        // a month PackedPerformance cannot hold is refused like a record for another member
+	        if (!PackedPerformance.fits(performance.getMonth())) return false;
 
 	     // Ensuring performance belongs to this member
-	        if (!memberId.equals(performance.getMemberId())) {
+	        if (!performance.hasMemberId(packedId, memberId)) {
 	            
 	            return false;
 	        }
 
 	        // Check for duplicate month entry
-	        boolean alreadyExists = performanceHistory.stream()
-	                .anyMatch(p -> p.getMonth().equals(performance.getMonth()));
+	        int record = PackedPerformance.pack(performance);
+	        int i = indexOf(PackedPerformance.epochMonth(record));
+	        if (i >= 0) return false;
 
-	        if (alreadyExists) return false;
-
-	        performanceHistory.add(performance);
+	        insertAt(-i - 1, record, performance.getNotes());
 	        return true;
 	    }
 	
@@ -78,65 +92,169 @@ this.performanceHistory = new ArrayList<>();
 	//Adds or replaces performance for a given month
 	 public boolean addOrReplacePerformance(Performance performance) {
 	        if (performance == null) return false;
-	        if (!memberId.equals(performance.getMemberId())) return false;
+	        if (!PackedPerformance.fits(performance.getMonth())) return false;
+	        if (!performance.hasMemberId(packedId, memberId)) return false;
 
-	        for (int i = 0; i < performanceHistory.size(); i++) {
-	            if (performanceHistory.get(i).getMonth().equals(performance.getMonth())) {
-	                performanceHistory.set(i, performance);
-	                return true;
-	            }
+	        int record = PackedPerformance.pack(performance);
+	        int i = indexOf(PackedPerformance.epochMonth(record));
+	        if (i >= 0) {
+	            untally(history[i]);
+	            history[i] = record;
+	            setNotes(i, performance.getNotes());
+	            tally(record);
+	        } else {
+	            insertAt(-i - 1, record, performance.getNotes());
 	        }
-	        performanceHistory.add(performance);
 	        return true;
 	    }
 
 	    //Returns performance of a specific month if present
 	    public Performance getPerformance(YearMonth month) {
-	        for (Performance p : performanceHistory) {
-	            if (p.getMonth().equals(month)) return p;
-	        }
-	        return null;
+	        if (month == null || !PackedPerformance.fits(month)) return null;
+	        int i = indexOf(PackedPerformance.epochMonth(month));
+	        return i >= 0 ? performanceAt(i) : null;
+	    }
+
+	    //Packed record (see PackedPerformance) for the month, or PackedPerformance.NONE; allocates nothing
+	    public int getPackedPerformance(YearMonth month) {
+	        if (month == null || !PackedPerformance.fits(month)) return PackedPerformance.NONE;
+	        int i = indexOf(PackedPerformance.epochMonth(month));
+	        return i >= 0 ? history[i] : PackedPerformance.NONE;
 	    }
 
 	   //Removes performance entry for the given month
 	    public boolean removePerformance(YearMonth month) {
-	        return performanceHistory.removeIf(p -> p.getMonth().equals(month));
+	        if (month == null || !PackedPerformance.fits(month)) return false;
+	        int i = indexOf(PackedPerformance.epochMonth(month));
+	        if (i < 0) return false;
+	        untally(history[i]);
+	        int tail = historySize - i - 1;
+	        System.arraycopy(history, i + 1, history, i, tail);
+	        if (historyNotes != null) {
+	            System.arraycopy(historyNotes, i + 1, historyNotes, i, tail);
+	            historyNotes[historySize - 1] = null;
+	        }
+	        historySize--;
+	        return true;
 	    }
 
-	   //Gets the most recent performance entry
+	   //Gets the most recent performance entry (history is sorted, so it is the last one)
 	    public Performance getLatestPerformance() {
-	        if (performanceHistory.isEmpty()) return null;
-	        return performanceHistory.get(performanceHistory.size() - 1);
+	        if (historySize == 0) return null;
+	        return performanceAt(historySize - 1);
 	    }
 
 	   //Calculates average rating across all performance records
 	    public double getAverageRating() {
-	        if (performanceHistory.isEmpty()) return 0.0;
-	        int total = 0;
-	        for (Performance p : performanceHistory) {
-	            total += p.getRating();
-	        }
-	        return total / (double) performanceHistory.size();
+	        if (historySize == 0) return 0.0;
+	        return ratingSum / (double) historySize;
+	    }
+
+	   //Share of recorded months in which the goal was achieved, 0.0 when there is no history
+	    public double getGoalAchievementRate() {
+	        if (historySize == 0) return 0.0;
+	        return goalsAchieved / (double) historySize;
 	    }
 
-	   //Returns read-only list of performance history
+	   //Number of months in which the goal was achieved
+	    public int getGoalsAchievedCount() {
+	        return goalsAchieved;
+	    }
+
+	   //Returns read-only list of performance history, oldest month first
 	    public List<Performance> getPerformanceHistory() {
-	        return Collections.unmodifiableList(performanceHistory);
+	        return performanceHistory;
 	    }
 
 	   //Quick summary string for listing members in console
 	    public String getSummary() {
-	        return "ID: " + memberId +
+	        return "ID: " + getMemberId() +
 	               " | " + firstName + " " + lastName +
 	               " | Joined: " + joinDate +
 	               " | Base Fee: $" + String.format("%.2f", baseFee);
 	    }
 
 	    // getters method
-	    public String getMemberId()     { return memberId; }
+	    public String getMemberId()     { return memberId != null ? memberId : MemberId.unpack(packedId); }
 	    public String getFirstName()    { return firstName; }
 	    public String getLastName()     { return lastName; }
 	    public int getAge()             { return age; }
 	    public LocalDate getJoinDate()  { return joinDate; }
 	    public double getBaseFee()      { return baseFee; }
+
+	    // The packed ID as a non-negative value, or MemberId.NOT_PACKED for IDs kept as text
+	    public long getPackedId() {
+	        return memberId == null ? packedId & 0xFFFFFFFFL : MemberId.NOT_PACKED;
+	    }
+
+	    // Binary search over the sorted months; returns -(insertion point) - 1 when absent
+	    private int indexOf(int month) {
+	        int lo = 0;
+	        int hi = historySize - 1;
+	        while (lo <= hi) {
+	            int mid = (lo + hi) >>> 1;
+	            int m = PackedPerformance.epochMonth(history[mid]);
+	            if (m < month) lo = mid + 1;
+	            else if (m > month) hi = mid - 1;
+	            else return mid;
+	        }
+	        return -lo - 1;
+	    }
+
+	    private void insertAt(int i, int record, String notes) {
+	        if (historySize == history.length) {
+	            int capacity = Math.max(4, historySize * 2);
+	            history = Arrays.copyOf(history, capacity);
+	            if (historyNotes != null) historyNotes = Arrays.copyOf(historyNotes, capacity);
+	        }
+	        int tail = historySize - i;
+	        System.arraycopy(history, i, history, i + 1, tail);
+	        if (historyNotes != null) System.arraycopy(historyNotes, i, historyNotes, i + 1, tail);
+	        history[i] = record;
+	        historySize++;
+	        if (historyNotes != null) historyNotes[i] = null;
+	        setNotes(i, notes);
+	        tally(record);
+	    }
+
+	    private void setNotes(int i, String notes) {
+	        if (notes == null || notes.isEmpty()) {
+	            if (historyNotes != null) historyNotes[i] = null;
+	            return;
+	        }
+	        if (historyNotes == null) historyNotes = new String[history.length];
+	        historyNotes[i] = notes;
+	    }
+
+	    // Builds the Performance for one packed record
+	    private Performance performanceAt(int i) {
+	        int record = history[i];
+	        String notes = historyNotes == null || historyNotes[i] == null ? "" : historyNotes[i];
+	        return new Performance(packedId, memberId, PackedPerformance.month(record),
+	                PackedPerformance.goalAchieved(record), PackedPerformance.rating(record), notes);
+	    }
+
+	    private void tally(int record) {
+	        ratingSum += PackedPerformance.rating(record);
+	        if (PackedPerformance.goalAchieved(record)) goalsAchieved++;
+	    }
+
+	    private void untally(int record) {
+	        ratingSum -= PackedPerformance.rating(record);
+	        if (PackedPerformance.goalAchieved(record)) goalsAchieved--;
+	    }
+
+	    // Read-only live view over the sorted history; each get builds a fresh Performance
+	    private final class History extends AbstractList<Performance> {
+	        @Override
+	        public Performance get(int index) {
+	            if (index < 0 || index >= historySize) throw new IndexOutOfBoundsException(index);
+	            return performanceAt(index);
+	        }
+
+	        @Override
+	        public int size() {
+	            return historySize;
+	        }
+	    }
 	}
@@ -0,0 +1,77 @@
+package com.gym.model;
+
+import java.util.Locale;
+
+// Packed form of generated member IDs ("M" + 8 lowercase hex digits): the 8 digits as
+// one 32-bit value, kept in a long so that NOT_PACKED (-1) can mark any other ID.
+// Members and performances store the packed value instead of a String and build the
+// text only when asked; IDs in any other form are kept as they are.
+public final class MemberId {
+
+	public static final long NOT_PACKED = -1L;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private MemberId() {}
+
+	// Packs a canonical ID exactly as written, so unpack gives the same text back
+	public static long pack(String id) {
+		return pack(id, false);
+	}
+
+	// Packs an ID ignoring case ("m1A2B3C4D" -> same value as "M1a2b3c4d"), for lookups
+	public static long packIgnoreCase(String id) {
+		return pack(id, true);
+	}
+
+	// Text form of a packed ID
+	public static String unpack(int packed) {
+		char[] c = new char[9];
+		write(packed, c, 0);
+		return new String(c);
+	}
+
+	// Writes the 9 chars of a packed ID into the array at the given offset
+	public static void write(int packed, char[] to, int at) {
+		to[at] = 'M';
+		for (int i = 8; i >= 1; i--) {
+			to[at + i] = HEX[packed & 0xF];
+			packed >>>= 4;
+		}
+	}
+
+	// Case-insensitive map key: an Integer for packable IDs, the lower-cased text otherwise
+	public static Object key(String id) {
+		if (id == null) return null;
+		long packed = packIgnoreCase(id);
+		return packed != NOT_PACKED ? Integer.valueOf((int) packed) : id.toLowerCase(Locale.ROOT);
+	}
+
+	// Same key as key(member.getMemberId()) without building the text
+	public static Object key(Member member) {
+		long packed = member.getPackedId();
+		return packed != NOT_PACKED ? Integer.valueOf((int) packed) : key(member.getMemberId());
+	}
+
+	private static long pack(String id, boolean ignoreCase) {
+		if (id == null || id.length() != 9) return NOT_PACKED;
+		char m = id.charAt(0);
+		if (m != 'M' && !(ignoreCase && m == 'm')) return NOT_PACKED;
+		long packed = 0;
+		for (int i = 1; i < 9; i++) {
+			char c = id.charAt(i);
+			int digit;
+			if (c >= '0' && c <= '9') {
+				digit = c - '0';
+			} else if (c >= 'a' && c <= 'f') {
+				digit = c - 'a' + 10;
+			} else if (ignoreCase && c >= 'A' && c <= 'F') {
+				digit = c - 'A' + 10;
+			} else {
+				return NOT_PACKED;
+			}
+			packed = (packed << 4) | digit;
+		}
+		return packed;
+	}
+}
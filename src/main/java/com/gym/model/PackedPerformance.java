@@ -0,0 +1,65 @@
+package com.gym.model;
+
+import java.time.YearMonth;
+
+// One performance record packed into an int, as Member keeps its history:
+//   bits 31..4  epoch month (year * 12 + month - 1), signed
+//   bits  3..1  rating 1-5
+//   bit      0  goal achieved
+// Packed values sort by month. Ratings are never 0, so NONE cannot be a real record.
+// Months must fall within about +/- 11 million years (28 signed bits), far beyond any real date;
+// pack and epochMonth(YearMonth) throw IllegalArgumentException outside that, check with fits.
+public final class PackedPerformance {
+
+	// "no record for that month"
+	public static final int NONE = 0;
+
+	// epoch month range that fits in bits 31..4
+	private static final int MIN_MONTH = -(1 << 27);
+	private static final int MAX_MONTH = (1 << 27) - 1;
+
+	private PackedPerformance() {}
+
+	public static int pack(int epochMonth, int rating, boolean goalAchieved) {
+		if (epochMonth < MIN_MONTH || epochMonth > MAX_MONTH) {
+			throw new IllegalArgumentException("Month out of range for a packed record: " + epochMonth);
+		}
+		return (epochMonth << 4) | (rating << 1) | (goalAchieved ? 1 : 0);
+	}
+
+	public static int pack(Performance p) {
+		return pack(epochMonth(p.getMonth()), p.getRating(), p.getGoalAchieved());
+	}
+
+	public static int epochMonth(int packed) {
+		return packed >> 4;
+	}
+
+	public static int rating(int packed) {
+		return (packed >>> 1) & 0x7;
+	}
+
+	public static boolean goalAchieved(int packed) {
+		return (packed & 1) != 0;
+	}
+
+	public static YearMonth month(int packed) {
+		int m = epochMonth(packed);
+		return YearMonth.of(Math.floorDiv(m, 12), Math.floorMod(m, 12) + 1);
+	}
+
+	// Months since 0000-01, so later months always compare greater
+	public static int epochMonth(YearMonth month) {
+		long m = month.getYear() * 12L + month.getMonthValue() - 1;
+		if (m < MIN_MONTH || m > MAX_MONTH) {
+			throw new IllegalArgumentException("Month out of range for a packed record: " + month);
+		}
+		return (int) m;
+	}
+
+	// Whether a record for the month can be packed; no history holds any other month
+	public static boolean fits(YearMonth month) {
+		long m = month.getYear() * 12L + month.getMonthValue() - 1;
+		return m >= MIN_MONTH && m <= MAX_MONTH;
+	}
+}
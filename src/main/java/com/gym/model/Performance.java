@@ -7,6 +7,8 @@ import java.util.UUID;
 public class Performance {
 	
 	//declaring instances
+	// packed as in Member: memberId is only set when the ID is not in the generated form
+	private int packedId;
 	private String memberId;
 	private YearMonth month;
 	private boolean goalAchieved;
@@ -18,12 +20,13 @@ public class Performance {
 	public Performance(String memberId,YearMonth month,boolean goalAchieved,Integer rating,String notes) {
 		
 		// Ensure a valid member ID is stored
-		if (memberId != null && !memberId.isBlank()) {
-	        this.memberId = memberId;
-	    } else {
+		if (memberId == null || memberId.isBlank()) {
 	        System.out.println("Member ID cannot be null or blank. Setting to default ID.");
-	        this.memberId = "UNKNOWN-" + UUID.randomUUID().toString().substring(0, 8);
+	        memberId = "UNKNOWN-" + UUID.randomUUID().toString().substring(0, 8);
 	    }
+		long packed = MemberId.pack(memberId);
+		this.packedId = (int) packed;
+		this.memberId = packed == MemberId.NOT_PACKED ? memberId : null;
 		if(month !=null) {
 			this.month=month;
 		}
@@ -49,9 +52,29 @@ public class Performance {
 		this.goalAchieved = goalAchieved;
 		
 	}
+	// Record rebuilt from a member's packed history; its values were validated when it was added
+	Performance(int packedId, String memberId, YearMonth month, boolean goalAchieved, int rating, String notes) {
+		this.packedId = packedId;
+		this.memberId = memberId;
+		this.month = month;
+		this.goalAchieved = goalAchieved;
+		this.rating = rating;
+		this.notes = notes;
+	}
+
 	// getter  methods
 	public String getMemberId() {
-		return memberId;
+		return memberId != null ? memberId : MemberId.unpack(packedId);
+	}
+
+	// The packed member ID, or MemberId.NOT_PACKED when it is kept as text
+	public long getPackedMemberId() {
+		return memberId == null ? packedId & 0xFFFFFFFFL : MemberId.NOT_PACKED;
+	}
+
+	// Exact ID match against a member's packed/text pair, without building either string
+	boolean hasMemberId(int packed, String text) {
+		return packedId == packed && Objects.equals(memberId, text);
 	}
 	
 	public YearMonth getMonth() {
@@ -85,13 +108,14 @@ public class Performance {
 	    if (this == obj) return true;
 	    if (obj == null || getClass() != obj.getClass()) return false;
 	    Performance that = (Performance) obj;
-	    return Objects.equals(memberId, that.memberId) &&
+	    return packedId == that.packedId &&
+	           Objects.equals(memberId, that.memberId) &&
 	           Objects.equals(month, that.month);
 	}
 
 	@Override
 	public int hashCode() {
-	    return Objects.hash(memberId, month);
+	    return Objects.hash(packedId, memberId, month);
 	}
 
 }
@@ -29,11 +29,11 @@ public class PremiumMember extends Member {
 	@Override
 	public double calculateMonthlyFee(YearMonth month) {
 		double fee=getBaseFee()+premiumService;
-		Performance performance=getPerformance(month);
-		if(performance !=null) {
-			if(performance.getGoalAchieved()) {
+		int performance=getPackedPerformance(month); // no Performance object per fee
+		if(performance !=PackedPerformance.NONE) {
+			if(PackedPerformance.goalAchieved(performance)) {
 				fee-=fee*0.10; //10 % discount on fee
-			}else if(performance.getRating()<=2) {
+			}else if(PackedPerformance.rating(performance)<=2) {
 				fee+=10; //penalty on low performance
 			}
 		}
@@ -20,12 +20,12 @@ public class RegularMember extends Member {
 	@Override
 	public double calculateMonthlyFee(YearMonth month) {
 		double fee=getBaseFee();
-		Performance performance=getPerformance(month);
+		int performance=getPackedPerformance(month); // no Performance object per fee
 		
-		if(performance !=null) {
-			if(performance.getGoalAchieved()) {
+		if(performance !=PackedPerformance.NONE) {
+			if(PackedPerformance.goalAchieved(performance)) {
 				fee-=fee*0.10; //10 % discount on fee
-			}else if(performance.getRating()<=2) {
+			}else if(PackedPerformance.rating(performance)<=2) {
 				fee+=10;//penalty on low performance
 			}
 		}
@@ -0,0 +1,303 @@
+package com.gym.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+import com.gym.model.Member;
+import com.gym.model.MemberId;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Struct-of-arrays copy of member profiles for analytics over very large rosters.
+// Row i of every column belongs to the same member; a member costs about 54 bytes of
+// primitive columns plus an ID slot, instead of a Member object graph. Names are stored
+// once in a dictionary. Performance history is not kept here: this is a profile store,
+// filled from loaded members and scanned by row, with Member objects built only on demand.
+// Not thread-safe for writes; concurrent scans of a store that is no longer appended to are fine.
+public class ColumnarMemberStore {
+
+	// values of typeAt(row)
+	public static final byte REGULAR = 0;
+	public static final byte PT = 1;
+	public static final byte PREMIUM = 2;
+
+	private int size;
+	// MemberId.packIgnoreCase value of the ID where it has one; textIds holds the exact text otherwise
+	private int[] ids;
+	private byte[] types;
+	private int[] firstNames;   // index into names
+	private int[] lastNames;
+	private int[] ages;
+	private long[] joinDays;    // LocalDate epoch day; a long, as an int wraps for far-future dates
+	private double[] baseFees;
+	private int[] sessions;     // PT only, 0 otherwise
+	private double[] feesPerSession;
+	private double[] premiumFees; // PREMIUM only
+	private final BitSet spa = new BitSet();
+
+	// row -> ID for IDs that are not in the canonical packed form
+	private final Map<Integer, String> textIds = new HashMap<>();
+
+	// name dictionary shared by the first and last name columns
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, Integer> nameIndex = new HashMap<>();
+
+	// open-addressing table over ids[] for packable IDs: row + 1, 0 = empty
+	private int[] slots = new int[16];
+	private int packedCount;
+	// lower-cased ID -> row for IDs that do not pack even ignoring case
+	private final Map<String, Integer> otherIds = new HashMap<>();
+
+	public ColumnarMemberStore() {
+		this(16);
+	}
+
+	public ColumnarMemberStore(int expectedMembers) {
+		allocate(Math.max(16, expectedMembers));
+	}
+
+	// Builds a store from members; the first member wins on duplicate IDs, as in MemberRepository
+	public static ColumnarMemberStore of(List<Member> members) {
+		ColumnarMemberStore store = new ColumnarMemberStore(members.size());
+		for (Member m : members) store.add(m);
+		return store;
+	}
+
+	// Appends a member's profile; false for null, unknown subtypes and IDs already present
+	public boolean add(Member m) {
+		if (m == null) return false;
+		byte type;
+		if (m instanceof RegularMember) {
+			type = REGULAR;
+		} else if (m instanceof PersonalTrainingMember) {
+			type = PT;
+		} else if (m instanceof PremiumMember) {
+			type = PREMIUM;
+		} else {
+			return false;
+		}
+
+		String text = m.getPackedId() != MemberId.NOT_PACKED ? null : m.getMemberId();
+		long key = text == null ? m.getPackedId() : MemberId.packIgnoreCase(text);
+		if (key != MemberId.NOT_PACKED ? slotOf((int) key) >= 0 : otherIds.containsKey(lower(text))) {
+			return false;
+		}
+
+		if (size == ids.length) allocate(size * 2);
+		int row = size++;
+		ids[row] = (int) key;
+		if (text != null) textIds.put(row, text);
+		if (key != MemberId.NOT_PACKED) {
+			insertSlot(row);
+		} else {
+			otherIds.put(lower(text), row);
+		}
+
+		types[row] = type;
+		firstNames[row] = name(m.getFirstName());
+		lastNames[row] = name(m.getLastName());
+		ages[row] = m.getAge();
+		joinDays[row] = m.getJoinDate().toEpochDay();
+		baseFees[row] = m.getBaseFee();
+		if (m instanceof PersonalTrainingMember pt) {
+			sessions[row] = pt.getSessionsPerMonth();
+			feesPerSession[row] = pt.getFeePerSession();
+		}
+		if (m instanceof PremiumMember pm) {
+			spa.set(row, pm.hasSpaAccess());
+			premiumFees[row] = pm.getPremiumServiceFee();
+		}
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	// Row of the member with this ID (case-insensitive, like MemberRepository), or -1
+	public int rowOf(String memberId) {
+		if (memberId == null) return -1;
+		long key = MemberId.packIgnoreCase(memberId);
+		if (key != MemberId.NOT_PACKED) return slotRow(slotOf((int) key));
+		Integer row = otherIds.get(lower(memberId));
+		return row == null ? -1 : row;
+	}
+
+	// A Member built from the row: a detached copy without history, made on each call
+	public Member memberAt(int row) {
+		check(row);
+		String id = idAt(row);
+		String first = names.get(firstNames[row]);
+		String last = names.get(lastNames[row]);
+		LocalDate join = LocalDate.ofEpochDay(joinDays[row]);
+		switch (types[row]) {
+		case PT:
+			return new PersonalTrainingMember(id, first, last, ages[row], join, baseFees[row],
+					sessions[row], feesPerSession[row]);
+		case PREMIUM:
+			return new PremiumMember(id, first, last, ages[row], join, baseFees[row],
+					spa.get(row), premiumFees[row]);
+		default:
+			return new RegularMember(id, first, last, ages[row], join, baseFees[row]);
+		}
+	}
+
+	// memberAt(rowOf(memberId)), or null when the ID is unknown
+	public Member findMemberById(String memberId) {
+		int row = rowOf(memberId);
+		return row < 0 ? null : memberAt(row);
+	}
+
+	// column accessors, for scans that need more than the aggregations below
+	public String idAt(int row) {
+		check(row);
+		String text = textIds.get(row);
+		return text != null ? text : MemberId.unpack(ids[row]);
+	}
+	public byte typeAt(int row)              { check(row); return types[row]; }
+	public String firstNameAt(int row)       { check(row); return names.get(firstNames[row]); }
+	public String lastNameAt(int row)        { check(row); return names.get(lastNames[row]); }
+	public int ageAt(int row)                { check(row); return ages[row]; }
+	public long joinEpochDayAt(int row)      { check(row); return joinDays[row]; }
+	public double baseFeeAt(int row)         { check(row); return baseFees[row]; }
+	public int sessionsAt(int row)           { check(row); return sessions[row]; }
+	public double feePerSessionAt(int row)   { check(row); return feesPerSession[row]; }
+	public boolean hasSpaAt(int row)         { check(row); return spa.get(row); }
+	public double premiumFeeAt(int row)      { check(row); return premiumFees[row]; }
+
+	// Monthly fee before performance discounts and penalties (calculateMonthlyFee without a record)
+	public double listFeeAt(int row) {
+		check(row);
+		return listFee(row);
+	}
+
+	// Number of rows the filter accepts
+	public int count(IntPredicate rows) {
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (rows.test(i)) n++;
+		}
+		return n;
+	}
+
+	// Sum of the value over rows the filter accepts
+	public double sum(IntPredicate rows, IntToDoubleFunction value) {
+		double total = 0;
+		for (int i = 0; i < size; i++) {
+			if (rows.test(i)) total += value.applyAsDouble(i);
+		}
+		return total;
+	}
+
+	// Members per type, indexed by REGULAR, PT and PREMIUM
+	public int[] countByType() {
+		int[] counts = new int[3];
+		for (int i = 0; i < size; i++) counts[types[i]]++;
+		return counts;
+	}
+
+	// Sum of list fees per type, indexed like countByType
+	public double[] listFeesByType() {
+		double[] totals = new double[3];
+		for (int i = 0; i < size; i++) totals[types[i]] += listFee(i);
+		return totals;
+	}
+
+	// Members who joined in [from, to], both inclusive
+	public int countJoinedBetween(LocalDate from, LocalDate to) {
+		long lo = from.toEpochDay();
+		long hi = to.toEpochDay();
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (joinDays[i] >= lo && joinDays[i] <= hi) n++;
+		}
+		return n;
+	}
+
+	// Mean age, 0.0 for an empty store
+	public double averageAge() {
+		if (size == 0) return 0.0;
+		long total = 0;
+		for (int i = 0; i < size; i++) total += ages[i];
+		return total / (double) size;
+	}
+
+	private double listFee(int row) {
+		double fee = baseFees[row];
+		if (types[row] == PT) fee += sessions[row] * feesPerSession[row];
+		else if (types[row] == PREMIUM) fee += premiumFees[row];
+		return Math.max(fee, 0);
+	}
+
+	private void check(int row) {
+		if (row < 0 || row >= size) throw new IndexOutOfBoundsException(row);
+	}
+
+	private int name(String s) {
+		Integer i = nameIndex.get(s);
+		if (i == null) {
+			i = names.size();
+			names.add(s);
+			nameIndex.put(s, i);
+		}
+		return i;
+	}
+
+	private static String lower(String id) {
+		return id.toLowerCase(Locale.ROOT);
+	}
+
+	private void allocate(int capacity) {
+		ids = ids == null ? new int[capacity] : Arrays.copyOf(ids, capacity);
+		types = types == null ? new byte[capacity] : Arrays.copyOf(types, capacity);
+		firstNames = firstNames == null ? new int[capacity] : Arrays.copyOf(firstNames, capacity);
+		lastNames = lastNames == null ? new int[capacity] : Arrays.copyOf(lastNames, capacity);
+		ages = ages == null ? new int[capacity] : Arrays.copyOf(ages, capacity);
+		joinDays = joinDays == null ? new long[capacity] : Arrays.copyOf(joinDays, capacity);
+		baseFees = baseFees == null ? new double[capacity] : Arrays.copyOf(baseFees, capacity);
+		sessions = sessions == null ? new int[capacity] : Arrays.copyOf(sessions, capacity);
+		feesPerSession = feesPerSession == null ? new double[capacity] : Arrays.copyOf(feesPerSession, capacity);
+		premiumFees = premiumFees == null ? new double[capacity] : Arrays.copyOf(premiumFees, capacity);
+	}
+
+	// Linear probing over slots; returns the slot holding the key, or -(free slot) - 1
+	private int slotOf(int key) {
+		int mask = slots.length - 1;
+		int i = mix(key) & mask;
+		while (slots[i] != 0) {
+			if (ids[slots[i] - 1] == key) return i;
+			i = (i + 1) & mask;
+		}
+		return -i - 1;
+	}
+
+	private int slotRow(int slot) {
+		return slot < 0 ? -1 : slots[slot] - 1;
+	}
+
+	private void insertSlot(int row) {
+		if ((packedCount + 1) * 2 > slots.length) {
+			int[] old = slots;
+			slots = new int[old.length * 2];
+			for (int s : old) {
+				if (s != 0) slots[-slotOf(ids[s - 1]) - 1] = s;
+			}
+		}
+		slots[-slotOf(ids[row]) - 1] = row + 1;
+		packedCount++;
+	}
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
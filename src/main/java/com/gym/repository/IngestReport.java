@@ -0,0 +1,28 @@
+package com.gym.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of MemberRepository.merge: the IDs it inserted, replaced and rejected, in input order
+public final class IngestReport {
+
+	private final List<String> inserted;
+	private final List<String> replaced;
+	private final List<String> rejected;
+
+	IngestReport(List<String> inserted, List<String> replaced, List<String> rejected) {
+		this.inserted = Collections.unmodifiableList(inserted);
+		this.replaced = Collections.unmodifiableList(replaced);
+		this.rejected = Collections.unmodifiableList(rejected);
+	}
+
+	public List<String> getInserted() { return inserted; }
+	public List<String> getReplaced() { return replaced; }
+	// repeats of an ID earlier in the same input, and existing IDs under SKIP_EXISTING
+	public List<String> getRejected() { return rejected; }
+
+	@Override
+	public String toString() {
+		return inserted.size() + " inserted, " + replaced.size() + " replaced, " + rejected.size() + " rejected";
+	}
+}
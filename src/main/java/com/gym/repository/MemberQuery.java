@@ -0,0 +1,72 @@
+package com.gym.repository;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+import com.gym.model.Member;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Conjunction of member predicates answered from MemberRepository's secondary indexes.
+// Every range is inclusive at both ends; a query without predicates matches everyone.
+//   new MemberQuery().joinedBetween(q1Start, q1End)
+//   new MemberQuery().ofType(PersonalTrainingMember.class).ageBetween(51, Integer.MAX_VALUE)
+public final class MemberQuery {
+
+	// bit per type, as in the repository's type bitmaps; 0 = any type
+	static final int REGULAR = 1;
+	static final int PT = 2;
+	static final int PREMIUM = 4;
+
+	private Long joinFrom, joinTo;
+	private Integer ageFrom, ageTo;
+	private Double feeFrom, feeTo;
+	private int types;
+
+	public MemberQuery joinedBetween(LocalDate from, LocalDate to) {
+		this.joinFrom = Objects.requireNonNull(from, "from").toEpochDay();
+		this.joinTo = Objects.requireNonNull(to, "to").toEpochDay();
+		return this;
+	}
+
+	public MemberQuery ageBetween(int from, int to) {
+		this.ageFrom = from;
+		this.ageTo = to;
+		return this;
+	}
+
+	public MemberQuery baseFeeBetween(double from, double to) {
+		this.feeFrom = from;
+		this.feeTo = to;
+		return this;
+	}
+
+	// Restricts to the given subtypes; repeated calls widen the set
+	@SafeVarargs
+	public final MemberQuery ofType(Class<? extends Member>... types) {
+		for (Class<? extends Member> t : types) {
+			if (t == RegularMember.class) this.types |= REGULAR;
+			else if (t == PersonalTrainingMember.class) this.types |= PT;
+			else if (t == PremiumMember.class) this.types |= PREMIUM;
+			else throw new IllegalArgumentException("Not an indexed member type: " + t.getName());
+		}
+		return this;
+	}
+
+	Long joinFrom()  { return joinFrom; }
+	Long joinTo()    { return joinTo; }
+	Integer ageFrom() { return ageFrom; }
+	Integer ageTo()   { return ageTo; }
+	Double feeFrom() { return feeFrom; }
+	Double feeTo()   { return feeTo; }
+	int types()      { return types; }
+
+	// Type bit of a member, 0 for subtypes the indexes do not know
+	static int typeBit(Member m) {
+		if (m instanceof RegularMember) return REGULAR;
+		if (m instanceof PersonalTrainingMember) return PT;
+		if (m instanceof PremiumMember) return PREMIUM;
+		return 0;
+	}
+}
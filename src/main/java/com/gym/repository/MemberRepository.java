@@ -1,97 +1,365 @@
 package com.gym.repository;
 
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 
 import com.gym.model.Member;
+import com.gym.model.MemberId;
 import com.gym.model.Performance;
 
+// Safe to share between threads: ID lookups are lock-free, other reads share a read lock
+// and writes take the write lock for the few map/index updates they need.
+// Name search and queries do not use optimistic reads: they walk HashMaps, TreeMaps and
+// bitsets that a writer may be rebuilding, and a validate() afterwards cannot undo a walk that
+// already threw or looped. Writes are not striped: every one touches the ordered map and the
+// name and secondary indexes, which all members share.
+// Members are immutable apart from their performance history, which the repository only
+// changes under the write lock. A member handed out by a lookup is the live object, so code
+// reading its history while other threads may record performances does so inside read or
+// readAll; reading the other fields needs no lock.
 public class MemberRepository {
-	// stores all gym members in a list
-	private final List<Member> members=new ArrayList<>();
-	
-	// Adds a new members to the list if not null and not already existing 
+	// guards members, names, indexes, view and listeners; byId is read without it
+	private final StampedLock lock=new StampedLock();
+	// ID key -> member, swapped wholesale by replaceAllMembers and big merges. Keys come from MemberId.key:
+	// an Integer for generated IDs, so lookups compare ints, and the lower-cased ID otherwise
+	private volatile Map<Object, Member> byId=new ConcurrentHashMap<>();
+	// stores all gym members keyed by ID key, in insertion order
+	private Map<Object, Member> members=new LinkedHashMap<>();
+	// trigram index over full names, kept in step with the map above
+	private NameIndex names=new NameIndex();
+	// join date, age, base fee and type indexes behind query(), also kept in step
+	private SecondaryIndexes indexes=new SecondaryIndexes();
+	// immutable list handed out by getAllMembers, rebuilt only after a change
+	private volatile List<Member> view;
+	// told about each change, under the write lock
+	private final List<RepositoryListener> listeners=new ArrayList<>();
+
+	// Registers a listener and hands it the current roster, so it starts in step with the repository
+	public void addListener(RepositoryListener listener) {
+		long stamp=lock.writeLock();
+		try {
+			listeners.add(listener);
+			listener.rosterReplaced(Collections.unmodifiableCollection(members.values()));
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	// Adds a new members to the list if not null and not already existing
 	public boolean addMember(Member member) {
 		if(member==null) {
 			return false;
 		}
-		if(findMemberById(member.getMemberId()) !=null) {
-			return false;
+		Object key=MemberId.key(member);
+		long stamp=lock.writeLock();
+		try {
+			if(members.containsKey(key)) {
+				return false;
+			}
+			members.put(key, member);
+			names.add(key, member);
+			indexes.add(key, member);
+			byId.put(key, member);
+			view=null;
+			for(RepositoryListener l : listeners) l.memberAdded(member);
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
 		}
-		members.add(member);
-		return true;
 	}
 	//Delets a member by their ID
 	public boolean deleteMember(String memberId) {
-	    for (int i = 0; i < members.size(); i++) {
-	        if (members.get(i).getMemberId().equalsIgnoreCase(memberId)) {
-	            members.remove(i);
-	            return true; // Successfully removed
+	    Object key = MemberId.key(memberId);
+	    if (key == null) return false;
+	    long stamp = lock.writeLock();
+	    try {
+	        Member removed = members.remove(key);
+	        if (removed == null) {
+	            return false; // Member not found
 	        }
+	        names.remove(key);
+	        indexes.remove(key);
+	        if (indexes.isSparse()) indexes = buildIndexes(members); // reclaim deleted slots
+	        byId.remove(key);
+	        view = null;
+	        for (RepositoryListener l : listeners) l.memberRemoved(removed);
+	        return true; // Successfully removed
+	    } finally {
+	        lock.unlockWrite(stamp);
 	    }
-	    return false; // Member not found
 	}
 	// Finds a member by ID
 	 public Member findMemberById(String memberId) {
-	        for (Member m : members) {
-	            if (m.getMemberId().equalsIgnoreCase(memberId)) {
-	                return m;
-	            }
-	        }
-	        return null; // Not found
+	        Object key = MemberId.key(memberId);
+	        return key == null ? null : byId.get(key); // null when not found
 	    }
 		//Finds all members whose full name contains the given search text
 	 public List<Member> findMembersByName(String name) {
-	        List<Member> results = new ArrayList<>();
-	        for (Member m : members) {
-	            String fullName = (m.getFirstName() + " " + m.getLastName()).toLowerCase();
-	            if (fullName.contains(name.toLowerCase())) {
-	                results.add(m);
+	        long stamp = lock.readLock();
+	        try {
+	            List<Member> results = new ArrayList<>();
+	            for (Object key : names.search(name)) {
+	                results.add(members.get(key));
 	            }
+	            return results;
+	        } finally {
+	            lock.unlockRead(stamp);
+	        }
+	    }
+
+	 // Runs the reader on the member with the given ID, or on null when there is none, with the
+	 // read lock held: no history changes until it returns. The reader must not call back into
+	 // the repository, the lock is not reentrant.
+	 public <R> R read(String memberId, Function<? super Member, ? extends R> reader) {
+	        Object key = MemberId.key(memberId);
+	        long stamp = lock.readLock();
+	        try {
+	            return reader.apply(key == null ? null : members.get(key));
+	        } finally {
+	            lock.unlockRead(stamp);
+	        }
+	    }
+
+	 // Runs the reader on the whole roster, in repository order, with the read lock held; as read
+	 public <R> R readAll(Function<? super List<Member>, ? extends R> reader) {
+	        long stamp = lock.readLock();
+	        try {
+	            return reader.apply(snapshot());
+	        } finally {
+	            lock.unlockRead(stamp);
 	        }
-	        return results;
 	    }
-	
 
-	 
-	 
+	 // Members matching every predicate of the query, in repository order
+	 public List<Member> query(MemberQuery query) {
+	        long stamp = lock.readLock();
+	        try {
+	            return indexes.query(query);
+	        } finally {
+	            lock.unlockRead(stamp);
+	        }
+	    }
+
+	 // Number of members query() would return, without building the list
+	 public int count(MemberQuery query) {
+	        long stamp = lock.readLock();
+	        try {
+	            return indexes.count(query);
+	        } finally {
+	            lock.unlockRead(stamp);
+	        }
+	    }
+
+	 // Replaces the member with the given ID in place, keeping its position. An updated member
+	 // without history takes over the old one's under the write lock, so a performance recorded
+	 // by another thread just before cannot be lost in between; callers should not copy it first.
 	 public boolean replaceMember(String memberId, Member updated) {
-		    for (int i = 0; i < members.size(); i++) {
-		        Member old = members.get(i);
-		        if (old.getMemberId().equalsIgnoreCase(memberId)) {
-		            // If caller forgot to copy history, keep it
-		            if (updated.getPerformanceHistory().isEmpty()) {
-		                for (Performance p : old.getPerformanceHistory()) {
-		                    updated.addOrReplacePerformance(p);
+		    Object key = MemberId.key(memberId);
+		    long stamp = lock.writeLock();
+		    try {
+		        Member old = members.get(key);
+		        if (old == null) {
+		            return false;
+		        }
+		        carryHistory(old, updated);
+		        members.put(key, updated); // existing key keeps its insertion position
+		        names.update(key, updated);
+		        indexes.update(key, updated);
+		        byId.put(key, updated);
+		        view = null;
+		        for (RepositoryListener l : listeners) {
+		            l.memberRemoved(old);
+		            l.memberAdded(updated);
+		        }
+		        return true;
+		    } finally {
+		        lock.unlockWrite(stamp);
+		    }
+		}
+
+	 // Gives an updated member without history the old member's. The records are re-tagged when
+	 // the ID differs in case only, since a member refuses records tagged with another spelling.
+	 private static void carryHistory(Member old, Member updated) {
+		    if (!updated.getPerformanceHistory().isEmpty()) return;
+		    boolean sameId = old.getMemberId().equals(updated.getMemberId());
+		    for (Performance p : old.getPerformanceHistory()) {
+		        updated.addOrReplacePerformance(sameId ? p
+		                : new Performance(updated.getMemberId(), p.getMonth(), p.getGoalAchieved(), p.getRating(), p.getNotes()));
+		    }
+	 }
+
+	 // Adds or replaces the member's record for the performance's month; false when the member
+	 // is unknown or the performance belongs to someone else. Recording through the repository,
+	 // rather than on the Member, keeps listeners in step.
+	 public boolean recordPerformance(String memberId, Performance performance) {
+		    Object key = MemberId.key(memberId);
+		    if (key == null || performance == null) return false;
+		    long stamp = lock.writeLock();
+		    try {
+		        Member m = members.get(key);
+		        if (m == null) {
+		            return false;
+		        }
+		        YearMonth month = performance.getMonth();
+		        for (RepositoryListener l : listeners) l.performanceChanging(m, month);
+		        boolean ok = m.addOrReplacePerformance(performance);
+		        for (RepositoryListener l : listeners) l.performanceChanged(m, month);
+		        return ok;
+		    } finally {
+		        lock.unlockWrite(stamp);
+		    }
+		}
+
+	 // Adds many members in one step. IDs are matched case-insensitively, as everywhere in the
+	 // repository, using one hash lookup per member: the first occurrence of an ID in the input wins
+	 // and later ones are rejected, and the policy decides what happens to IDs already present.
+	 // New members go to the end in input order; replaced ones keep their position. Null entries are
+	 // ignored. Atomic: readers see either none or all of the changes. Linear in roster plus input.
+	 public IngestReport merge(Collection<? extends Member> incoming, MergePolicy policy) {
+		    List<String> inserted = new ArrayList<>();
+		    List<String> replaced = new ArrayList<>();
+		    List<String> rejected = new ArrayList<>();
+		    long stamp = lock.writeLock();
+		    try {
+		        // decide everything first, so nothing is changed if this fails
+		        Map<Object, Member> accepted = new LinkedHashMap<>();
+		        for (Member m : incoming) {
+		            if (m == null) continue;
+		            Object key = MemberId.key(m);
+		            if (accepted.containsKey(key)
+		                    || (policy == MergePolicy.SKIP_EXISTING && members.containsKey(key))) {
+		                rejected.add(m.getMemberId());
+		            } else {
+		                accepted.put(key, m);
+		            }
+		        }
+		        if (accepted.isEmpty()) return new IngestReport(inserted, replaced, rejected);
+
+		        // index updates are cheap one by one, but a big batch is faster indexed from scratch
+		        boolean rebuild = accepted.size() > members.size() / 8;
+		        // a big batch goes into a copy of the lookup map that is swapped in when complete, as
+		        // replaceAllMembers does; a small one goes straight into the live map, as the
+		        // single-member calls it stands for would, rather than copying the whole roster
+		        Map<Object, Member> lookup = rebuild ? new ConcurrentHashMap<>(byId) : byId;
+		        Map<Object, Member> previous = new HashMap<>();
+		        for (Map.Entry<Object, Member> e : accepted.entrySet()) {
+		            Object key = e.getKey();
+		            Member m = e.getValue();
+		            Member old = members.put(key, m); // an existing key keeps its position
+		            lookup.put(key, m);
+		            if (old == null) {
+		                if (!rebuild) {
+		                    names.add(key, m);
+		                    indexes.add(key, m);
 		                }
+		                inserted.add(m.getMemberId());
+		                continue;
+		            }
+		            // as replaceMember: an incoming member without history keeps the old one
+		            carryHistory(old, m);
+		            if (!rebuild) {
+		                names.update(key, m);
+		                indexes.update(key, m);
+		            }
+		            previous.put(key, old);
+		            replaced.add(m.getMemberId());
+		        }
+		        if (rebuild) {
+		            names = buildNames(members);
+		            indexes = buildIndexes(members);
+		        }
+		        byId = lookup; // the same map unless rebuilt
+		        view = null;
+		        for (Map.Entry<Object, Member> e : accepted.entrySet()) {
+		            Member old = previous.get(e.getKey());
+		            for (RepositoryListener l : listeners) {
+		                if (old != null) l.memberRemoved(old);
+		                l.memberAdded(e.getValue());
 		            }
-		            members.set(i, updated);
-		            return true;
 		        }
+		        return new IngestReport(inserted, replaced, rejected);
+		    } finally {
+		        lock.unlockWrite(stamp);
 		    }
-		    return false;
 		}
-	 
-	 
-	 
-	 
-	 
-	 
-	 
-	 
-	 
+
+	  // Returns an immutable snapshot; it does not change when the repository does
 	  public List<Member> getAllMembers() {
-	        return Collections.unmodifiableList(members);
+	        List<Member> v = view;
+	        if (v != null) {
+	            return v;
+	        }
+	        long stamp = lock.readLock();
+	        try {
+	            return snapshot();
+	        } finally {
+	            lock.unlockRead(stamp);
+	        }
+	    }
+	  // The cached immutable list, built if a change dropped it; caller holds a lock
+	  private List<Member> snapshot() {
+	        List<Member> v = view;
+	        if (v == null) {
+	            v = Collections.unmodifiableList(new ArrayList<>(members.values()));
+	            view = v;
+	        }
+	        return v;
 	    }
 		// Replaces all exsiting members with a new list
 	  public void replaceAllMembers(List<Member> newMembers) {
-	        members.clear();
-	        members.addAll(newMembers);
+	        // build the new maps first so readers see either the old or the new roster
+	        Map<Object, Member> ordered = new LinkedHashMap<>();
+	        NameIndex index = new NameIndex();
+	        for (Member m : newMembers) {
+	            Object key = MemberId.key(m);
+	            if (ordered.putIfAbsent(key, m) == null) { // first row wins on duplicate IDs
+	                index.add(key, m);
+	            }
+	        }
+	        Map<Object, Member> lookup = new ConcurrentHashMap<>(ordered);
+	        SecondaryIndexes secondary = buildIndexes(ordered);
+
+	        long stamp = lock.writeLock();
+	        try {
+	            members = ordered;
+	            names = index;
+	            indexes = secondary;
+	            byId = lookup;
+	            view = null;
+	            for (RepositoryListener l : listeners) {
+	                l.rosterReplaced(Collections.unmodifiableCollection(ordered.values()));
+	            }
+	        } finally {
+	            lock.unlockWrite(stamp);
+	        }
+	    }
+	  private static NameIndex buildNames(Map<Object, Member> ordered) {
+	        NameIndex built = new NameIndex();
+	        for (Map.Entry<Object, Member> e : ordered.entrySet()) {
+	            built.add(e.getKey(), e.getValue());
+	        }
+	        return built;
 	    }
+	  private static SecondaryIndexes buildIndexes(Map<Object, Member> ordered) {
+	        SecondaryIndexes built = new SecondaryIndexes();
+	        for (Map.Entry<Object, Member> e : ordered.entrySet()) {
+	            built.add(e.getKey(), e.getValue());
+	        }
+	        return built;
+	    }
+
 		// checks if the repository is empty
 	  public boolean isEmpty() {
-	        return members.isEmpty();
+	        return byId.isEmpty();
 	    }
 
 }
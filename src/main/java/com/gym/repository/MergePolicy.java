@@ -0,0 +1,9 @@
+package com.gym.repository;
+
+// What MemberRepository.merge does with an incoming member whose ID is already in the repository
+public enum MergePolicy {
+	// replace the existing member in place; its history is kept if the incoming one has none
+	UPSERT,
+	// keep the existing member and reject the incoming one
+	SKIP_EXISTING
+}
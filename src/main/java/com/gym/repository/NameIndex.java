@@ -0,0 +1,201 @@
+package com.gym.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.gym.model.Member;
+
+// Trigram index over lower-cased "first last" names, used for substring name search.
+// Every member gets a slot, handed out in the order members are added and kept on a rename, so
+// slot order is the repository's order. A trigram's postings are the slots of the members whose
+// name contains it, as a sorted int array: 4 bytes per trigram per member, intersected by
+// binary search without allocating per candidate.
+final class NameIndex {
+
+	// member key (MemberId.key) -> slot
+	private final Map<Object, Integer> slots = new HashMap<>();
+	// by slot: member key and normalised name; null for a removed member's slot
+	private Object[] keys = new Object[16];
+	private String[] texts = new String[16];
+	private int nextSlot;
+	// mixed trigram -> postings
+	private final Map<Long, Postings> postings = new HashMap<>();
+
+	// Ascending slots
+	private static final class Postings {
+		int[] slots = new int[2];
+		int size;
+
+		// slot is larger than every slot present, or already present as the last one
+		void append(int slot) {
+			if (size > 0 && slots[size - 1] == slot) return; // trigram repeated in one name
+			if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+			slots[size++] = slot;
+		}
+
+		void insert(int slot) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i >= 0) return;
+			i = -i - 1;
+			if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+			System.arraycopy(slots, i, slots, i + 1, size - i);
+			slots[i] = slot;
+			size++;
+		}
+
+		void remove(int slot) {
+			int i = Arrays.binarySearch(slots, 0, size, slot);
+			if (i < 0) return; // trigram repeated in one name, already gone
+			System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+			size--;
+		}
+	}
+
+	void add(Object key, Member member) {
+		if (slots.containsKey(key)) {
+			update(key, member);
+			return;
+		}
+		if (nextSlot == keys.length) grow();
+		int slot = nextSlot++;
+		String name = normalise(member.getFirstName() + " " + member.getLastName());
+		slots.put(key, slot);
+		keys[slot] = key;
+		texts[slot] = name;
+		for (int i = 0; i + 3 <= name.length(); i++) {
+			postings.computeIfAbsent(trigram(name, i), t -> new Postings()).append(slot);
+		}
+	}
+
+	void remove(Object key) {
+		Integer slot = slots.remove(key);
+		if (slot == null) return;
+		unpost(slot, texts[slot]);
+		keys[slot] = null;
+		texts[slot] = null;
+	}
+
+	// Re-indexes only when the name actually changed, so plain fee or type updates are free.
+	// The member keeps its slot, as it keeps its place in the repository.
+	void update(Object key, Member member) {
+		Integer slot = slots.get(key);
+		if (slot == null) {
+			add(key, member);
+			return;
+		}
+		String name = normalise(member.getFirstName() + " " + member.getLastName());
+		if (name.equals(texts[slot])) return;
+		unpost(slot, texts[slot]);
+		texts[slot] = name;
+		for (int i = 0; i + 3 <= name.length(); i++) {
+			postings.computeIfAbsent(trigram(name, i), t -> new Postings()).insert(slot);
+		}
+	}
+
+	void clear() {
+		slots.clear();
+		postings.clear();
+		keys = new Object[16];
+		texts = new String[16];
+		nextSlot = 0;
+	}
+
+	// Returns keys of members whose full name contains the text (case-insensitive), in slot order.
+	// Text shorter than a trigram is matched against every stored name.
+	List<Object> search(String text) {
+		String query = normalise(text);
+		List<Object> results = new ArrayList<>();
+
+		// too short to form a trigram: check the stored names directly
+		if (query.length() < 3) {
+			for (int slot = 0; slot < nextSlot; slot++) {
+				if (texts[slot] != null && texts[slot].contains(query)) results.add(keys[slot]);
+			}
+			return results;
+		}
+
+		// each posting list is looked up once; candidates come from the shortest
+		int count = query.length() - 2;
+		Postings[] lists = new Postings[count];
+		int shortest = 0;
+		for (int i = 0; i < count; i++) {
+			lists[i] = postings.get(trigram(query, i));
+			if (lists[i] == null) return results; // some trigram occurs in no name
+			if (lists[i].size < lists[shortest].size) shortest = i;
+		}
+
+		// candidates rise, so each list is searched from where the previous candidate was found
+		int[] from = new int[count];
+		Postings candidates = lists[shortest];
+		candidates:
+		for (int c = 0; c < candidates.size; c++) {
+			int slot = candidates.slots[c];
+			for (int i = 0; i < count; i++) {
+				if (i == shortest) continue;
+				Postings p = lists[i];
+				int at = Arrays.binarySearch(p.slots, from[i], p.size, slot);
+				if (at < 0) {
+					from[i] = -at - 1;
+					if (from[i] == p.size) break candidates; // no larger slots in this list
+					continue candidates;
+				}
+				from[i] = at + 1;
+			}
+			if (texts[slot].contains(query)) results.add(keys[slot]);
+		}
+		return results;
+	}
+
+	private void unpost(int slot, String name) {
+		for (int i = 0; i + 3 <= name.length(); i++) {
+			long t = trigram(name, i);
+			Postings p = postings.get(t);
+			if (p == null) continue;
+			p.remove(slot);
+			if (p.size == 0) postings.remove(t);
+		}
+	}
+
+	// Doubles the slot arrays, or renumbers the live slots first when at least half are free.
+	// Renumbering keeps the order, so every posting list stays sorted.
+	private void grow() {
+		if (slots.size() <= nextSlot / 2) {
+			int[] renumbered = new int[nextSlot];
+			int live = 0;
+			for (int slot = 0; slot < nextSlot; slot++) {
+				if (keys[slot] == null) continue;
+				renumbered[slot] = live;
+				keys[live] = keys[slot];
+				texts[live] = texts[slot];
+				slots.put(keys[live], live);
+				live++;
+			}
+			Arrays.fill(keys, live, nextSlot, null);
+			Arrays.fill(texts, live, nextSlot, null);
+			for (Postings p : postings.values()) {
+				for (int i = 0; i < p.size; i++) p.slots[i] = renumbered[p.slots[i]];
+			}
+			nextSlot = live;
+		}
+		if (nextSlot == keys.length) {
+			keys = Arrays.copyOf(keys, keys.length * 2);
+			texts = Arrays.copyOf(texts, texts.length * 2);
+		}
+	}
+
+	private static String normalise(String s) {
+		return s.toLowerCase(Locale.ROOT);
+	}
+
+	// Three UTF-16 chars packed into the low 48 bits, then multiplied by an odd constant: a
+	// one-to-one mix that spreads them over the whole long. Long.hashCode of the plain packing
+	// folds to a few dozen values per middle character, and the map's bins turn into trees.
+	private static long trigram(String s, int i) {
+		long packed = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+		return packed * 0x9E3779B97F4A7C15L;
+	}
+}
@@ -0,0 +1,64 @@
+package com.gym.repository;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Sorted index from one member attribute to the slots holding that value.
+// A slot holds one value at a time, so one array remembers where each slot sits in its
+// value's list; removal swaps the last entry into that place instead of scanning the list,
+// which matters for attributes like age whose few values each hold many slots.
+final class RangeIndex<K extends Comparable<K>> {
+
+	private final NavigableMap<K, Slots> byValue = new TreeMap<>();
+	// slot -> index in its value's Slots list
+	private int[] position = new int[16];
+
+	void add(K value, int slot) {
+		if (slot >= position.length) position = Arrays.copyOf(position, Math.max(slot + 1, position.length * 2));
+		Slots slots = byValue.computeIfAbsent(value, v -> new Slots());
+		position[slot] = slots.size;
+		slots.add(slot);
+	}
+
+	void remove(K value, int slot) {
+		Slots slots = byValue.get(value);
+		if (slots == null || slot >= position.length) return;
+		int i = position[slot];
+		if (i >= slots.size || slots.slots[i] != slot) return; // not indexed under this value
+		int last = slots.slots[--slots.size];
+		slots.slots[i] = last; // order does not matter
+		position[last] = i;
+		if (slots.size == 0) byValue.remove(value);
+	}
+
+	// Number of slots with a value in [from, to]; costs one step per distinct value, not per member
+	int count(K from, K to) {
+		if (from.compareTo(to) > 0) return 0;
+		int n = 0;
+		for (Slots s : byValue.subMap(from, true, to, true).values()) n += s.size;
+		return n;
+	}
+
+	// Sets the bit of every slot with a value in [from, to]
+	void collect(K from, K to, BitSet into) {
+		if (from.compareTo(to) > 0) return;
+		for (Map.Entry<K, Slots> e : byValue.subMap(from, true, to, true).entrySet()) {
+			Slots s = e.getValue();
+			for (int i = 0; i < s.size; i++) into.set(s.slots[i]);
+		}
+	}
+
+	// Unordered slot list for one value
+	private static final class Slots {
+		int[] slots = new int[2];
+		int size;
+
+		void add(int slot) {
+			if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+			slots[size++] = slot;
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.gym.repository;
+
+import java.time.YearMonth;
+import java.util.Collection;
+
+import com.gym.model.Member;
+
+// Told about every change made through a MemberRepository. Calls are made while the repository
+// holds its write lock, so a listener sees changes one at a time and in order; it must not call
+// back into the repository.
+public interface RepositoryListener {
+
+	// The whole roster was swapped, or the listener was just registered and this is the current one
+	void rosterReplaced(Collection<Member> members);
+
+	void memberAdded(Member member);
+
+	void memberRemoved(Member member);
+
+	// Around recordPerformance: the member's record for the month is about to change / has changed
+	void performanceChanging(Member member, YearMonth month);
+
+	void performanceChanged(Member member, YearMonth month);
+}
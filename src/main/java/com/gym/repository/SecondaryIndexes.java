@@ -0,0 +1,151 @@
+package com.gym.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gym.model.Member;
+
+// Join-date, age and base-fee range indexes plus per-type bitmaps over repository members.
+// Each member gets a slot number in insertion order; indexes hold slots, so results come
+// back in repository order. Deleted slots stay empty until the owner rebuilds a sparse index.
+final class SecondaryIndexes {
+
+	private final Map<Object, Integer> slotOf = new HashMap<>();
+	private Member[] bySlot = new Member[16];
+	private int nextSlot;
+	private int liveCount;
+	private final BitSet live = new BitSet();
+
+	private final BitSet regular = new BitSet();
+	private final BitSet pt = new BitSet();
+	private final BitSet premium = new BitSet();
+	private final RangeIndex<Long> joinDays = new RangeIndex<>();
+	private final RangeIndex<Integer> ages = new RangeIndex<>();
+	private final RangeIndex<Double> fees = new RangeIndex<>();
+
+	void add(Object key, Member member) {
+		if (nextSlot == bySlot.length) bySlot = Arrays.copyOf(bySlot, nextSlot * 2);
+		int slot = nextSlot++;
+		slotOf.put(key, slot);
+		live.set(slot);
+		liveCount++;
+		index(slot, member);
+	}
+
+	void remove(Object key) {
+		Integer slot = slotOf.remove(key);
+		if (slot == null) return;
+		unindex(slot);
+		live.clear(slot);
+		liveCount--;
+	}
+
+	// The member under this key was replaced; it keeps its slot and so its position
+	void update(Object key, Member member) {
+		Integer slot = slotOf.get(key);
+		if (slot == null) return;
+		unindex(slot);
+		index(slot, member);
+	}
+
+	// True once more than half of the slots belong to deleted members
+	boolean isSparse() {
+		return nextSlot > 64 && liveCount * 2 < nextSlot;
+	}
+
+	List<Member> query(MemberQuery q) {
+		BitSet hits = matching(q);
+		List<Member> result = new ArrayList<>(hits.cardinality());
+		for (int s = hits.nextSetBit(0); s >= 0; s = hits.nextSetBit(s + 1)) {
+			result.add(bySlot[s]);
+		}
+		return result;
+	}
+
+	int count(MemberQuery q) {
+		return matching(q).cardinality();
+	}
+
+	// Expands the most selective range predicate into a bitmap, intersects it with the type
+	// bitmap, then checks the remaining ranges against the few members left
+	private BitSet matching(MemberQuery q) {
+		int joinCount = q.joinFrom() == null ? Integer.MAX_VALUE : joinDays.count(q.joinFrom(), q.joinTo());
+		int ageCount = q.ageFrom() == null ? Integer.MAX_VALUE : ages.count(q.ageFrom(), q.ageTo());
+		int feeCount = q.feeFrom() == null ? Integer.MAX_VALUE : fees.count(q.feeFrom(), q.feeTo());
+
+		BitSet hits = new BitSet(nextSlot);
+		boolean joinDone = false, ageDone = false, feeDone = false;
+		if (joinCount <= ageCount && joinCount <= feeCount && q.joinFrom() != null) {
+			joinDays.collect(q.joinFrom(), q.joinTo(), hits);
+			joinDone = true;
+		} else if (ageCount <= feeCount && q.ageFrom() != null) {
+			ages.collect(q.ageFrom(), q.ageTo(), hits);
+			ageDone = true;
+		} else if (q.feeFrom() != null) {
+			fees.collect(q.feeFrom(), q.feeTo(), hits);
+			feeDone = true;
+		} else {
+			hits.or(live);
+		}
+
+		if (q.types() != 0) {
+			BitSet typed = new BitSet(nextSlot);
+			if ((q.types() & MemberQuery.REGULAR) != 0) typed.or(regular);
+			if ((q.types() & MemberQuery.PT) != 0) typed.or(pt);
+			if ((q.types() & MemberQuery.PREMIUM) != 0) typed.or(premium);
+			hits.and(typed);
+		}
+
+		boolean probeJoin = q.joinFrom() != null && !joinDone;
+		boolean probeAge = q.ageFrom() != null && !ageDone;
+		boolean probeFee = q.feeFrom() != null && !feeDone;
+		if (probeJoin || probeAge || probeFee) {
+			for (int s = hits.nextSetBit(0); s >= 0; s = hits.nextSetBit(s + 1)) {
+				Member m = bySlot[s];
+				if ((probeJoin && !within(m.getJoinDate().toEpochDay(), q.joinFrom(), q.joinTo()))
+						|| (probeAge && !within(m.getAge(), q.ageFrom(), q.ageTo()))
+						|| (probeFee && !within(m.getBaseFee(), q.feeFrom(), q.feeTo()))) {
+					hits.clear(s);
+				}
+			}
+		}
+		return hits;
+	}
+
+	private void index(int slot, Member m) {
+		bySlot[slot] = m;
+		BitSet type = typeBitmap(m);
+		if (type != null) type.set(slot);
+		joinDays.add(m.getJoinDate().toEpochDay(), slot);
+		ages.add(m.getAge(), slot);
+		fees.add(m.getBaseFee(), slot);
+	}
+
+	private void unindex(int slot) {
+		Member m = bySlot[slot];
+		BitSet type = typeBitmap(m);
+		if (type != null) type.clear(slot);
+		joinDays.remove(m.getJoinDate().toEpochDay(), slot);
+		ages.remove(m.getAge(), slot);
+		fees.remove(m.getBaseFee(), slot);
+		bySlot[slot] = null;
+	}
+
+	private BitSet typeBitmap(Member m) {
+		switch (MemberQuery.typeBit(m)) {
+		case MemberQuery.REGULAR: return regular;
+		case MemberQuery.PT:      return pt;
+		case MemberQuery.PREMIUM: return premium;
+		default:                  return null;
+		}
+	}
+
+	// same ordering as the TreeMap keys, so probing agrees with the indexes (NaN included)
+	private static <K extends Comparable<K>> boolean within(K value, K from, K to) {
+		return value.compareTo(from) >= 0 && value.compareTo(to) <= 0;
+	}
+}
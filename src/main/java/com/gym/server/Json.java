@@ -0,0 +1,142 @@
+package com.gym.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Just enough JSON for the HTTP service: string quoting for responses and a parser for the
+// flat request objects it accepts (string, number, boolean and null values, no nesting)
+final class Json {
+
+	private Json() {}
+
+	// The text as a JSON string literal, quotes included
+	static String quote(String s) {
+		StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':  sb.append("\\\""); break;
+			case '\\': sb.append("\\\\"); break;
+			case '\n': sb.append("\\n"); break;
+			case '\r': sb.append("\\r"); break;
+			case '\t': sb.append("\\t"); break;
+			default:
+				if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+				else sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	// Parses {"name": value, ...}; values come back as String, Double, Boolean or null.
+	// Throws IllegalArgumentException for anything else.
+	static Map<String, Object> parseObject(String text) {
+		Parser p = new Parser(text);
+		Map<String, Object> result = p.object();
+		p.skipSpace();
+		if (p.pos != text.length()) throw p.error("trailing characters");
+		return result;
+	}
+
+	private static final class Parser {
+		final String s;
+		int pos;
+
+		Parser(String s) {
+			this.s = s;
+		}
+
+		Map<String, Object> object() {
+			Map<String, Object> fields = new LinkedHashMap<>();
+			expect('{');
+			skipSpace();
+			if (peek() == '}') {
+				pos++;
+				return fields;
+			}
+			while (true) {
+				skipSpace();
+				String name = string();
+				expect(':');
+				fields.put(name, value());
+				skipSpace();
+				char c = next();
+				if (c == '}') return fields;
+				if (c != ',') throw error("expected ',' or '}'");
+			}
+		}
+
+		Object value() {
+			skipSpace();
+			char c = peek();
+			if (c == '"') return string();
+			if (s.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+			if (s.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+			if (s.startsWith("null", pos)) { pos += 4; return null; }
+			int start = pos;
+			while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+			if (start == pos) throw error("expected a value");
+			try {
+				return Double.valueOf(s.substring(start, pos));
+			} catch (NumberFormatException e) {
+				throw error("bad number");
+			}
+		}
+
+		String string() {
+			expect('"');
+			StringBuilder sb = new StringBuilder();
+			while (true) {
+				char c = next();
+				if (c == '"') return sb.toString();
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				char e = next();
+				switch (e) {
+				case '"': case '\\': case '/': sb.append(e); break;
+				case 'b': sb.append('\b'); break;
+				case 'f': sb.append('\f'); break;
+				case 'n': sb.append('\n'); break;
+				case 'r': sb.append('\r'); break;
+				case 't': sb.append('\t'); break;
+				case 'u':
+					if (pos + 4 > s.length()) throw error("bad escape");
+					try {
+						sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+					} catch (NumberFormatException ex) {
+						throw error("bad escape");
+					}
+					pos += 4;
+					break;
+				default:
+					throw error("bad escape");
+				}
+			}
+		}
+
+		void expect(char c) {
+			skipSpace();
+			if (next() != c) throw error("expected '" + c + "'");
+		}
+
+		char next() {
+			if (pos >= s.length()) throw error("unexpected end");
+			return s.charAt(pos++);
+		}
+
+		char peek() {
+			if (pos >= s.length()) throw error("unexpected end");
+			return s.charAt(pos);
+		}
+
+		void skipSpace() {
+			while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+		}
+
+		IllegalArgumentException error(String what) {
+			return new IllegalArgumentException("Invalid JSON at " + pos + ": " + what);
+		}
+	}
+}
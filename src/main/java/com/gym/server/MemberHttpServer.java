@@ -0,0 +1,286 @@
+package com.gym.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.gym.billing.FeeCache;
+import com.gym.billing.FeeLine;
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.repository.MemberRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// JSON over HTTP on top of a shared MemberRepository, so other programs (front desk, billing
+// jobs) work on the same in-memory members as the console. Endpoints:
+//   GET  /members/{id}                    the member with its performance history
+//   GET  /members?name=<text>[&limit=n]   members whose full name contains the text
+//   GET  /members/{id}/fee?month=YYYY-MM  fee breakdown for the month
+//   POST /members/{id}/performances       {"month":"YYYY-MM","goalAchieved":true,"rating":4,"notes":"..."}
+//                                         adds or replaces that month's record; notes may not
+//                                         contain control characters such as line breaks
+// Errors come back as {"error": "..."} with status 400, 404, 405 or 500; a 500 only says that
+// something failed, the details go to stderr.
+// Every request runs on its own virtual thread; the repository and fee cache are thread-safe,
+// and recording goes through the Recorder so the owner decides how a change is persisted.
+// There is no authentication, so the server listens on the loopback interface unless the owner
+// asks for another address. The JDK server only turns Nagle's algorithm off when the system
+// property sun.net.httpserver.nodelay is true before the first server is created; that is left
+// to the owner, as it applies to the whole JVM.
+public class MemberHttpServer implements Closeable {
+
+	// Applies a performance to the repository and persists it; false when the member is unknown
+	public interface Recorder {
+		boolean record(Performance performance) throws IOException;
+	}
+
+	// connections the OS may queue before accepting; the default is too small for bursts of clients
+	private static final int BACKLOG = 4096;
+	// search results returned when the request does not say
+	private static final int DEFAULT_LIMIT = 100;
+	// request bodies are tiny objects; anything bigger is refused
+	private static final int MAX_BODY = 64 * 1024;
+
+	private final MemberRepository repo;
+	private final FeeCache fees;
+	private final Recorder recorder;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	private static final class Response {
+		final int status;
+		final String json;
+
+		Response(int status, String json) {
+			this.status = status;
+			this.json = json;
+		}
+	}
+
+	public MemberHttpServer(MemberRepository repo, FeeCache fees, Recorder recorder) {
+		this.repo = Objects.requireNonNull(repo, "repo");
+		this.fees = Objects.requireNonNull(fees, "fees");
+		this.recorder = Objects.requireNonNull(recorder, "recorder");
+	}
+
+	// Starts listening on the loopback interface; port 0 picks a free port, see getPort
+	public void start(int port) throws IOException {
+		start(InetAddress.getLoopbackAddress(), port);
+	}
+
+	// Starts listening on the given local address; the wildcard address accepts every interface
+	public synchronized void start(InetAddress address, int port) throws IOException {
+		if (server != null) throw new IllegalStateException("Server already started");
+		server = HttpServer.create(new InetSocketAddress(Objects.requireNonNull(address, "address"), port), BACKLOG);
+		server.createContext("/members", this::handle);
+		executor = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public synchronized int getPort() {
+		if (server == null) throw new IllegalStateException("Server not started");
+		return server.getAddress().getPort();
+	}
+
+	// Stops accepting connections and gives requests in flight up to a second to finish
+	@Override
+	public synchronized void close() {
+		if (server == null) return;
+		server.stop(1);
+		executor.shutdown();
+		server = null;
+	}
+
+	private void handle(HttpExchange ex) throws IOException {
+		Response r;
+		try {
+			r = route(ex);
+		} catch (IllegalArgumentException e) {
+			r = error(400, e.getMessage());
+		} catch (IOException | RuntimeException e) {
+			System.err.println("HTTP " + ex.getRequestMethod() + " " + ex.getRequestURI().getPath() + " failed: " + e);
+			r = error(500, "Internal error");
+		}
+		byte[] body = r.json.getBytes(StandardCharsets.UTF_8);
+		ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		ex.sendResponseHeaders(r.status, body.length);
+		try (OutputStream out = ex.getResponseBody()) {
+			out.write(body);
+		} finally {
+			ex.close();
+		}
+	}
+
+	private Response route(HttpExchange ex) throws IOException {
+		String method = ex.getRequestMethod();
+		String rest = ex.getRequestURI().getPath().substring("/members".length());
+		Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+
+		if (rest.isEmpty() || rest.equals("/")) {
+			if (!method.equals("GET")) return error(405, "Use GET");
+			return search(query);
+		}
+		if (rest.charAt(0) != '/') return error(404, "No such resource");
+		String[] parts = rest.substring(1).split("/", -1);
+		if (parts[0].isEmpty() || parts.length > 2) return error(404, "No such resource");
+
+		// the history is read under the repository's read lock, as a POST may be changing it
+		if (parts.length == 1) {
+			if (!method.equals("GET")) return error(405, "Use GET");
+			return repo.read(parts[0], m -> m == null
+					? error(404, "No member " + parts[0])
+					: new Response(200, member(m, true)));
+		}
+		switch (parts[1]) {
+		case "fee":
+			if (!method.equals("GET")) return error(405, "Use GET");
+			return repo.read(parts[0], m -> m == null
+					? error(404, "No member " + parts[0])
+					: new Response(200, fee(fees.get(m, month(query.get("month"))))));
+		case "performances": {
+			if (!method.equals("POST")) return error(405, "Use POST");
+			Member m = repo.findMemberById(parts[0]);
+			if (m == null) return error(404, "No member " + parts[0]);
+			return record(m, body(ex));
+		}
+		default:
+			return error(404, "No such resource");
+		}
+	}
+
+	private Response search(Map<String, String> query) {
+		String name = query.get("name");
+		if (name == null) throw new IllegalArgumentException("Missing name parameter");
+		int limit = DEFAULT_LIMIT;
+		if (query.containsKey("limit")) {
+			try {
+				limit = Integer.parseInt(query.get("limit"));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("limit must be a number");
+			}
+			if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+		}
+		List<Member> found = repo.findMembersByName(name);
+		StringBuilder sb = new StringBuilder("{\"count\":").append(found.size()).append(",\"members\":[");
+		for (int i = 0; i < found.size() && i < limit; i++) {
+			if (i > 0) sb.append(',');
+			sb.append(member(found.get(i), false));
+		}
+		return new Response(200, sb.append("]}").toString());
+	}
+
+	private Response record(Member m, String body) throws IOException {
+		Map<String, Object> fields = Json.parseObject(body);
+		YearMonth month = month(fields.get("month") instanceof String s ? s : null);
+		if (!(fields.get("rating") instanceof Double rating) || rating != Math.rint(rating) || rating < 1 || rating > 5) {
+			throw new IllegalArgumentException("rating must be a whole number from 1 to 5");
+		}
+		Object goal = fields.getOrDefault("goalAchieved", Boolean.FALSE);
+		if (!(goal instanceof Boolean)) throw new IllegalArgumentException("goalAchieved must be true or false");
+		Object notes = fields.get("notes");
+		if (notes != null && !(notes instanceof String)) throw new IllegalArgumentException("notes must be a string");
+		// the CSV files and the journal keep one record per line
+		if (notes != null && ((String) notes).chars().anyMatch(Character::isISOControl)) {
+			throw new IllegalArgumentException("notes must not contain line breaks or other control characters");
+		}
+
+		Performance p = new Performance(m.getMemberId(), month, (Boolean) goal, rating.intValue(),
+				notes == null ? "" : (String) notes);
+		if (!recorder.record(p)) return error(404, "No member " + m.getMemberId());
+		return new Response(201, performance(p));
+	}
+
+	// JSON writers
+
+	private static String member(Member m, boolean withHistory) {
+		StringBuilder sb = new StringBuilder(256)
+				.append("{\"id\":").append(Json.quote(m.getMemberId()))
+				.append(",\"type\":").append(Json.quote(FeeLine.typeOf(m)))
+				.append(",\"firstName\":").append(Json.quote(m.getFirstName()))
+				.append(",\"lastName\":").append(Json.quote(m.getLastName()))
+				.append(",\"age\":").append(m.getAge())
+				.append(",\"joinDate\":\"").append(m.getJoinDate()).append('"')
+				.append(",\"baseFee\":").append(m.getBaseFee());
+		if (m instanceof PersonalTrainingMember pt) {
+			sb.append(",\"sessionsPerMonth\":").append(pt.getSessionsPerMonth())
+					.append(",\"feePerSession\":").append(pt.getFeePerSession());
+		} else if (m instanceof PremiumMember pm) {
+			sb.append(",\"spaAccess\":").append(pm.hasSpaAccess())
+					.append(",\"premiumServiceFee\":").append(pm.getPremiumServiceFee());
+		}
+		if (withHistory) {
+			sb.append(",\"performances\":[");
+			List<Performance> history = m.getPerformanceHistory();
+			for (int i = 0; i < history.size(); i++) {
+				if (i > 0) sb.append(',');
+				sb.append(performance(history.get(i)));
+			}
+			sb.append(']');
+		}
+		return sb.append('}').toString();
+	}
+
+	private static String performance(Performance p) {
+		return "{\"month\":\"" + p.getMonth() + "\",\"goalAchieved\":" + p.getGoalAchieved()
+				+ ",\"rating\":" + p.getRating() + ",\"notes\":" + Json.quote(p.getNotes()) + "}";
+	}
+
+	private static String fee(FeeLine line) {
+		return "{\"memberId\":" + Json.quote(line.getMemberId()) + ",\"type\":" + Json.quote(line.getMemberType())
+				+ ",\"month\":\"" + line.getMonth() + "\",\"base\":" + line.getBase() + ",\"extras\":" + line.getExtras()
+				+ ",\"discount\":" + line.getDiscount() + ",\"penalty\":" + line.getPenalty()
+				+ ",\"total\":" + line.getTotal() + "}";
+	}
+
+	private static Response error(int status, String message) {
+		return new Response(status, "{\"error\":" + Json.quote(message) + "}");
+	}
+
+	// Request helpers
+
+	private static YearMonth month(String text) {
+		if (text == null) throw new IllegalArgumentException("Missing month (YYYY-MM)");
+		try {
+			return YearMonth.parse(text);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("month must be YYYY-MM");
+		}
+	}
+
+	private static String body(HttpExchange ex) throws IOException {
+		try (InputStream in = ex.getRequestBody()) {
+			byte[] bytes = in.readNBytes(MAX_BODY + 1);
+			if (bytes.length > MAX_BODY) throw new IllegalArgumentException("Request body too large");
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static Map<String, String> query(String raw) {
+		Map<String, String> params = new HashMap<>();
+		if (raw == null || raw.isEmpty()) return params;
+		for (String pair : raw.split("&")) {
+			int eq = pair.indexOf('=');
+			String key = eq < 0 ? pair : pair.substring(0, eq);
+			String value = eq < 0 ? "" : pair.substring(eq + 1);
+			params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+		}
+		return params;
+	}
+}
@@ -0,0 +1,55 @@
+package com.gym.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Crash-safe file replacement: the new contents go to a temp file next to the target,
+// are forced to disk, and only then renamed over it. A crash at any point leaves either
+// the old file or the complete new one, never a truncated mix.
+final class AtomicFiles {
+
+    // Writes the contents to the given path (the temp file) and throws on failure
+    interface Contents {
+        void writeTo(String path) throws IOException;
+    }
+
+    private AtomicFiles() {}
+
+    static String replace(String filePath, Contents contents) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path dir = target.getParent();
+        Files.createDirectories(dir);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+
+        try {
+            contents.writeTo(temp.toString());
+            try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        forceDirectory(dir);
+        return Paths.get(filePath).toString();
+    }
+
+    // Makes the rename itself durable; not every platform can open a directory, so best effort
+    private static void forceDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // e.g. Windows; the rename is still atomic, just not yet flushed
+        }
+    }
+}
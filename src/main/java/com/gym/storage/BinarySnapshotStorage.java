@@ -0,0 +1,281 @@
+package com.gym.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// Binary snapshot of members and their performance history, much faster to load than the CSVs.
+//
+// Layout (version 1, big-endian):
+//   header       int magic "GYMB", int version, int stringCount, int memberCount, long performanceCount
+//   strings      stringCount x (int byteLength, UTF-8 bytes); IDs, names and notes refer to these by index
+//   members      memberCount fixed-width records (MEMBER_BYTES)
+//   offsets      memberCount + 1 longs: index of each member's first performance, then performanceCount
+//   performances performanceCount fixed-width records (PERFORMANCE_BYTES), grouped by member
+// Dates are epoch days, months are year * 12 + month - 1.
+// Files are replaced through AtomicFiles; a damaged or truncated file fails to load with an
+// IOException rather than with whatever the byte buffer would throw.
+public class BinarySnapshotStorage {
+
+    private static final int MAGIC = 0x47594D42; // "GYMB"
+    private static final int VERSION = 1;
+
+    private static final byte REGULAR = 0;
+    private static final byte PT = 1;
+    private static final byte PREMIUM = 2;
+
+    // id, type, first, last, age, joinEpochDay, baseFee, sessions, feePerSession, spa, premiumFee
+    private static final int MEMBER_BYTES = 4 + 1 + 4 + 4 + 4 + 8 + 8 + 4 + 8 + 1 + 8;
+    // epochMonth, goalAchieved, rating, notes
+    private static final int PERFORMANCE_BYTES = 4 + 1 + 1 + 4;
+
+    // Writes members (with their performance history) to the snapshot file; returns its path
+    public String save(List<Member> members, String filePath) throws IOException {
+        Objects.requireNonNull(members, "members");
+        return AtomicFiles.replace(filePath, path -> {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), 1 << 16)) {
+                write(members, out);
+            }
+        });
+    }
+
+    // Writes the repository's members as save does. The bytes are encoded under the repository's
+    // read lock, as other threads may be recording performances, and written to disk after.
+    public String save(MemberRepository repo, String filePath) throws IOException {
+        byte[] bytes = repo.readAll(BinarySnapshotStorage::encode);
+        return AtomicFiles.replace(filePath, path -> Files.write(Paths.get(path), bytes));
+    }
+
+    // The snapshot bytes save() would write, held in memory
+    static byte[] encode(List<Member> members) {
+        Objects.requireNonNull(members, "members");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(members, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(List<Member> members, OutputStream sink) throws IOException {
+        // string table, each distinct string stored once
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        List<Member> kept = new ArrayList<>(members.size());
+        long performanceCount = 0;
+        for (Member m : members) {
+            if (typeOf(m) < 0) continue; // unknown subtype, as in the CSV writer
+            kept.add(m);
+            intern(m.getMemberId(), strings, index);
+            intern(m.getFirstName(), strings, index);
+            intern(m.getLastName(), strings, index);
+            for (Performance p : m.getPerformanceHistory()) {
+                intern(p.getNotes(), strings, index);
+                performanceCount++;
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(sink);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        out.writeInt(kept.size());
+        out.writeLong(performanceCount);
+
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        for (Member m : kept) {
+            byte type = typeOf(m);
+            out.writeInt(index.get(m.getMemberId()));
+            out.writeByte(type);
+            out.writeInt(index.get(m.getFirstName()));
+            out.writeInt(index.get(m.getLastName()));
+            out.writeInt(m.getAge());
+            out.writeLong(m.getJoinDate().toEpochDay());
+            out.writeDouble(m.getBaseFee());
+            if (type == PT) {
+                PersonalTrainingMember pt = (PersonalTrainingMember) m;
+                out.writeInt(pt.getSessionsPerMonth());
+                out.writeDouble(pt.getFeePerSession());
+            } else {
+                out.writeInt(0);
+                out.writeDouble(0.0);
+            }
+            if (type == PREMIUM) {
+                PremiumMember pm = (PremiumMember) m;
+                out.writeBoolean(pm.hasSpaAccess());
+                out.writeDouble(pm.getPremiumServiceFee());
+            } else {
+                out.writeBoolean(false);
+                out.writeDouble(0.0);
+            }
+        }
+
+        long offset = 0;
+        for (Member m : kept) {
+            out.writeLong(offset);
+            offset += m.getPerformanceHistory().size();
+        }
+        out.writeLong(offset);
+
+        for (Member m : kept) {
+            for (Performance p : m.getPerformanceHistory()) {
+                YearMonth ym = p.getMonth();
+                out.writeInt(ym.getYear() * 12 + ym.getMonthValue() - 1);
+                out.writeBoolean(p.getGoalAchieved());
+                out.writeByte(p.getRating());
+                out.writeInt(index.get(p.getNotes()));
+            }
+        }
+        out.flush();
+    }
+
+    // Reads a snapshot back into members with their performance history attached
+    public List<Member> load(String filePath) throws IOException {
+        Path file = Paths.get(filePath);
+        if (!Files.exists(file)) return new ArrayList<>();
+
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Snapshot too large to map: " + file);
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        return decode(buf, file);
+    }
+
+    // Members decoded from snapshot bytes; file only names the source in error messages
+    static List<Member> decode(ByteBuffer buf, Object file) throws IOException {
+        try {
+            return decodeChecked(buf, file);
+        } catch (RuntimeException e) {
+            // values the checks below let through but the model rejects, e.g. an epoch day out of range
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+
+    private static List<Member> decodeChecked(ByteBuffer buf, Object file) throws IOException {
+        List<Member> result = new ArrayList<>();
+        if (buf.remaining() < 24 || buf.getInt() != MAGIC) throw new IOException("Not a member snapshot: " + file);
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+        int stringCount = buf.getInt();
+        int memberCount = buf.getInt();
+        long performanceCount = buf.getLong();
+        // every string takes at least its 4-byte length, so a count beyond that is damage, not a big file
+        if (stringCount < 0 || stringCount > buf.remaining() / 4 || memberCount < 0 || performanceCount < 0) {
+            throw new IOException("Corrupt snapshot header: " + file);
+        }
+
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            if (buf.remaining() < 4) throw new IOException("Truncated snapshot: " + file);
+            int len = buf.getInt();
+            if (len < 0) throw new IOException("Corrupt string length " + len + " in " + file);
+            if (len > buf.remaining()) throw new IOException("Truncated snapshot: " + file);
+            byte[] bytes = new byte[len];
+            buf.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int membersAt = buf.position();
+        long offsetsAt = membersAt + (long) memberCount * MEMBER_BYTES;
+        long performancesAt = offsetsAt + (memberCount + 1L) * 8;
+        if (performanceCount > Integer.MAX_VALUE / PERFORMANCE_BYTES
+                || performancesAt + performanceCount * PERFORMANCE_BYTES > buf.limit()) {
+            throw new IOException("Truncated snapshot: " + file);
+        }
+
+        long expectedFrom = 0;
+        for (int i = 0; i < memberCount; i++) {
+            int at = membersAt + i * MEMBER_BYTES;
+            String id      = string(strings, buf.getInt(at), file);
+            byte type      = buf.get(at + 4);
+            String first   = string(strings, buf.getInt(at + 5), file);
+            String last    = string(strings, buf.getInt(at + 9), file);
+            int age        = buf.getInt(at + 13);
+            LocalDate join = LocalDate.ofEpochDay(buf.getLong(at + 17));
+            double baseFee = buf.getDouble(at + 25);
+
+            Member m;
+            switch (type) {
+            case REGULAR:
+                m = new RegularMember(id, first, last, age, join, baseFee);
+                break;
+            case PT:
+                m = new PersonalTrainingMember(id, first, last, age, join, baseFee,
+                        buf.getInt(at + 33), buf.getDouble(at + 37));
+                break;
+            case PREMIUM:
+                m = new PremiumMember(id, first, last, age, join, baseFee,
+                        buf.get(at + 45) != 0, buf.getDouble(at + 46));
+                break;
+            default:
+                throw new IOException("Unknown member type " + type + " in " + file);
+            }
+
+            // histories are grouped by member, so each range starts where the previous one ended
+            long from = buf.getLong((int) offsetsAt + i * 8);
+            long to = buf.getLong((int) offsetsAt + (i + 1) * 8);
+            if (from != expectedFrom || to < from || to > performanceCount) {
+                throw new IOException("Corrupt performance offsets for member " + i + " in " + file);
+            }
+            expectedFrom = to;
+            for (long k = from; k < to; k++) {
+                int p = (int) (performancesAt + k * PERFORMANCE_BYTES);
+                int epochMonth = buf.getInt(p);
+                YearMonth month = YearMonth.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+                m.addOrReplacePerformance(new Performance(id, month, buf.get(p + 4) != 0, (int) buf.get(p + 5),
+                        string(strings, buf.getInt(p + 6), file)));
+            }
+            result.add(m);
+        }
+        return result;
+    }
+
+    private static String string(String[] strings, int index, Object file) throws IOException {
+        if (index < 0 || index >= strings.length) throw new IOException("Corrupt string index " + index + " in " + file);
+        return strings[index];
+    }
+
+    private static byte typeOf(Member m) {
+        if (m instanceof RegularMember) return REGULAR;
+        if (m instanceof PersonalTrainingMember) return PT;
+        if (m instanceof PremiumMember) return PREMIUM;
+        return -1;
+    }
+
+    private static void intern(String s, List<String> strings, Map<String, Integer> index) {
+        if (!index.containsKey(s)) {
+            index.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+}
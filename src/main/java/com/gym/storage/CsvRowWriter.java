@@ -0,0 +1,180 @@
+package com.gym.storage;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.gym.model.Member;
+import com.gym.model.MemberId;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Encodes members.csv and performances.csv rows into one reusable char buffer.
+// The output is character for character what the String.join / String.format / esc version
+// produced: numbers use fixed-point 2-decimal formatting, names and notes are quoted with
+// embedded quotes doubled, and dates use ISO format. Only values the fast paths cannot
+// prove identical (negative, NaN or huge amounts, amounts right on a rounding tie, years
+// outside 0-9999) go through String.format / toString.
+final class CsvRowWriter {
+
+    private char[] buf = new char[256];
+    private int len;
+
+    // Encodes a members.csv row; returns false for subtypes the file cannot hold
+    boolean member(Member m) {
+        len = 0;
+        String type;
+        if (m instanceof RegularMember) {
+            type = "REGULAR";
+        } else if (m instanceof PersonalTrainingMember) {
+            type = "PT";
+        } else if (m instanceof PremiumMember) {
+            type = "PREMIUM";
+        } else {
+            return false;
+        }
+
+        long id = m.getPackedId();
+        (id != MemberId.NOT_PACKED ? packedId((int) id) : text(m.getMemberId())).comma();
+        text(type).comma();
+        quoted(m.getFirstName()).comma();
+        quoted(m.getLastName()).comma();
+        number(m.getAge()).comma();
+        date(m.getJoinDate()).comma();
+        money(m.getBaseFee()).comma();
+        if (m instanceof PersonalTrainingMember pt) {
+            number(pt.getSessionsPerMonth()).comma();
+            money(pt.getFeePerSession()).comma();
+        } else {
+            comma().comma();
+        }
+        if (m instanceof PremiumMember pm) {
+            text(pm.hasSpaAccess() ? "true" : "false").comma();
+            money(pm.getPremiumServiceFee());
+        } else {
+            comma();
+        }
+        return true;
+    }
+
+    // Encodes a performances.csv row
+    void performance(Performance p) {
+        len = 0;
+        long id = p.getPackedMemberId();
+        (id != MemberId.NOT_PACKED ? packedId((int) id) : text(p.getMemberId())).comma();
+        month(p.getMonth()).comma();
+        text(p.getGoalAchieved() ? "true" : "false").comma();
+        number(p.getRating()).comma();
+        quoted(p.getNotes());
+    }
+
+    void writeTo(Writer w) throws IOException {
+        w.write(buf, 0, len);
+    }
+
+    String text() {
+        return new String(buf, 0, len);
+    }
+
+    private CsvRowWriter comma() {
+        return put(',');
+    }
+
+    private CsvRowWriter put(char c) {
+        if (len == buf.length) buf = Arrays.copyOf(buf, len * 2);
+        buf[len++] = c;
+        return this;
+    }
+
+    private CsvRowWriter text(String s) {
+        int n = s.length();
+        if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        s.getChars(0, n, buf, len);
+        len += n;
+        return this;
+    }
+
+    // "M" + 8 hex digits straight from the packed form
+    private CsvRowWriter packedId(int packed) {
+        if (len + 9 > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + 9));
+        MemberId.write(packed, buf, len);
+        len += 9;
+        return this;
+    }
+
+    // Always quoted, with embedded quotes doubled; null is written as an empty field
+    private CsvRowWriter quoted(String s) {
+        if (s == null) return this;
+        put('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') put('"');
+            put(c);
+        }
+        return put('"');
+    }
+
+    private CsvRowWriter number(int v) {
+        if (v < 0) {
+            if (v == Integer.MIN_VALUE) return text(Integer.toString(v));
+            put('-');
+            v = -v;
+        }
+        int digits = 1;
+        for (int t = v; t >= 10; t /= 10) digits++;
+        if (len + digits > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + digits));
+        for (int i = len + digits - 1; i >= len; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        len += digits;
+        return this;
+    }
+
+    private CsvRowWriter padded(int v, int width) {
+        if (len + width > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + width));
+        for (int i = width - 1; i >= 0; i--) {
+            buf[len + i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        len += width;
+        return this;
+    }
+
+    // yyyy-MM-dd, as LocalDate.toString
+    private CsvRowWriter date(LocalDate d) {
+        int year = d.getYear();
+        if (year < 0 || year > 9999) return text(d.toString());
+        padded(year, 4).put('-');
+        padded(d.getMonthValue(), 2).put('-');
+        return padded(d.getDayOfMonth(), 2);
+    }
+
+    // yyyy-MM, as YearMonth.toString
+    private CsvRowWriter month(YearMonth ym) {
+        int year = ym.getYear();
+        if (year < 0 || year > 9999) return text(ym.toString());
+        padded(year, 4).put('-');
+        return padded(ym.getMonthValue(), 2);
+    }
+
+    // String.format(Locale.ROOT, "%.2f", d) rounds half-up on the shortest decimal form of d.
+    // Away from a tie, that equals rounding d * 100 to the nearest integer; below 1e7 the
+    // product is exact to well under the 1e-6 tie margin.
+    private CsvRowWriter money(double d) {
+        // NaN, -0.0 (printed as -0.00), negatives and large amounts take the slow path
+        if (!(d >= 0 && d < 1e7) || Double.doubleToRawLongBits(d) < 0) return text(String.format(Locale.ROOT, "%.2f", d));
+        double scaled = d * 100;
+        double frac = scaled - Math.floor(scaled);
+        if (Math.abs(frac - 0.5) < 1e-6) return text(String.format(Locale.ROOT, "%.2f", d));
+
+        long cents = Math.round(scaled);
+        number((int) (cents / 100)).put('.');
+        return padded((int) (cents % 100), 2);
+    }
+}
@@ -5,7 +5,9 @@ import java.io.*;
 import java.nio.file.*;
 import java.time.*;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CsvStorage {
     //Save member detail to new csv file
@@ -20,43 +22,11 @@ public class CsvStorage {
             w.write("id,type,firstName,lastName,age,joinDate,baseFee,sessionsPerMonth,feePerSession,spaAccess,premiumServiceFee");
             w.newLine();
 
+            CsvRowWriter row = new CsvRowWriter();
             for (Member m : members) {
-                String type;
-                String sessions = "";
-                String feePerSession = "";
-                String spaAccess = "";
-                String premiumFee = "";
-
-                if (m instanceof RegularMember) {
-                    type = "REGULAR";
-                } else if (m instanceof PersonalTrainingMember) {
-                    type = "PT";
-                    PersonalTrainingMember pt = (PersonalTrainingMember) m;
-                    sessions = String.valueOf(pt.getSessionsPerMonth());
-                    feePerSession = formatDouble(pt.getFeePerSession());
-                } else if (m instanceof PremiumMember) {
-                    type = "PREMIUM";
-                    PremiumMember pm = (PremiumMember) m;
-                    spaAccess = String.valueOf(pm.hasSpaAccess());
-                    premiumFee = formatDouble(pm.getPremiumServiceFee());
-                } else {
-                    // Unknown subtype: skip row
-                    continue;
-                }
-
-                w.write(String.join(",",
-                        m.getMemberId(),
-                        type,
-                        esc(m.getFirstName()),
-                        esc(m.getLastName()),
-                        String.valueOf(m.getAge()),
-                        m.getJoinDate().toString(),
-                        formatDouble(m.getBaseFee()),
-                        sessions,
-                        feePerSession,
-                        spaAccess,
-                        premiumFee
-                ));
+                // Unknown subtype: skip row
+                if (!row.member(m)) continue;
+                row.writeTo(w);
                 w.newLine();
             }
         }
@@ -75,14 +45,10 @@ public class CsvStorage {
             w.write("memberId,month,goalAchieved,rating,notes");
             w.newLine();
 
+            CsvRowWriter row = new CsvRowWriter();
             for (Performance p : performances) {
-                w.write(String.join(",",
-                        p.getMemberId(),
-                        p.getMonth().toString(),                       // YYYY-MM
-                        String.valueOf(p.getGoalAchieved()),
-                        String.valueOf(p.getRating()),
-                        esc(p.getNotes())
-                ));
+                row.performance(p);
+                row.writeTo(w);
                 w.newLine();
             }
         }
@@ -108,36 +74,8 @@ public class CsvStorage {
             String header = r.readLine(); // skip header
             String line;
             while ((line = r.readLine()) != null) {
-                String[] cols = splitCsv(line, 11); // expect 11 columns
-                if (cols.length < 6) continue;
-
-                String id        = safe(cols, 0);
-                String type      = safe(cols, 1).toUpperCase(Locale.ROOT).trim();
-                String firstName = unesc(safe(cols, 2));
-                String lastName  = unesc(safe(cols, 3));
-                int age          = parseIntSafe(safe(cols, 4), 0);
-                LocalDate join   = LocalDate.parse(safe(cols, 5));
-                double baseFee   = parseDoubleSafe(safe(cols, 6), 0.0);
-
-                Member m;
-                switch (type) {
-                case "REGULAR":
-                    m = new RegularMember(id, firstName, lastName, age, join, baseFee);
-                    break;
-                case "PT":
-                    int sessions = parseIntSafe(safe(cols, 7), 0);
-                    double perSession = parseDoubleSafe(safe(cols, 8), 0.0);
-                    m = new PersonalTrainingMember(id, firstName, lastName, age, join, baseFee, sessions, perSession);
-                    break;
-                case "PREMIUM":
-                    boolean spa = parseBooleanSafe(safe(cols, 9));
-                    double premium = parseDoubleSafe(safe(cols, 10), 0.0);
-                    m = new PremiumMember(id, firstName, lastName, age, join, baseFee, spa, premium);
-                    break;
-                default:
-                    continue;
-            }
-                result.add(m);
+                Member m = parseMemberRow(line);
+                if (m != null) result.add(m);
             }
         }
         return result;
@@ -153,23 +91,142 @@ public class CsvStorage {
             String header = r.readLine(); // skip header
             String line;
             while ((line = r.readLine()) != null) {
-                String[] cols = splitCsv(line, 5); // expect 5 columns
+                Performance perf = parsePerformanceRow(line);
+                if (perf != null) result.add(perf);
+            }
+        }
+        return result;
+    }
 
-                if (cols.length < 4) continue;
+    // Lazily parsed members, one row at a time; close the stream (try-with-resources) to close the file.
+    // Rows are skipped and errors thrown exactly as in loadMembers, except that read errors
+    // after the header arrive as UncheckedIOException.
+    // Library API for callers that count, filter or export a file in constant memory: the
+    // application itself loads through ParsedFileCache and answers file queries with findMembers.
+    public Stream<Member> streamMembers(String filePath) throws IOException {
+        return streamRows(filePath, CsvStorage::parseMemberRow);
+    }
 
-                String memberId   = safe(cols, 0);
-                YearMonth month   = parseYearMonthSafe(safe(cols, 1));
-                boolean achieved  = parseBooleanSafe(safe(cols, 2));
-                int rating        = parseIntSafe(safe(cols, 3), 3);
-                String notes      = cols.length >= 5 ? unesc(safe(cols, 4)) : "";
+    // Lazily parsed performances, one row at a time; same contract as streamMembers
+    public Stream<Performance> streamPerformances(String filePath) throws IOException {
+        return streamRows(filePath, CsvStorage::parsePerformanceRow);
+    }
 
-                if (month == null) month = YearMonth.now();
+    private static <T> Stream<T> streamRows(String filePath, Function<String, T> rowParser) throws IOException {
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return Stream.empty();
+
+        BufferedReader r = Files.newBufferedReader(p);
+        try {
+            r.readLine(); // skip header
+        } catch (IOException e) {
+            r.close();
+            throw e;
+        }
+        return r.lines()
+                .map(rowParser)
+                .filter(Objects::nonNull)
+                .onClose(() -> {
+                    try {
+                        r.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
 
-                Performance perf = new Performance(memberId, month, achieved, rating, notes);
-                result.add(perf);
-            }
+    // Load members by parsing line-aligned chunks of the file on a pool of the given size
+    public List<Member> loadMembersParallel(String filePath, int threads) throws IOException {
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return new ArrayList<>();
+        return ParallelCsvLoader.load(p, threads, CsvStorage::parseMemberRow);
+    }
+
+    // Load performances by parsing line-aligned chunks of the file on a pool of the given size
+    public List<Performance> loadPerformancesParallel(String filePath, int threads) throws IOException {
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return new ArrayList<>();
+        return ParallelCsvLoader.load(p, threads, CsvStorage::parsePerformanceRow);
+    }
+
+    // Load members from a memory-mapped file, decoding fields straight from the bytes
+    public List<Member> loadMembersMapped(String filePath) throws IOException {
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return new ArrayList<>();
+        return MappedCsvParser.loadMembers(p);
+    }
+
+    // Load performances from a memory-mapped file, decoding fields straight from the bytes
+    public List<Performance> loadPerformancesMapped(String filePath) throws IOException {
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return new ArrayList<>();
+        return MappedCsvParser.loadPerformances(p);
+    }
+
+    // Members of the file that pass the filter, without loading the rest: rows are screened on
+    // their raw bytes and only possible matches are parsed. Rows the filter rejects are never
+    // parsed, so a malformed row that loadMembers would fail on only matters if it could match.
+    public List<Member> findMembers(String filePath, MemberFilter filter) throws IOException {
+        Objects.requireNonNull(filter, "filter");
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return new ArrayList<>();
+        return MappedCsvParser.findMembers(p, filter);
+    }
+
+    // Performances of the given members only (exact ID match, as attachPerformancesToMembers)
+    public List<Performance> loadPerformancesOf(String filePath, Collection<Member> members) throws IOException {
+        Path p = Paths.get(filePath);
+        if (!Files.exists(p)) return new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (Member m : members) ids.add(m.getMemberId());
+        return MappedCsvParser.loadPerformancesOf(p, ids);
+    }
+
+    // Parses one members.csv data row; returns null for rows that are skipped. May throw on a bad join date.
+    // Public for BatchCommands, whose add and update commands carry the same rows.
+    public static Member parseMemberRow(String line) {
+        String[] cols = splitCsv(line, 11); // expect 11 columns
+        if (cols.length < 6) return null;
+
+        String id        = safe(cols, 0);
+        String type      = safe(cols, 1).toUpperCase(Locale.ROOT).trim();
+        String firstName = unesc(safe(cols, 2));
+        String lastName  = unesc(safe(cols, 3));
+        int age          = parseIntSafe(safe(cols, 4), 0);
+        LocalDate join   = LocalDate.parse(safe(cols, 5));
+        double baseFee   = parseDoubleSafe(safe(cols, 6), 0.0);
+
+        switch (type) {
+        case "REGULAR":
+            return new RegularMember(id, firstName, lastName, age, join, baseFee);
+        case "PT":
+            int sessions = parseIntSafe(safe(cols, 7), 0);
+            double perSession = parseDoubleSafe(safe(cols, 8), 0.0);
+            return new PersonalTrainingMember(id, firstName, lastName, age, join, baseFee, sessions, perSession);
+        case "PREMIUM":
+            boolean spa = parseBooleanSafe(safe(cols, 9));
+            double premium = parseDoubleSafe(safe(cols, 10), 0.0);
+            return new PremiumMember(id, firstName, lastName, age, join, baseFee, spa, premium);
+        default:
+            return null;
         }
-        return result;
+    }
+
+    // Parses one performances.csv data row; returns null for rows that are skipped. Public as parseMemberRow
+    public static Performance parsePerformanceRow(String line) {
+        String[] cols = splitCsv(line, 5); // expect 5 columns
+
+        if (cols.length < 4) return null;
+
+        String memberId   = safe(cols, 0);
+        YearMonth month   = parseYearMonthSafe(safe(cols, 1));
+        boolean achieved  = parseBooleanSafe(safe(cols, 2));
+        int rating        = parseIntSafe(safe(cols, 3), 3);
+        String notes      = cols.length >= 5 ? unesc(safe(cols, 4)) : "";
+
+        if (month == null) month = YearMonth.now();
+
+        return new Performance(memberId, month, achieved, rating, notes);
     }
 
 
@@ -191,18 +248,7 @@ public class CsvStorage {
    
     }
 
-    private static String formatDouble(double d) {
-        return String.format(Locale.ROOT, "%.2f", d);
-    }
-
-   
-    private static String esc(String s) {
-        if (s == null) return "";
-        String v = s.replace("\"", "\"\"");
-        return "\"" + v + "\""; // wrap in quotes for safety
-    }
-
-    private static String unesc(String s) {
+    static String unesc(String s) {
         if (s == null) return "";
         s = s.trim();
         if (s.startsWith("\"") && s.endsWith("\"") && s.length() >= 2) {
@@ -243,29 +289,31 @@ public class CsvStorage {
         return idx >= 0 && idx < arr.length ? arr[idx] : "";
     }
 
-    private static int parseIntSafe(String s, int def) {
+    static int parseIntSafe(String s, int def) {
         try { return Integer.parseInt(s.trim()); } catch (Exception e) { return def; }
     }
 
-    private static double parseDoubleSafe(String s, double def) {
+    static double parseDoubleSafe(String s, double def) {
         try { return Double.parseDouble(s.trim()); } catch (Exception e) { return def; }
     }
 
-    private static boolean parseBooleanSafe(String s) {
+    // "true" or "yes" in any case; the batch convert command reads spaAccess the same way
+    public static boolean parseBooleanSafe(String s) {
         return "true".equalsIgnoreCase(s.trim()) || "yes".equalsIgnoreCase(s.trim());
     }
 
-    private static YearMonth parseYearMonthSafe(String s) {
+    static YearMonth parseYearMonthSafe(String s) {
         try { return YearMonth.parse(s.trim()); } catch (Exception e) { return null; }
     }
 
    //attaching performance to members
     public void attachPerformancesToMembers(List<Member> members, List<Performance> performances) {
-        Map<String, Member> map = members.stream()
-                .collect(Collectors.toMap(Member::getMemberId, m -> m, (a, b) -> a));
+        // exact-ID match as before; packed IDs are keyed by their int, so no ID strings are built
+        Map<Object, Member> map = members.stream()
+                .collect(Collectors.toMap(CsvStorage::exactKey, m -> m, (a, b) -> a));
 
         for (Performance p : performances) {
-            Member m = map.get(p.getMemberId());
+            Member m = map.get(exactKey(p));
             if (m != null) {
                 m.addOrReplacePerformance(p);
             }
@@ -281,40 +329,10 @@ public class CsvStorage {
                     "sessionsPerMonth,feePerSession,spaAccess,premiumServiceFee");
             w.newLine();
 
+            CsvRowWriter row = new CsvRowWriter();
             for (Member m : members) {
-                String type;
-                String sessions = "";
-                String feePerSession = "";
-                String spaAccess = "";
-                String premiumFee = "";
-
-                if (m instanceof RegularMember) {
-                    type = "REGULAR";
-                } else if (m instanceof PersonalTrainingMember pt) {
-                    type = "PT";
-                    sessions = String.valueOf(pt.getSessionsPerMonth());
-                    feePerSession = formatDouble(pt.getFeePerSession());
-                } else if (m instanceof PremiumMember pm) {
-                    type = "PREMIUM";
-                    spaAccess = String.valueOf(pm.hasSpaAccess());
-                    premiumFee = formatDouble(pm.getPremiumServiceFee());
-                } else {
-                    continue;
-                }
-
-                w.write(String.join(",",
-                        m.getMemberId(),
-                        type,
-                        esc(m.getFirstName()),
-                        esc(m.getLastName()),
-                        String.valueOf(m.getAge()),
-                        m.getJoinDate().toString(),
-                        formatDouble(m.getBaseFee()),
-                        sessions,
-                        feePerSession,
-                        spaAccess,
-                        premiumFee
-                ));
+                if (!row.member(m)) continue; // unknown subtype
+                row.writeTo(w);
                 w.newLine();
             }
         }
@@ -330,14 +348,10 @@ public class CsvStorage {
             w.write("memberId,month,goalAchieved,rating,notes");
             w.newLine();
 
+            CsvRowWriter row = new CsvRowWriter();
             for (Performance p : performances) {
-                w.write(String.join(",",
-                        p.getMemberId(),
-                        p.getMonth().toString(),                // YYYY-MM
-                        String.valueOf(p.getGoalAchieved()),
-                        String.valueOf(p.getRating()),
-                        esc(p.getNotes())
-                ));
+                row.performance(p);
+                row.writeTo(w);
                 w.newLine();
             }
         }
@@ -353,7 +367,30 @@ public class CsvStorage {
         return savePerformancesToFile(all, filePath);
     }
 
-    
+    // Formats one members.csv data row; returns null for subtypes the file cannot hold
+    static String memberRow(Member m) {
+        CsvRowWriter row = new CsvRowWriter();
+        return row.member(m) ? row.text() : null;
+    }
+
+    // Formats one performances.csv data row
+    static String performanceRow(Performance p) {
+        CsvRowWriter row = new CsvRowWriter();
+        row.performance(p);
+        return row.text();
+    }
+
+    // Integer for packed IDs, the ID text otherwise; the two can never be equal
+    private static Object exactKey(Member m) {
+        long packed = m.getPackedId();
+        return packed != MemberId.NOT_PACKED ? Integer.valueOf((int) packed) : m.getMemberId();
+    }
+
+    private static Object exactKey(Performance p) {
+        long packed = p.getPackedMemberId();
+        return packed != MemberId.NOT_PACKED ? Integer.valueOf((int) packed) : p.getMemberId();
+    }
+
     private Path resolveTarget(String filePath) throws IOException {
         Path target = Paths.get(filePath);
         Path parent = target.getParent();
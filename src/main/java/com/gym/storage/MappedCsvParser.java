@@ -0,0 +1,491 @@
+package com.gym.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Parses members.csv and performances.csv straight from a memory-mapped file.
+// Fields are located by byte offset and numbers, dates and months are decoded from the bytes,
+// so the only objects built per row are the ID, name and notes strings and the row itself.
+// Rows the fast path cannot prove it reads the same way as CsvStorage (escaped quotes,
+// non-ASCII outside names and notes, unusual dates) are decoded and handed to the
+// String-based row parser instead, so the result always matches loadMembers/loadPerformances.
+final class MappedCsvParser {
+
+    // Largest region mapped at once; regions end on a line boundary
+    private static final long WINDOW_BYTES = 256L << 20;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private MappedCsvParser() {}
+
+    static List<Member> loadMembers(Path file) throws IOException {
+        List<Member> result = new ArrayList<>();
+        Row row = new Row();
+        forEachDataLine(file, (buf, start, end) -> {
+            Member m = parseMember(row.split(buf, start, end));
+            if (m != null) result.add(m);
+        });
+        return result;
+    }
+
+    static List<Performance> loadPerformances(Path file) throws IOException {
+        List<Performance> result = new ArrayList<>();
+        Row row = new Row();
+        forEachDataLine(file, (buf, start, end) -> {
+            Performance p = parsePerformance(row.split(buf, start, end));
+            if (p != null) result.add(p);
+        });
+        return result;
+    }
+
+    // Members passing the filter. Each row is first screened on its raw bytes; only rows that
+    // may match are parsed, and the filter's exact test has the final word
+    static List<Member> findMembers(Path file, MemberFilter filter) throws IOException {
+        List<Member> result = new ArrayList<>();
+        Row row = new Row();
+        forEachDataLine(file, (buf, start, end) -> {
+            if (!mayMatch(row.split(buf, start, end), filter)) return;
+            Member m = parseMember(row);
+            if (m != null && filter.test(m)) result.add(m);
+        });
+        return result;
+    }
+
+    // Performances whose member ID is exactly one of the given IDs; other rows are never parsed.
+    // A few ASCII IDs are compared against the leading bytes of each line, before it is split.
+    static List<Performance> loadPerformancesOf(Path file, Set<String> memberIds) throws IOException {
+        List<Performance> result = new ArrayList<>();
+        if (memberIds.isEmpty()) return result;
+        byte[][] wanted = null;
+        if (memberIds.size() <= 16 && memberIds.stream().allMatch(MappedCsvParser::isAscii)) {
+            wanted = memberIds.stream().map(id -> id.getBytes(StandardCharsets.ISO_8859_1)).toArray(byte[][]::new);
+        }
+        byte[][] ids = wanted;
+        Row row = new Row();
+        forEachDataLine(file, (buf, start, end) -> {
+            if (ids != null && !leadingFieldMayBe(buf, start, end, ids)) return;
+            row.split(buf, start, end);
+            if (row.simple && (row.count < 4 || !memberIds.contains(row.rawText(0)))) return;
+            Performance p = parsePerformance(row);
+            if (p != null && memberIds.contains(p.getMemberId())) result.add(p);
+        });
+        return result;
+    }
+
+    // False only when the line's first field is unquoted, ASCII and none of the IDs
+    private static boolean leadingFieldMayBe(ByteBuffer buf, int start, int end, byte[][] ids) {
+        int e = start;
+        while (e < end && buf.get(e) != ',') {
+            byte b = buf.get(e);
+            if (b == '"' || b < 0) return true; // leave quoting and non-ASCII to the row parser
+            e++;
+        }
+        int n = e - start;
+        for (byte[] id : ids) {
+            if (id.length != n) continue;
+            int k = 0;
+            while (k < n && buf.get(start + k) == id[k]) k++;
+            if (k == n) return true;
+        }
+        return false;
+    }
+
+    // False only when the row certainly fails the filter. Checks that would need the
+    // String parser's rules (escaped quotes, non-ASCII text, unusual dates) pass the row on.
+    static boolean mayMatch(Row r, MemberFilter f) throws IOException {
+        if (!r.simple) return true;
+        if (r.count < 6) return false; // parseMember skips it anyway
+
+        String id = f.id();
+        if (id != null && r.ascii[0] && isAscii(id) && !r.equalsIgnoreCase(0, id)) return false;
+
+        int types = f.types();
+        if (types != 0
+                && !((types & MemberFilter.REGULAR) != 0 && r.typeIs(1, "REGULAR"))
+                && !((types & MemberFilter.PT) != 0 && r.typeIs(1, "PT"))
+                && !((types & MemberFilter.PREMIUM) != 0 && r.typeIs(1, "PREMIUM"))) {
+            return false;
+        }
+
+        if (f.joinFrom() != null) {
+            LocalDate join = r.date(5);
+            if (join != null && (join.isBefore(f.joinFrom()) || join.isAfter(f.joinTo()))) return false;
+        }
+
+        String name = f.nameContains();
+        if (name != null && r.ascii[2] && r.ascii[3] && isAscii(name) && !r.namesContain(name)) return false;
+        return true;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    // Same column rules as CsvStorage.parseMemberRow
+    static Member parseMember(Row r) throws IOException {
+        if (!r.simple) return CsvStorage.parseMemberRow(r.line());
+        if (r.count < 6) return null;
+
+        LocalDate join = r.date(5);
+        if (join == null) return CsvStorage.parseMemberRow(r.line()); // let LocalDate.parse decide
+
+        String id        = r.rawText(0);
+        String firstName = r.trimmedText(2);
+        String lastName  = r.trimmedText(3);
+        int age          = r.intValue(4, 0);
+        double baseFee   = r.doubleValue(6, 0.0);
+
+        if (r.typeIs(1, "REGULAR")) {
+            return new RegularMember(id, firstName, lastName, age, join, baseFee);
+        } else if (r.typeIs(1, "PT")) {
+            return new PersonalTrainingMember(id, firstName, lastName, age, join, baseFee,
+                    r.intValue(7, 0), r.doubleValue(8, 0.0));
+        } else if (r.typeIs(1, "PREMIUM")) {
+            return new PremiumMember(id, firstName, lastName, age, join, baseFee,
+                    r.booleanValue(9), r.doubleValue(10, 0.0));
+        }
+        return null;
+    }
+
+    // Same column rules as CsvStorage.parsePerformanceRow
+    static Performance parsePerformance(Row r) throws IOException {
+        if (!r.simple) return CsvStorage.parsePerformanceRow(r.line());
+        if (r.count < 4) return null;
+
+        String memberId  = r.rawText(0);
+        YearMonth month  = r.yearMonth(1);
+        boolean achieved = r.booleanValue(2);
+        int rating       = r.intValue(3, 3);
+        String notes     = r.count >= 5 ? r.trimmedText(4) : "";
+
+        if (month == null) month = YearMonth.now();
+
+        return new Performance(memberId, month, achieved, rating, notes);
+    }
+
+    interface LineHandler {
+        void line(ByteBuffer buf, int start, int end) throws IOException;
+    }
+
+    // Maps the file window by window and reports every line after the header.
+    // Lines end at '\n', '\r' or "\r\n", as in BufferedReader.readLine.
+    static void forEachDataLine(Path file, LineHandler handler) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long pos = 0;
+            boolean header = true;
+            while (pos < size) {
+                long length = Math.min(WINDOW_BYTES, size - pos);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, length);
+                int limit = (int) length;
+                if (pos + length < size) {
+                    // stop after the last '\n' so no line is cut in two
+                    while (limit > 0 && buf.get(limit - 1) != '\n') limit--;
+                    if (limit == 0) throw new IOException("Line longer than " + WINDOW_BYTES + " bytes in " + file);
+                }
+
+                int i = 0;
+                while (i < limit) {
+                    int start = i;
+                    while (i < limit && buf.get(i) != '\n' && buf.get(i) != '\r') i++;
+                    int end = i;
+                    if (i < limit && buf.get(i++) == '\r' && i < limit && buf.get(i) == '\n') i++;
+
+                    if (header) {
+                        header = false;
+                        continue;
+                    }
+                    handler.line(buf, start, end);
+                }
+                pos += limit;
+            }
+        }
+    }
+
+    // One line split into fields; reused for every row of a file
+    static final class Row {
+        private ByteBuffer buf;
+        private int lineStart;
+        private int lineEnd;
+        // start/end byte offsets of each field, quotes already stripped
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] ascii = new boolean[16];
+        int count;
+        // false when a quote appears anywhere but around a whole field
+        boolean simple;
+
+        Row split(ByteBuffer buf, int start, int end) {
+            this.buf = buf;
+            this.lineStart = start;
+            this.lineEnd = end;
+            this.count = 0;
+            this.simple = true;
+
+            int i = start;
+            while (true) {
+                if (count == starts.length) grow();
+                int fieldStart = i;
+                boolean quoted = i < end && buf.get(i) == '"';
+                boolean plain = true;
+                if (quoted) {
+                    i++;
+                    while (i < end && buf.get(i) != '"') {
+                        if (buf.get(i) < 0) plain = false;
+                        i++;
+                    }
+                    if (i == end || (i + 1 < end && buf.get(i + 1) != ',')) {
+                        simple = false; // unterminated, "" escape or text after the closing quote
+                        return this;
+                    }
+                    starts[count] = fieldStart + 1;
+                    ends[count] = i;
+                    i++; // closing quote
+                } else {
+                    while (i < end && buf.get(i) != ',') {
+                        byte b = buf.get(i);
+                        if (b == '"') {
+                            simple = false;
+                            return this;
+                        }
+                        if (b < 0) plain = false;
+                        i++;
+                    }
+                    starts[count] = fieldStart;
+                    ends[count] = i;
+                }
+                ascii[count++] = plain;
+                if (i >= end) return this;
+                i++; // comma
+            }
+        }
+
+        private void grow() {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+            ends = Arrays.copyOf(ends, ends.length * 2);
+            ascii = Arrays.copyOf(ascii, ascii.length * 2);
+        }
+
+        // The whole line as CsvStorage would have read it
+        String line() throws IOException {
+            return decode(lineStart, lineEnd);
+        }
+
+        // Field text exactly as split, like safe(cols, i)
+        String rawText(int i) throws IOException {
+            if (i >= count) return "";
+            return decode(starts[i], ends[i]);
+        }
+
+        // Field text with surrounding whitespace removed, like unesc(safe(cols, i))
+        String trimmedText(int i) throws IOException {
+            if (i >= count) return "";
+            int s = starts[i], e = ends[i];
+            while (s < e && (buf.get(s) & 0xff) <= ' ') s++;
+            while (e > s && (buf.get(e - 1) & 0xff) <= ' ') e--;
+            return decode(s, e);
+        }
+
+        // Case-insensitive, whitespace-trimmed comparison against an upper-case ASCII word
+        boolean typeIs(int i, String word) throws IOException {
+            if (i >= count) return false;
+            if (!ascii[i]) return rawText(i).toUpperCase(Locale.ROOT).trim().equals(word);
+            int s = starts[i], e = ends[i];
+            while (s < e && buf.get(s) <= ' ') s++;
+            while (e > s && buf.get(e - 1) <= ' ') e--;
+            if (e - s != word.length()) return false;
+            for (int k = 0; k < word.length(); k++) {
+                int c = buf.get(s + k);
+                if (c >= 'a' && c <= 'z') c -= 32;
+                if (c != word.charAt(k)) return false;
+            }
+            return true;
+        }
+
+        // Untrimmed ASCII field equals the ASCII text ignoring case, as MemberId.key compares IDs
+        boolean equalsIgnoreCase(int i, String text) {
+            int s = starts[i], e = ends[i];
+            if (e - s != text.length()) return false;
+            for (int k = 0; k < text.length(); k++) {
+                int c = buf.get(s + k);
+                int t = text.charAt(k);
+                if (c >= 'A' && c <= 'Z') c += 32;
+                if (t >= 'A' && t <= 'Z') t += 32;
+                if (c != t) return false;
+            }
+            return true;
+        }
+
+        // Whether trimmed "first last" (fields 2 and 3, ASCII) contains the lower-case ASCII text,
+        // ignoring case
+        boolean namesContain(String lower) {
+            int s2 = starts[2], e2 = ends[2], s3 = starts[3], e3 = ends[3];
+            while (s2 < e2 && buf.get(s2) <= ' ') s2++;
+            while (e2 > s2 && buf.get(e2 - 1) <= ' ') e2--;
+            while (s3 < e3 && buf.get(s3) <= ' ') s3++;
+            while (e3 > s3 && buf.get(e3 - 1) <= ' ') e3--;
+            int firstLength = e2 - s2;
+            int total = firstLength + 1 + (e3 - s3);
+            for (int from = 0; from + lower.length() <= total; from++) {
+                int k = 0;
+                for (; k < lower.length(); k++) {
+                    int at = from + k;
+                    int c = at < firstLength ? buf.get(s2 + at) : at == firstLength ? ' ' : buf.get(s3 + at - firstLength - 1);
+                    if (c >= 'A' && c <= 'Z') c += 32;
+                    if (c != lower.charAt(k)) break;
+                }
+                if (k == lower.length()) return true;
+            }
+            return false;
+        }
+
+        int intValue(int i, int def) throws IOException {
+            if (i >= count) return def;
+            if (!ascii[i]) return CsvStorage.parseIntSafe(rawText(i), def);
+            int s = starts[i], e = ends[i];
+            while (s < e && buf.get(s) <= ' ') s++;
+            while (e > s && buf.get(e - 1) <= ' ') e--;
+
+            boolean neg = false;
+            if (s < e && (buf.get(s) == '-' || buf.get(s) == '+')) neg = buf.get(s++) == '-';
+            if (e == s || e - s > 9) return CsvStorage.parseIntSafe(rawText(i), def); // empty or may overflow
+            int v = 0;
+            for (int k = s; k < e; k++) {
+                int d = buf.get(k) - '0';
+                if (d < 0 || d > 9) return def;
+                v = v * 10 + d;
+            }
+            return neg ? -v : v;
+        }
+
+        // Plain decimals up to 15 digits are exact as mantissa / 10^scale; anything else goes to Double.parseDouble
+        double doubleValue(int i, double def) throws IOException {
+            if (i >= count) return def;
+            if (!ascii[i]) return CsvStorage.parseDoubleSafe(rawText(i), def);
+            int s = starts[i], e = ends[i];
+            while (s < e && buf.get(s) <= ' ') s++;
+            while (e > s && buf.get(e - 1) <= ' ') e--;
+            if (s == e) return def;
+
+            int k = s;
+            boolean neg = false;
+            if (buf.get(k) == '-' || buf.get(k) == '+') neg = buf.get(k++) == '-';
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1; // digits after the point, -1 before it is seen
+            for (; k < e; k++) {
+                int c = buf.get(k);
+                if (c == '.' && scale < 0) {
+                    scale = 0;
+                } else if (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (scale >= 0) scale++;
+                } else {
+                    return CsvStorage.parseDoubleSafe(rawText(i), def); // exponent, suffix, NaN, ...
+                }
+            }
+            if (digits == 0) return CsvStorage.parseDoubleSafe(rawText(i), def);
+            if (digits > 15) return CsvStorage.parseDoubleSafe(rawText(i), def);
+            double v = mantissa / POW10[Math.max(scale, 0)];
+            return neg ? -v : v;
+        }
+
+        boolean booleanValue(int i) throws IOException {
+            if (i >= count) return false;
+            if (!ascii[i]) return CsvStorage.parseBooleanSafe(rawText(i));
+            int s = starts[i], e = ends[i];
+            while (s < e && buf.get(s) <= ' ') s++;
+            while (e > s && buf.get(e - 1) <= ' ') e--;
+            return matchesIgnoreCase(s, e, "true") || matchesIgnoreCase(s, e, "yes");
+        }
+
+        // yyyy-MM after trimming, otherwise whatever parseYearMonthSafe makes of the text
+        YearMonth yearMonth(int i) throws IOException {
+            if (i >= count) return CsvStorage.parseYearMonthSafe("");
+            int s = starts[i], e = ends[i];
+            while (s < e && (buf.get(s) & 0xff) <= ' ') s++;
+            while (e > s && (buf.get(e - 1) & 0xff) <= ' ') e--;
+            if (ascii[i] && e - s == 7 && buf.get(s + 4) == '-') {
+                int year = digits(s, 4);
+                int month = digits(s + 5, 2);
+                if (year >= 0 && month >= 1 && month <= 12) return YearMonth.of(year, month);
+            }
+            return CsvStorage.parseYearMonthSafe(rawText(i));
+        }
+
+        // yyyy-MM-dd with no surrounding whitespace, or null when LocalDate.parse should decide
+        LocalDate date(int i) {
+            int s = starts[i], e = ends[i];
+            if (!ascii[i] || e - s != 10 || buf.get(s + 4) != '-' || buf.get(s + 7) != '-') return null;
+            int year = digits(s, 4);
+            int month = digits(s + 5, 2);
+            int day = digits(s + 8, 2);
+            if (year < 0 || month < 0 || day < 0) return null;
+            try {
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException e1) {
+                return null;
+            }
+        }
+
+        private int digits(int at, int n) {
+            int v = 0;
+            for (int k = at; k < at + n; k++) {
+                int d = buf.get(k) - '0';
+                if (d < 0 || d > 9) return -1;
+                v = v * 10 + d;
+            }
+            return v;
+        }
+
+        private boolean matchesIgnoreCase(int s, int e, String word) {
+            if (e - s != word.length()) return false;
+            for (int k = 0; k < word.length(); k++) {
+                int c = buf.get(s + k);
+                if (c >= 'A' && c <= 'Z') c += 32;
+                if (c != word.charAt(k)) return false;
+            }
+            return true;
+        }
+
+        // ASCII is copied byte for byte; anything else goes through a strict UTF-8 decoder,
+        // which fails on malformed input the same way Files.newBufferedReader does
+        private String decode(int s, int e) throws IOException {
+            int n = e - s;
+            if (n == 0) return "";
+            byte[] bytes = new byte[n];
+            buf.get(s, bytes);
+            for (byte b : bytes) {
+                if (b < 0) {
+                    return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+                }
+            }
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
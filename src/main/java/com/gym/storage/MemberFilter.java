@@ -0,0 +1,81 @@
+package com.gym.storage;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+
+import com.gym.model.Member;
+import com.gym.model.MemberId;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Row filter for CsvStorage.findMembers. Predicates combine with AND; an empty filter matches
+// every row. They follow MemberRepository's rules: IDs match case-insensitively and the name
+// test is a case-insensitive substring of "first last". The join-date range is inclusive.
+public final class MemberFilter {
+
+	static final int REGULAR = 1;
+	static final int PT = 2;
+	static final int PREMIUM = 4;
+
+	private String id;
+	private Object idKey;
+	private String nameContains;
+	private int types;
+	private LocalDate joinFrom, joinTo;
+
+	public MemberFilter idEquals(String memberId) {
+		this.id = Objects.requireNonNull(memberId, "memberId");
+		this.idKey = MemberId.key(memberId);
+		return this;
+	}
+
+	public MemberFilter nameContains(String text) {
+		this.nameContains = Objects.requireNonNull(text, "text").toLowerCase(Locale.ROOT);
+		return this;
+	}
+
+	// Restricts to the given subtypes; repeated calls widen the set
+	@SafeVarargs
+	public final MemberFilter ofType(Class<? extends Member>... types) {
+		for (Class<? extends Member> t : types) {
+			if (t == RegularMember.class) this.types |= REGULAR;
+			else if (t == PersonalTrainingMember.class) this.types |= PT;
+			else if (t == PremiumMember.class) this.types |= PREMIUM;
+			else throw new IllegalArgumentException("Not a stored member type: " + t.getName());
+		}
+		return this;
+	}
+
+	public MemberFilter joinedBetween(LocalDate from, LocalDate to) {
+		this.joinFrom = Objects.requireNonNull(from, "from");
+		this.joinTo = Objects.requireNonNull(to, "to");
+		return this;
+	}
+
+	// The exact test, applied to each member the raw-byte checks could not rule out
+	public boolean test(Member m) {
+		if (idKey != null && !idKey.equals(MemberId.key(m))) return false;
+		if (nameContains != null
+				&& !(m.getFirstName() + " " + m.getLastName()).toLowerCase(Locale.ROOT).contains(nameContains)) {
+			return false;
+		}
+		if (types != 0 && (types & typeBit(m)) == 0) return false;
+		if (joinFrom != null && (m.getJoinDate().isBefore(joinFrom) || m.getJoinDate().isAfter(joinTo))) return false;
+		return true;
+	}
+
+	String id()            { return id; }
+	String nameContains()  { return nameContains; }
+	int types()            { return types; }
+	LocalDate joinFrom()   { return joinFrom; }
+	LocalDate joinTo()     { return joinTo; }
+
+	private static int typeBit(Member m) {
+		if (m instanceof RegularMember) return REGULAR;
+		if (m instanceof PersonalTrainingMember) return PT;
+		if (m instanceof PremiumMember) return PREMIUM;
+		return 0;
+	}
+}
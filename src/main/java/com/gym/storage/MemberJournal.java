@@ -0,0 +1,216 @@
+package com.gym.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.repository.MemberRepository;
+
+// Append-only log of repository changes made since the last CSV snapshot.
+// Each change costs one short line instead of a rewrite of both CSV files:
+//   M,<members.csv row>       member added or replaced
+//   D,<member id>             member deleted
+//   P,<performances.csv row>  performance added or replaced
+// Line breaks and backslashes inside a record are written as \n, \r and \\, so a record is
+// always exactly one line. Every record is forced to disk before the change is reported saved.
+// Recovery loads the snapshot and replays the log; a checkpoint writes a fresh
+// snapshot and empties the log. Safe to share between threads: records are appended one at a time.
+public class MemberJournal implements Closeable {
+
+    private final CsvStorage storage;
+    private final Path journalFile;
+    private final String membersFile;
+    private final String performancesFile;
+    // number of records after which checkpointDue() turns true
+    private final int checkpointEvery;
+
+    private FileChannel out;
+    private int records;
+    // false until recover() succeeds: appending after, or checkpointing over, a log that could
+    // not be replayed would lose the records in it
+    private boolean recovered;
+
+    public MemberJournal(CsvStorage storage, String journalFile, String membersFile,
+                         String performancesFile, int checkpointEvery) {
+        this.storage = storage;
+        this.journalFile = Paths.get(journalFile);
+        this.membersFile = membersFile;
+        this.performancesFile = performancesFile;
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    // Loads the snapshot into the repository, replays the log on top and opens it for appending.
+    // Only a cut-off last record is skipped; any other record that cannot be replayed fails
+    // recovery with the repository and the log left as they were.
+    public synchronized int recover(MemberRepository repo) throws IOException {
+        List<Consumer<MemberRepository>> changes = new ArrayList<>();
+        if (Files.exists(journalFile)) {
+            // only newline-terminated records are complete; a crash can leave a cut-off tail
+            // that still parses (a rating of 45 cut to 4), so everything after the last newline is dropped
+            byte[] bytes = Files.readAllBytes(journalFile);
+            int end = bytes.length;
+            while (end > 0 && bytes[end - 1] != '\n') end--;
+            String log = new String(bytes, 0, end, StandardCharsets.UTF_8);
+            int start = 0;
+            int nl;
+            while ((nl = log.indexOf('\n', start)) >= 0) {
+                int lineEnd = nl > start && log.charAt(nl - 1) == '\r' ? nl - 1 : nl;
+                Consumer<MemberRepository> change = parse(unescape(log.substring(start, lineEnd)));
+                if (change == null) {
+                    throw new IOException("Bad record " + (changes.size() + 1) + " in " + journalFile
+                            + "; the log was left as it is");
+                }
+                changes.add(change);
+                start = nl + 1;
+            }
+        }
+
+        List<Member> members = storage.loadMembers(membersFile);
+        storage.attachPerformancesToMembers(members, storage.loadPerformances(performancesFile));
+        repo.replaceAllMembers(members);
+        for (Consumer<MemberRepository> change : changes) change.accept(repo);
+        recovered = true;
+        if (Files.exists(journalFile)) {
+            // fold the replayed log into the snapshot so new records never follow a torn one
+            checkpoint(repo);
+        } else {
+            open();
+        }
+        return changes.size();
+    }
+
+    public synchronized void memberSaved(Member m) throws IOException {
+        String row = CsvStorage.memberRow(m);
+        if (row != null) append("M," + row);
+    }
+
+    public synchronized void memberDeleted(String memberId) throws IOException {
+        append("D," + memberId);
+    }
+
+    public synchronized void performanceSaved(Performance p) throws IOException {
+        append("P," + CsvStorage.performanceRow(p));
+    }
+
+    public synchronized boolean checkpointDue() {
+        return records >= checkpointEvery;
+    }
+
+    // Writes the whole repository as a new snapshot, then starts an empty log.
+    // The snapshot is on disk before the log is deleted, so a crash in between only replays twice.
+    // Histories are copied under the repository's read lock, as other threads may be recording.
+    public synchronized void checkpoint(MemberRepository repo) throws IOException {
+        checkRecovered();
+        List<Performance> performances = new ArrayList<>();
+        List<Member> all = repo.readAll(members -> {
+            for (Member m : members) performances.addAll(m.getPerformanceHistory());
+            return members;
+        });
+        AtomicFiles.replace(membersFile, path -> storage.saveMembersToFile(all, path));
+        AtomicFiles.replace(performancesFile, path -> storage.savePerformancesToFile(performances, path));
+
+        close();
+        Files.deleteIfExists(journalFile);
+        records = 0;
+        open();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void append(String record) throws IOException {
+        checkRecovered();
+        if (out == null) open();
+        ByteBuffer bytes = ByteBuffer.wrap((escape(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) out.write(bytes);
+        out.force(false);
+        records++;
+    }
+
+    private void checkRecovered() throws IOException {
+        if (!recovered) throw new IOException("Journal " + journalFile + " has not been recovered");
+    }
+
+    private void open() throws IOException {
+        Path parent = journalFile.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        out = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static String escape(String record) {
+        if (record.indexOf('\\') < 0 && record.indexOf('\n') < 0 && record.indexOf('\r') < 0) return record;
+        StringBuilder sb = new StringBuilder(record.length() + 8);
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            switch (c) {
+            case '\\': sb.append("\\\\"); break;
+            case '\n': sb.append("\\n"); break;
+            case '\r': sb.append("\\r"); break;
+            default:   sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // A backslash before anything else is kept as it is, as logs written before escaping have them
+    private static String unescape(String line) {
+        if (line.indexOf('\\') < 0) return line;
+        StringBuilder sb = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            char next = i + 1 < line.length() ? line.charAt(i + 1) : 0;
+            if (c == '\\' && (next == '\\' || next == 'n' || next == 'r')) {
+                sb.append(next == 'n' ? '\n' : next == 'r' ? '\r' : '\\');
+                i++;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // The change one record stands for; null when the line is not a valid record
+    private static Consumer<MemberRepository> parse(String line) {
+        if (line.length() < 2 || line.charAt(1) != ',') return null;
+        String body = line.substring(2);
+        try {
+            switch (line.charAt(0)) {
+            case 'M': {
+                Member m = CsvStorage.parseMemberRow(body);
+                if (m == null) return null;
+                // replaceMember carries over the old history, as the console does on updates
+                return repo -> {
+                    if (!repo.replaceMember(m.getMemberId(), m)) repo.addMember(m);
+                };
+            }
+            case 'D':
+                return repo -> repo.deleteMember(body);
+            case 'P': {
+                Performance p = CsvStorage.parsePerformanceRow(body);
+                if (p == null) return null;
+                return repo -> repo.recordPerformance(p.getMemberId(), p); // ignored when the member is gone
+            }
+            default:
+                return null;
+            }
+        } catch (RuntimeException e) {
+            return null; // e.g. a bad date
+        }
+    }
+}
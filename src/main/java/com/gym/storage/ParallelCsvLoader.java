@@ -0,0 +1,136 @@
+package com.gym.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// Splits a CSV file into byte ranges that start and end on line boundaries, parses the
+// ranges on a ForkJoinPool and concatenates the rows in file order.
+// Rows are lines exactly as BufferedReader.readLine sees them, so the result is the same
+// as the sequential loaders in CsvStorage (quoted commas are handled by the row parser).
+// ParallelLoadBenchmark measures it per pool size; compare with CsvLoadBenchmark's sequential loads.
+final class ParallelCsvLoader {
+
+    // Files smaller than this are not worth splitting
+    private static final long MIN_SPLIT_BYTES = 1 << 20;
+    // Upper bound per range so each fits in one byte array with room to spare
+    private static final long MAX_RANGE_BYTES = 64L << 20;
+
+    private ParallelCsvLoader() {}
+
+    static <T> List<T> load(Path file, int threads, Function<String, T> rowParser) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitOnLines(ch, threads);
+
+            List<Callable<List<T>>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                boolean skipHeader = i == 0;
+                tasks.add(() -> parseRange(ch, start, end, skipHeader, rowParser));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<T> result = new ArrayList<>();
+                for (Future<List<T>> f : pool.invokeAll(tasks)) {
+                    result.addAll(f.get()); // in file order
+                }
+                return result;
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + file, e);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Returns range boundaries: 0, then the offset just past a '\n' near each split point, then the size
+    private static long[] splitOnLines(FileChannel ch, int threads) throws IOException {
+        long size = ch.size();
+        int ranges = size < MIN_SPLIT_BYTES ? 1
+                : (int) Math.max(threads * 4L, (size + MAX_RANGE_BYTES - 1) / MAX_RANGE_BYTES);
+
+        long[] bounds = new long[ranges + 1];
+        int n = 0;
+        bounds[n++] = 0;
+        for (int i = 1; i < ranges; i++) {
+            long b = nextLineStart(ch, size / ranges * i, size);
+            if (b > bounds[n - 1] && b < size) bounds[n++] = b;
+        }
+        bounds[n++] = size;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    // First offset at or after pos that directly follows a '\n', or size if there is none
+    private static long nextLineStart(FileChannel ch, long pos, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        while (pos < size) {
+            buf.clear();
+            int read = ch.read(buf, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private static <T> List<T> parseRange(FileChannel ch, long start, long end, boolean skipHeader,
+                                          Function<String, T> rowParser) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+        while (bytes.hasRemaining()) {
+            if (ch.read(bytes, start + bytes.position()) < 0) break;
+        }
+        bytes.flip();
+        // strict decoder, like Files.newBufferedReader: malformed input is an error
+        CharBuffer text = StandardCharsets.UTF_8.newDecoder().decode(bytes);
+
+        List<T> rows = new ArrayList<>();
+        int len = text.length();
+        int i = 0;
+        boolean first = skipHeader;
+        while (i < len) {
+            // a line ends at '\n', '\r' or "\r\n", as in BufferedReader.readLine
+            int lineStart = i;
+            while (i < len && text.charAt(i) != '\n' && text.charAt(i) != '\r') i++;
+            String line = text.subSequence(lineStart, i).toString();
+            if (i < len && text.charAt(i++) == '\r' && i < len && text.charAt(i) == '\n') i++;
+
+            if (first) {
+                first = false; // header row
+                continue;
+            }
+            T row = rowParser.apply(line);
+            if (row != null) rows.add(row);
+        }
+        return rows;
+    }
+
+    private static IOException rethrow(Throwable cause) {
+        if (cause instanceof IOException io) return io;
+        if (cause instanceof UncheckedIOException uio) return uio.getCause();
+        if (cause instanceof RuntimeException re) throw re;
+        if (cause instanceof Error err) throw err;
+        return new IOException(cause);
+    }
+}
@@ -0,0 +1,165 @@
+package com.gym.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+
+// Remembers the result of parsing a members CSV (plus, optionally, its performances CSV) so that
+// reopening unchanged files costs a stat per file instead of a full parse.
+// Files are identified by real path, size, last-modified time and file key (the inode where the
+// platform has one); a file rewritten through AtomicFiles gets a new inode, so even a rewrite
+// within the same clock tick is seen. Parsed rosters are held as binary snapshot bytes and decoded
+// on every hit: callers always get fresh Member objects they are free to change, and the memory
+// budget is simply the sum of those byte arrays. Least recently used rosters are evicted first.
+// Safe to share between threads.
+public class ParsedFileCache {
+
+	private final CsvStorage storage;
+	private final long budgetBytes;
+	private final Map<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long usedBytes;
+	private long hits;
+	private long misses;
+
+	// What the two files looked like when they were parsed; performances is null when not attached
+	private static final class Key {
+		final Stat members;
+		final Stat performances;
+
+		Key(Stat members, Stat performances) {
+			this.members = members;
+			this.performances = performances;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key k = (Key) o;
+			return members.equals(k.members) && Objects.equals(performances, k.performances);
+		}
+
+		@Override
+		public int hashCode() {
+			return members.hashCode() * 31 + Objects.hashCode(performances);
+		}
+	}
+
+	private static final class Stat {
+		final Path path;
+		final long size;
+		final long modified;
+		final Object fileKey;
+
+		Stat(Path path, BasicFileAttributes attrs) {
+			this.path = path;
+			this.size = attrs.size();
+			this.modified = attrs.lastModifiedTime().toMillis();
+			this.fileKey = attrs.fileKey();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Stat)) return false;
+			Stat s = (Stat) o;
+			return size == s.size && modified == s.modified && path.equals(s.path) && Objects.equals(fileKey, s.fileKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return path.hashCode() * 31 + Long.hashCode(size);
+		}
+	}
+
+	public ParsedFileCache(CsvStorage storage, long budgetBytes) {
+		if (budgetBytes < 0) throw new IllegalArgumentException("budget must not be negative: " + budgetBytes);
+		this.storage = Objects.requireNonNull(storage, "storage");
+		this.budgetBytes = budgetBytes;
+	}
+
+	// Members from the CSV with the performances CSV attached, as loadMembers, loadPerformances and
+	// attachPerformancesToMembers would return them; performancesPath may be null to skip performances.
+	// Missing files are not cached, they just load as empty.
+	public List<Member> load(String membersPath, String performancesPath) throws IOException {
+		Key key = stat(membersPath, performancesPath);
+		if (key != null) {
+			byte[] cached;
+			synchronized (this) {
+				cached = entries.get(key);
+				if (cached != null) hits++;
+				else misses++;
+			}
+			if (cached != null) return BinarySnapshotStorage.decode(ByteBuffer.wrap(cached), key.members.path);
+		}
+
+		List<Member> members = parse(membersPath, performancesPath);
+		// only keep the result if neither file changed while it was being parsed
+		if (key != null && key.equals(stat(membersPath, performancesPath))) {
+			put(key, BinarySnapshotStorage.encode(members));
+		}
+		return members;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		usedBytes = 0;
+	}
+
+	public synchronized int size()          { return entries.size(); }
+	public synchronized long getUsedBytes() { return usedBytes; }
+	public long getBudgetBytes()            { return budgetBytes; }
+	public synchronized long getHits()      { return hits; }
+	public synchronized long getMisses()    { return misses; }
+
+	private List<Member> parse(String membersPath, String performancesPath) throws IOException {
+		List<Member> members = storage.loadMembers(membersPath);
+		if (performancesPath != null) {
+			List<Performance> perfs = storage.loadPerformances(performancesPath);
+			storage.attachPerformancesToMembers(members, perfs);
+		}
+		return members;
+	}
+
+	private synchronized void put(Key key, byte[] bytes) {
+		if (bytes.length > budgetBytes) return; // would evict everything and still not fit
+		byte[] old = entries.put(key, bytes);
+		if (old != null) usedBytes -= old.length;
+		usedBytes += bytes.length;
+		Iterator<byte[]> eldest = entries.values().iterator();
+		while (usedBytes > budgetBytes) {
+			usedBytes -= eldest.next().length;
+			eldest.remove();
+		}
+	}
+
+	// null when a file is missing or cannot be read
+	private static Key stat(String membersPath, String performancesPath) {
+		Stat members = stat(membersPath);
+		if (members == null) return null;
+		Stat perfs = null;
+		if (performancesPath != null) {
+			perfs = stat(performancesPath);
+			if (perfs == null) return null;
+		}
+		return new Key(members, perfs);
+	}
+
+	private static Stat stat(String filePath) {
+		try {
+			Path real = Paths.get(filePath).toRealPath();
+			return new Stat(real, Files.readAttributes(real, BasicFileAttributes.class));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
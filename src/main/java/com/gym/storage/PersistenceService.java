@@ -0,0 +1,175 @@
+package com.gym.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.repository.MemberRepository;
+
+// Writes the repository to the fixed CSV files on a background thread.
+// requestSave() only bumps a generation counter and returns; the writer takes the latest
+// repository snapshot, so any number of requests made while a write is running are
+// covered by the one write that follows it (group commit). Each file is replaced through
+// AtomicFiles, so a crash never leaves a truncated file behind. flush() is the barrier for
+// callers that need everything requested so far to be on disk. A failed write, whatever the
+// exception, is recorded against the requests it covered and the writer carries on.
+public class PersistenceService implements Closeable {
+
+    private final CsvStorage storage;
+    private final MemberRepository repo;
+    private final String membersFile;
+    private final String performancesFile;
+    private final Thread writer;
+
+    // guarded by this
+    private long requested;     // generation of the latest requestSave()
+    private long written;       // generation covered by the last finished write
+    private long writes;        // snapshot writes performed so far
+    private IOException failure; // outcome of the last finished write, null on success
+    // failed writes by the last generation they covered; back-to-back failures share one entry
+    private final TreeMap<Long, Failed> failed = new TreeMap<>();
+    private boolean closed;
+
+    // A failed write and the generations it covered, after 'from' up to its key
+    private static final class Failed {
+        final long from;
+        final IOException error;
+
+        Failed(long from, IOException error) {
+            this.from = from;
+            this.error = error;
+        }
+    }
+
+    public PersistenceService(CsvStorage storage, MemberRepository repo, String membersFile, String performancesFile) {
+        this.storage = storage;
+        this.repo = repo;
+        this.membersFile = membersFile;
+        this.performancesFile = performancesFile;
+        this.writer = new Thread(this::writeLoop, "member-persistence");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Schedules a write of the current repository contents; returns the generation to wait for
+    public synchronized long requestSave() {
+        if (closed) throw new IllegalStateException("Persistence service is closed");
+        requested++;
+        notifyAll();
+        return requested;
+    }
+
+    // Blocks until every save requested so far is durable; throws if the covering write failed
+    public void flush() throws IOException {
+        long generation;
+        synchronized (this) {
+            generation = requested;
+        }
+        await(generation);
+    }
+
+    // Blocks until the write covering the given generation has finished; throws if that write
+    // failed, even when a later one has succeeded since
+    public synchronized void await(long generation) throws IOException {
+        boolean interrupted = false;
+        while (written < generation) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        Map.Entry<Long, Failed> covering = failed.ceilingEntry(generation);
+        if (covering != null && covering.getValue().from < generation) throw covering.getValue().error;
+    }
+
+    // Failure of the most recent write, or null; cleared by the next successful one
+    public synchronized IOException getLastFailure() {
+        return failure;
+    }
+
+    public synchronized long getWriteCount() {
+        return writes;
+    }
+
+    // Flushes outstanding saves, then stops the writer thread
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            long generation;
+            synchronized (this) {
+                while (written == requested && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // only close() stops the writer
+                    }
+                }
+                if (written == requested) return; // closed and nothing pending
+                generation = requested;
+            }
+
+            IOException error = write();
+
+            synchronized (this) {
+                if (error != null) {
+                    long from = written;
+                    Map.Entry<Long, Failed> last = failed.lastEntry();
+                    if (last != null && last.getKey() == written) {
+                        from = last.getValue().from;
+                        failed.remove(last.getKey());
+                    }
+                    failed.put(generation, new Failed(from, error));
+                }
+                written = generation;
+                failure = error;
+                writes++;
+                notifyAll();
+            }
+        }
+    }
+
+    // The two files are replaced one after the other, as the synchronous save did.
+    // Histories are copied under the repository's read lock, so other threads recording
+    // performances never hand the writer a half-updated one; the files are written after.
+    // Runtime exceptions are returned as failures too: they must not end the writer thread,
+    // or flush() and close() would wait for it forever.
+    private IOException write() {
+        try {
+            List<Performance> performances = new ArrayList<>();
+            List<Member> all = repo.readAll(members -> {
+                for (Member m : members) performances.addAll(m.getPerformanceHistory());
+                return members;
+            });
+            AtomicFiles.replace(membersFile, path -> storage.saveMembersToFile(all, path));
+            AtomicFiles.replace(performancesFile, path -> storage.savePerformancesToFile(performances, path));
+            return null;
+        } catch (IOException e) {
+            return e;
+        } catch (RuntimeException e) {
+            return new IOException("Save failed: " + e, e);
+        }
+    }
+}
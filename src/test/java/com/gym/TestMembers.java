@@ -0,0 +1,83 @@
+package com.gym;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Members for tests in every package: plain ones for hand-checked cases, random ones of all
+// three types for rosters, and describe, which spells a member out in full so any lost or
+// rounded field shows up in a comparison
+public final class TestMembers {
+
+    public static final LocalDate JOIN = LocalDate.of(2022, 5, 1);
+
+    private static final String[] FIRST = {"Anna", "Bob", "Cleo", "Dan"};
+
+    private TestMembers() {}
+
+    // Regular member aged 30, joined on JOIN, paying 40.00
+    public static Member regular(String id, String firstName) {
+        return new RegularMember(id, firstName, "Smith", 30, JOIN, 40.0);
+    }
+
+    // A member of any type with random name, age, join date (within 400 days of JOIN) and fees; no history
+    public static Member random(String id, Random rnd) {
+        String first = FIRST[rnd.nextInt(FIRST.length)];
+        String last = "Smith " + rnd.nextInt(10);
+        int age = 18 + rnd.nextInt(50);
+        LocalDate join = JOIN.plusDays(rnd.nextInt(400));
+        double fee = 20 + rnd.nextInt(6000) / 100.0;
+        switch (rnd.nextInt(3)) {
+        case 0:  return new RegularMember(id, first, last, age, join, fee);
+        case 1:  return new PersonalTrainingMember(id, first, last, age, join, fee, rnd.nextInt(9), 17.5);
+        default: return new PremiumMember(id, first, last, age, join, fee, rnd.nextBoolean(), rnd.nextInt(3000) / 100.0);
+        }
+    }
+
+    // Gives the member a random record in about half of the months from..to, and returns it
+    public static Member withRecords(Member m, Random rnd, YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (rnd.nextBoolean()) {
+                m.addOrReplacePerformance(new Performance(m.getMemberId(), month, rnd.nextBoolean(), 1 + rnd.nextInt(5), ""));
+            }
+        }
+        return m;
+    }
+
+    // Class and every field, doubles in full precision, then the history
+    public static List<String> describe(List<Member> members) {
+        List<String> rows = new ArrayList<>();
+        for (Member m : members) {
+            StringBuilder sb = new StringBuilder(m.getClass().getSimpleName())
+                    .append('|').append(m.getMemberId()).append('|').append(m.getFirstName())
+                    .append('|').append(m.getLastName()).append('|').append(m.getAge())
+                    .append('|').append(m.getJoinDate()).append('|').append(m.getBaseFee());
+            if (m instanceof PersonalTrainingMember pt) {
+                sb.append('|').append(pt.getSessionsPerMonth()).append('|').append(pt.getFeePerSession());
+            }
+            if (m instanceof PremiumMember pm) {
+                sb.append('|').append(pm.hasSpaAccess()).append('|').append(pm.getPremiumServiceFee());
+            }
+            for (String record : history(m)) sb.append("|[").append(record).append(']');
+            rows.add(sb.toString());
+        }
+        return rows;
+    }
+
+    // One "memberId,month,goalAchieved,rating,notes" row per record, oldest month first
+    public static List<String> history(Member m) {
+        List<String> rows = new ArrayList<>();
+        for (Performance p : m.getPerformanceHistory()) {
+            rows.add(p.getMemberId() + "," + p.getMonth() + "," + p.getGoalAchieved() + "," + p.getRating() + "," + p.getNotes());
+        }
+        return rows;
+    }
+}
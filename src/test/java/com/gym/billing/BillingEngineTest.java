@@ -0,0 +1,155 @@
+package com.gym.billing;
+
+import static com.gym.TestMembers.JOIN;
+import static com.gym.TestMembers.random;
+import static com.gym.TestMembers.withRecords;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// A billing run must give, month by month and in roster order, each member's own
+// calculateMonthlyFee split into parts that add up to it, however the work is spread over cores
+public class BillingEngineTest {
+
+    private static final YearMonth FROM = YearMonth.of(2024, 1);
+    private static final YearMonth TO = YearMonth.of(2024, 3);
+
+    @TempDir
+    Path dir;
+
+    private final BillingEngine engine = new BillingEngine();
+
+    @Test
+    public void linesFollowMonthsThenRosterOrder() {
+        List<Member> members = roster(25_000, new Random(9));
+        BillingRun run = engine.run(members, FROM, TO);
+
+        assertEquals(FROM, run.getFrom());
+        assertEquals(TO, run.getTo());
+        assertEquals(3 * members.size(), run.getLines().size());
+        int i = 0;
+        for (YearMonth month = FROM; !month.isAfter(TO); month = month.plusMonths(1)) {
+            for (Member m : members) {
+                FeeLine line = run.getLines().get(i++);
+                assertEquals(m.getMemberId(), line.getMemberId());
+                assertEquals(month, line.getMonth());
+                assertEquals(FeeLine.typeOf(m), line.getMemberType());
+                assertEquals(m.calculateMonthlyFee(month), line.getTotal());
+            }
+        }
+    }
+
+    @Test
+    public void partsAddUpToTheFee() {
+        Member regular = new RegularMember("R1", "Ann", "Lee", 30, JOIN, 40.0);
+        Member pt = new PersonalTrainingMember("P1", "Bob", "Ng", 35, JOIN, 30.0, 4, 25.0);
+        Member premium = new PremiumMember("V1", "Cy", "Ito", 40, JOIN, 60.0, true, 15.0);
+        pt.addOrReplacePerformance(new Performance("P1", FROM, true, 5, "met"));
+        premium.addOrReplacePerformance(new Performance("V1", FROM, false, 2, "low"));
+        regular.addOrReplacePerformance(new Performance("R1", FROM, false, 3, "neither"));
+
+        List<FeeLine> lines = engine.run(List.of(regular, pt, premium), FROM).getLines();
+
+        assertLine(lines.get(0), 40.0, 0.0, 0.0, 0.0, 40.0);
+        assertLine(lines.get(1), 30.0, 100.0, 13.0, 0.0, 117.0);
+        assertLine(lines.get(2), 60.0, 15.0, 0.0, 10.0, 85.0);
+        for (Member m : roster(2_000, new Random(4))) {
+            FeeLine line = FeeLine.of(m, FROM);
+            assertEquals(line.getTotal(), line.getBase() + line.getExtras() - line.getDiscount() + line.getPenalty(), 1e-9,
+                    line.toString());
+        }
+    }
+
+    @Test
+    public void totalsMatchTheLines() {
+        List<Member> members = roster(5_000, new Random(11));
+        BillingRun run = engine.run(members, FROM, TO);
+
+        double regular = 0, pt = 0, premium = 0;
+        for (FeeLine line : run.getLines()) {
+            switch (line.getMemberType()) {
+            case "REGULAR": regular += line.getTotal(); break;
+            case "PT":      pt += line.getTotal(); break;
+            default:        premium += line.getTotal(); break;
+            }
+        }
+        Map<String, Double> totals = run.getTotalsByType();
+        assertEquals(List.of("REGULAR", "PT", "PREMIUM"), new ArrayList<>(totals.keySet()));
+        assertEquals(regular, totals.get("REGULAR"), 1e-6);
+        assertEquals(pt, totals.get("PT"), 1e-6);
+        assertEquals(premium, totals.get("PREMIUM"), 1e-6);
+        assertEquals(regular + pt + premium, run.getGrandTotal(), 1e-6);
+
+        BillingRun empty = engine.run(List.of(), FROM);
+        assertEquals(0.0, empty.getGrandTotal());
+        assertEquals(0.0, empty.getTotalsByType().get("PT"));
+    }
+
+    @Test
+    public void csvHasTheSameLinesAsARun() throws IOException {
+        // more members than one CSV batch, so several batches per month
+        List<Member> members = roster(23_456, new Random(2));
+        Path file = dir.resolve("out/bills.csv");
+
+        long written = engine.writeCsv(members, FROM, TO, file.toString());
+
+        List<String> expected = new ArrayList<>();
+        expected.add("memberId,type,month,base,extras,discount,penalty,total");
+        for (FeeLine l : engine.run(members, FROM, TO).getLines()) {
+            expected.add(String.join(",", l.getMemberId(), l.getMemberType(), l.getMonth().toString(),
+                    money(l.getBase()), money(l.getExtras()), money(l.getDiscount()), money(l.getPenalty()),
+                    money(l.getTotal())));
+        }
+        assertEquals(expected.size() - 1, written);
+        assertEquals(expected, Files.readAllLines(file));
+    }
+
+    @Test
+    public void rejectsBadRanges() {
+        List<Member> none = List.of();
+        assertThrows(IllegalArgumentException.class, () -> engine.run(none, TO, FROM));
+        assertThrows(NullPointerException.class, () -> engine.run(null, FROM));
+        assertThrows(NullPointerException.class, () -> engine.run(none, null, TO));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.writeCsv(none, TO, FROM, dir.resolve("x.csv").toString()));
+    }
+
+    private static void assertLine(FeeLine line, double base, double extras, double discount, double penalty, double total) {
+        assertEquals(base, line.getBase(), 1e-9, line.toString());
+        assertEquals(extras, line.getExtras(), 1e-9, line.toString());
+        assertEquals(discount, line.getDiscount(), 1e-9, line.toString());
+        assertEquals(penalty, line.getPenalty(), 1e-9, line.toString());
+        assertEquals(total, line.getTotal(), 1e-9, line.toString());
+    }
+
+    // all three types, with a goal met, a low rating or nothing recorded in each billed month
+    private static List<Member> roster(int size, Random rnd) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            members.add(withRecords(random(String.format("M%08x", i), rnd), rnd, FROM, TO));
+        }
+        return members;
+    }
+
+    private static String money(double d) {
+        return String.format(Locale.ROOT, "%.2f", d);
+    }
+}
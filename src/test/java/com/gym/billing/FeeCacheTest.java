@@ -0,0 +1,141 @@
+package com.gym.billing;
+
+import static com.gym.TestMembers.JOIN;
+import static com.gym.TestMembers.regular;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// A cached breakdown is only returned while the member's ID, type, fees and record for the month
+// are the ones it was computed from, whichever Member object carries them; anything else is a
+// miss that recomputes
+public class FeeCacheTest {
+
+    private static final YearMonth JAN = YearMonth.of(2024, 1);
+    private static final YearMonth FEB = YearMonth.of(2024, 2);
+
+    @Test
+    public void hitsUntilTheMemberIsReplaced() {
+        MemberRepository repo = new MemberRepository();
+        repo.addMember(regular("R1", "Ann"));
+        FeeCache cache = new FeeCache(10);
+
+        FeeLine first = cache.get(repo.findMemberById("R1"), JAN);
+        assertSame(first, cache.get(repo.findMemberById("r1"), JAN));
+        assertEquals(1, cache.getHits());
+
+        // converted to another type with a new fee, looked up by the same ID
+        repo.replaceMember("R1", new PremiumMember("R1", "Ann", "Lee", 30, JOIN, 60.0, true, 15.0));
+        FeeLine converted = cache.get(repo.findMemberById("R1"), JAN);
+        assertNotSame(first, converted);
+        assertEquals("PREMIUM", converted.getMemberType());
+        assertEquals(75.0, converted.getTotal(), 1e-9);
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(1, cache.size()); // the stale entry was dropped, not kept next to the new one
+
+        assertSame(converted, cache.get(repo.findMemberById("R1"), JAN));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void missesWhenTheMonthsRecordChanges() {
+        MemberRepository repo = new MemberRepository();
+        repo.addMember(regular("R1", "Ann"));
+        FeeCache cache = new FeeCache(10);
+        Member m = repo.findMemberById("R1");
+        FeeLine janNone = cache.get(m, JAN);
+        FeeLine febNone = cache.get(m, FEB);
+
+        repo.recordPerformance("R1", new Performance("R1", JAN, true, 5, ""));
+        FeeLine janMet = cache.get(m, JAN);
+        assertEquals(36.0, janMet.getTotal(), 1e-9);
+        assertSame(febNone, cache.get(m, FEB)); // other months are untouched
+
+        repo.recordPerformance("R1", new Performance("R1", JAN, false, 1, "")); // replaces January's
+        assertEquals(50.0, cache.get(m, JAN).getTotal(), 1e-9);
+
+        // changed directly on the member, without the repository: still seen
+        m.addOrReplacePerformance(new Performance("R1", JAN, false, 4, ""));
+        assertEquals(40.0, cache.get(m, JAN).getTotal(), 1e-9);
+
+        assertNotSame(janNone, janMet);
+        assertEquals(3, cache.getInvalidations());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsed() {
+        FeeCache cache = new FeeCache(2);
+        Member a = regular("A", "Ann");
+        Member b = regular("B", "Bob");
+        Member c = regular("C", "Cy");
+        FeeLine lineA = cache.get(a, JAN);
+        cache.get(b, JAN);
+        cache.get(a, JAN);   // A is now the most recently used
+        cache.get(c, JAN);   // evicts B
+
+        assertEquals(2, cache.size());
+        assertSame(lineA, cache.get(a, JAN));
+        long misses = cache.getMisses();
+        cache.get(b, JAN);
+        assertEquals(misses + 1, cache.getMisses());
+        assertEquals(0, cache.getInvalidations()); // evicted, not stale
+        assertThrows(IllegalArgumentException.class, () -> new FeeCache(0));
+    }
+
+    @Test
+    public void freshCopiesOfTheSameMemberHit() {
+        FeeCache cache = new FeeCache(10);
+        // what the file viewer does: every query parses new Member objects
+        FeeLine first = cache.get(premium("R1", 60.0, JAN), JAN);
+        assertSame(first, cache.get(premium("R1", 60.0, JAN), JAN));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        // new base fee, another ID spelling, no record: each one misses and replaces the entry
+        assertEquals(70.0 * 0.9 + 15.0 * 0.9, cache.get(premium("R1", 70.0, JAN), JAN).getTotal(), 1e-9);
+        assertEquals("r1", cache.get(premium("r1", 70.0, JAN), JAN).getMemberId());
+        assertEquals(85.0, cache.get(premium("r1", 70.0, null), JAN).getTotal(), 1e-9);
+        assertEquals(3, cache.getInvalidations());
+        assertEquals(1, cache.size());
+
+        // same fee from other extras: a PT member with the same ID is another type
+        Member pt = new PersonalTrainingMember("r1", "Ann", "Lee", 30, JOIN, 70.0, 1, 15.0);
+        assertEquals("PT", cache.get(pt, JAN).getMemberType());
+        assertEquals(4, cache.getInvalidations());
+    }
+
+    @Test
+    public void unknownMemberTypesAreNotCached() {
+        FeeCache cache = new FeeCache(10);
+        Member custom = new RegularMember("C1", "Ann", "Lee", 30, JOIN, 40.0) {
+            @Override
+            public double calculateMonthlyFee(YearMonth month) {
+                return 1.0; // rules of its own
+            }
+        };
+        assertEquals(1.0, cache.get(custom, JAN).getTotal());
+        assertEquals(1.0, cache.get(custom, JAN).getTotal());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+    }
+
+    private static Member premium(String id, double baseFee, YearMonth goalMet) {
+        Member m = new PremiumMember(id, "Ann", "Lee", 30, JOIN, baseFee, true, 15.0);
+        if (goalMet != null) m.addOrReplacePerformance(new Performance(id, goalMet, true, 4, ""));
+        return m;
+    }
+}
@@ -0,0 +1,137 @@
+package com.gym.billing;
+
+import static com.gym.TestMembers.random;
+import static com.gym.TestMembers.regular;
+import static com.gym.TestMembers.withRecords;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.repository.MemberRepository;
+import com.gym.repository.MergePolicy;
+
+// The aggregates, updated change by change through the repository, must always agree with
+// billing the whole current roster from scratch
+public class RevenueAggregatesTest {
+
+    private static final YearMonth FROM = YearMonth.of(2024, 1);
+    private static final YearMonth TO = YearMonth.of(2024, 6);
+
+    @Test
+    public void agreeWithFullRecomputeAfterEveryKindOfChange() {
+        Random rnd = new Random(20);
+        MemberRepository repo = new MemberRepository();
+        List<Member> start = new ArrayList<>();
+        for (int i = 0; i < 300; i++) start.add(member("S" + i, rnd));
+        repo.replaceAllMembers(start);
+        // attached to a roster that already has members and histories
+        RevenueAggregates aggregates = RevenueAggregates.attach(repo);
+        assertAgree(repo, aggregates, "attach");
+
+        int next = 0;
+        for (int step = 0; step < 2_000; step++) {
+            List<Member> all = repo.getAllMembers();
+            String existing = all.isEmpty() ? "none" : all.get(rnd.nextInt(all.size())).getMemberId();
+            String op;
+            switch (rnd.nextInt(7)) {
+            case 0:
+                op = "add";
+                repo.addMember(member("N" + next++, rnd));
+                break;
+            case 1:
+                op = "delete";
+                repo.deleteMember(existing);
+                break;
+            case 2:
+                op = "replace keeping history";
+                repo.replaceMember(existing, blank(existing, rnd));
+                break;
+            case 3:
+                op = "replace with history";
+                repo.replaceMember(existing, member(existing, rnd));
+                break;
+            case 4:
+                op = "merge";
+                List<Member> batch = new ArrayList<>();
+                for (int i = rnd.nextInt(60); i >= 0; i--) {
+                    batch.add(rnd.nextBoolean() && !all.isEmpty()
+                            ? blank(all.get(rnd.nextInt(all.size())).getMemberId(), rnd)
+                            : member("N" + next++, rnd));
+                }
+                repo.merge(batch, rnd.nextBoolean() ? MergePolicy.UPSERT : MergePolicy.SKIP_EXISTING);
+                break;
+            default:
+                op = "record";
+                YearMonth month = FROM.plusMonths(rnd.nextInt(8) - 1); // also just outside the checked range
+                repo.recordPerformance(existing, new Performance(existing, month, rnd.nextBoolean(), 1 + rnd.nextInt(5), ""));
+                break;
+            }
+            if (step % 50 == 0) assertAgree(repo, aggregates, "step " + step + " (" + op + ")");
+        }
+        assertAgree(repo, aggregates, "end");
+
+        List<Member> fresh = new ArrayList<>();
+        for (int i = 0; i < 50; i++) fresh.add(member("F" + i, rnd));
+        repo.replaceAllMembers(fresh);
+        assertAgree(repo, aggregates, "replaceAllMembers");
+    }
+
+    @Test
+    public void emptyAgainAfterEveryMemberLeaves() {
+        Random rnd = new Random(7);
+        MemberRepository repo = new MemberRepository();
+        RevenueAggregates aggregates = RevenueAggregates.attach(repo);
+        for (int i = 0; i < 500; i++) repo.addMember(member("M" + i, rnd));
+        for (int i = 0; i < 2_000; i++) {
+            String id = "M" + rnd.nextInt(500);
+            repo.recordPerformance(id, new Performance(id, FROM.plusMonths(rnd.nextInt(6)), rnd.nextBoolean(), 1 + rnd.nextInt(5), ""));
+        }
+        for (int i = 0; i < 500; i++) repo.deleteMember("M" + i);
+
+        // sums are exact, so nothing is left over from thousands of updates
+        assertEquals(0, aggregates.memberCount());
+        for (YearMonth month = FROM; !month.isAfter(TO); month = month.plusMonths(1)) {
+            assertEquals(0.0, aggregates.total(month));
+            for (double total : aggregates.totalsByType(month).values()) assertEquals(0.0, total);
+        }
+    }
+
+    @Test
+    public void verifyReportsChangesMadeBehindTheRepository() {
+        MemberRepository repo = new MemberRepository();
+        repo.addMember(regular("R1", "Ann"));
+        RevenueAggregates aggregates = RevenueAggregates.attach(repo);
+        assertEquals(Map.of("REGULAR", 40.0, "PT", 0.0, "PREMIUM", 0.0), aggregates.totalsByType(FROM));
+
+        repo.findMemberById("R1").addOrReplacePerformance(new Performance("R1", FROM, true, 5, "")); // not seen
+
+        List<String> mismatches = repo.readAll(members -> aggregates.verify(members, FROM, TO));
+        assertEquals(List.of("2024-01 REGULAR: aggregated 40.00, recomputed 36.00"), mismatches);
+    }
+
+    private static void assertAgree(MemberRepository repo, RevenueAggregates aggregates, String when) {
+        List<Member> members = repo.getAllMembers();
+        List<String> mismatches = aggregates.verify(members, FROM, TO);
+        assertEquals(List.of(), mismatches, when);
+        assertEquals(members.size(), aggregates.memberCount(), when);
+        BillingRun run = new BillingEngine().run(members, TO);
+        assertEquals(run.getGrandTotal(), aggregates.total(TO), 1e-6 * Math.max(1.0, run.getGrandTotal()), when);
+    }
+
+    // a member of any type, with records in some of the months
+    private static Member member(String id, Random rnd) {
+        return withRecords(blank(id, rnd), rnd, FROM, TO);
+    }
+
+    private static Member blank(String id, Random rnd) {
+        return random(id, rnd);
+    }
+}
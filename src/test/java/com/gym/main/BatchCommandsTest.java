@@ -0,0 +1,144 @@
+package com.gym.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// Each command line does what the menu action it stands for does; a failing line is counted,
+// reported by line number and skipped, and saves come after every saveEvery applied commands
+public class BatchCommandsTest {
+
+    private final MemberRepository repo = new MemberRepository();
+
+    @Test
+    public void everyCommandIsApplied() throws IOException {
+        BatchCommands batch = run(0, null,
+                "# members",
+                "add,M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,",
+                "ADD,M00000002,PT,\"Bob\",\"Jones\",41,2020-12-31,30.00,8,25.00,,",
+                "",
+                "  add,M00000003,REGULAR,\"Cara\",\"Lee\",27,2019-01-01,50.00,,,,  ",
+                "update,M00000001,REGULAR,\"Annabel\",\"Smith\",31,2021-03-04,47.00,,,,",
+                "record,M00000001,2024-01,true,5,\"good, really\"",
+                "record,M00000002,2024-02,false,2,",
+                "convert,M00000001,PREMIUM,60.00,Yes,15.25",
+                "convert,M00000002,REGULAR,35.00",
+                "delete,M00000003");
+
+        assertEquals(0, batch.errorCount());
+        assertEquals(9, batch.applied());
+        assertEquals(2, repo.getAllMembers().size());
+
+        Member anna = repo.findMemberById("M00000001");
+        assertTrue(anna instanceof PremiumMember);
+        assertEquals("Annabel", anna.getFirstName());
+        assertEquals(31, anna.getAge());
+        assertEquals(60.0, anna.getBaseFee());
+        assertTrue(((PremiumMember) anna).hasSpaAccess());
+        assertEquals(15.25, ((PremiumMember) anna).getPremiumServiceFee());
+        assertEquals("good, really", anna.getPerformance(YearMonth.of(2024, 1)).getNotes()); // kept through both
+
+        Member bob = repo.findMemberById("M00000002");
+        assertTrue(bob instanceof RegularMember);
+        assertEquals(35.0, bob.getBaseFee());
+        assertEquals(2, bob.getPerformance(YearMonth.of(2024, 2)).getRating());
+    }
+
+    @Test
+    public void failingLinesAreCountedAndSkipped() throws IOException {
+        BatchCommands batch = run(0, null,
+                "add,M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,",
+                "add,M00000001,REGULAR,\"Anna\",\"Again\",30,2021-03-04,45.50,,,,",
+                "add,too,short",
+                "update,M00000009,REGULAR,\"Nobody\",\"Here\",30,2021-03-04,45.50,,,,",
+                "add,M00000002,REGULAR,\"Bad\",\"Date\",30,2021-02-30,45.50,,,,",
+                "record,M00000009,2024-01,true,5,",
+                "convert,M00000001,PT,30.00",
+                "convert,M00000001,PT,thirty,4,25.00",
+                "delete,M00000009",
+                "rename,M00000001,Ann",
+                "delete,M00000001");
+
+        assertEquals(9, batch.errorCount());
+        assertEquals(2, batch.applied());
+        assertEquals(List.of(), repo.getAllMembers());
+
+        String summary = summary(batch);
+        assertTrue(summary.contains("  - line 2: member M00000001 already exists\n"), summary);
+        assertTrue(summary.contains("  - line 3: not a members.csv row\n"), summary);
+        assertTrue(summary.contains("  - line 4: no member M00000009\n"), summary);
+        assertTrue(summary.contains("  - line 5: malformed command ("), summary);
+        assertTrue(summary.contains("  - line 6: no member M00000009\n"), summary);
+        assertTrue(summary.contains("  - line 7: expected convert,<id>,REGULAR|PT|PREMIUM,<baseFee>[,...]\n"), summary);
+        assertTrue(summary.contains("  - line 8: malformed command ("), summary);
+        assertTrue(summary.contains("  - line 10: unknown command 'rename'\n"), summary);
+    }
+
+    @Test
+    public void savesAfterEverySaveEveryAppliedCommands() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            lines.add(String.format("add,M%08x,REGULAR,\"N%d\",\"Smith\",30,2021-03-04,40.00,,,,", i, i));
+            lines.add("delete,M99999999"); // fails, so it does not count toward a save
+        }
+        List<Integer> savedAt = new ArrayList<>();
+        BatchCommands batch = new BatchCommands(repo, 3, () -> savedAt.add(repo.getAllMembers().size()));
+        batch.run(new BufferedReader(new StringReader(String.join("\n", lines))));
+
+        assertEquals(List.of(3, 6), savedAt); // the 7th is left for the caller's final save
+        assertEquals(7, batch.errorCount());
+
+        List<Integer> never = new ArrayList<>();
+        new BatchCommands(new MemberRepository(), 0, () -> never.add(1))
+                .run(new BufferedReader(new StringReader(String.join("\n", lines))));
+        assertEquals(List.of(), never);
+    }
+
+    @Test
+    public void summaryCountsEachKindAndCapsTheReportedErrors() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("add,M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,");
+        lines.add("record,M00000001,2024-01,true,5,");
+        lines.add("record,M00000001,2024-02,true,5,");
+        for (int i = 0; i < 25; i++) lines.add("delete,M99999999");
+        BatchCommands batch = run(0, null, lines.toArray(new String[0]));
+
+        String[] out = summary(batch).split("\n");
+        assertTrue(out[0].matches("Batch: 28 commands in \\d+ ms \\(\\d+ commands/s\\)"), out[0]);
+        assertEquals("  applied 3: 1 add, 0 update, 0 convert, 2 record, 0 delete", out[1]);
+        assertEquals("  errors  25", out[2]);
+        assertEquals("  - line 4: no member M99999999", out[3]);
+        assertEquals("  - line 23: no member M99999999", out[22]);
+        assertEquals("  ... and 5 more", out[23]);
+        assertEquals(24, out.length);
+    }
+
+    private BatchCommands run(int saveEvery, Runnable save, String... lines) throws IOException {
+        BatchCommands batch = new BatchCommands(repo, saveEvery, save);
+        batch.run(new BufferedReader(new StringReader(String.join("\n", lines))));
+        return batch;
+    }
+
+    private static String summary(BatchCommands batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        batch.printSummary(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+}
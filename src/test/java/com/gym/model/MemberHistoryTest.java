@@ -0,0 +1,155 @@
+package com.gym.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+// A member's history stays sorted by month whatever order records arrive in, with one record
+// per month, and the running rating and goal totals always match a recount of the records
+public class MemberHistoryTest {
+
+    private static final LocalDate JOIN = LocalDate.of(2021, 1, 1);
+
+    @Test
+    public void recordsComeBackSortedByMonth() {
+        Member m = member("A1");
+        assertTrue(m.addPerformance(new Performance("A1", YearMonth.of(2024, 5), true, 4, "may")));
+        assertTrue(m.addPerformance(new Performance("A1", YearMonth.of(2023, 12), false, 2, "")));
+        assertTrue(m.addPerformance(new Performance("A1", YearMonth.of(2024, 1), true, 5, "jan")));
+        assertFalse(m.addPerformance(new Performance("A1", YearMonth.of(2024, 1), false, 1, "again")));
+        assertFalse(m.addPerformance(new Performance("B1", YearMonth.of(2024, 2), true, 3, "other member")));
+
+        assertEquals(List.of("2023-12,false,2,", "2024-01,true,5,jan", "2024-05,true,4,may"), history(m));
+        assertEquals("2024-05", m.getLatestPerformance().getMonth().toString());
+        assertEquals(11 / 3.0, m.getAverageRating(), 1e-12);
+        assertEquals(2, m.getGoalsAchievedCount());
+        assertEquals(2 / 3.0, m.getGoalAchievementRate(), 1e-12);
+    }
+
+    @Test
+    public void replaceAndRemoveKeepTotalsInStep() {
+        Member m = member("A1");
+        m.addOrReplacePerformance(new Performance("A1", YearMonth.of(2024, 1), true, 5, "jan"));
+        m.addOrReplacePerformance(new Performance("A1", YearMonth.of(2024, 2), true, 4, ""));
+
+        assertTrue(m.addOrReplacePerformance(new Performance("A1", YearMonth.of(2024, 1), false, 1, "redone")));
+        assertEquals(List.of("2024-01,false,1,redone", "2024-02,true,4,"), history(m));
+        assertEquals(2.5, m.getAverageRating(), 1e-12);
+        assertEquals(1, m.getGoalsAchievedCount());
+
+        assertTrue(m.removePerformance(YearMonth.of(2024, 2)));
+        assertFalse(m.removePerformance(YearMonth.of(2024, 2)));
+        assertEquals(List.of("2024-01,false,1,redone"), history(m));
+        assertEquals(1.0, m.getAverageRating(), 1e-12);
+        assertEquals(0.0, m.getGoalAchievementRate(), 1e-12);
+
+        assertTrue(m.removePerformance(YearMonth.of(2024, 1)));
+        assertEquals(0.0, m.getAverageRating());
+        assertEquals(0.0, m.getGoalAchievementRate());
+        assertNull(m.getLatestPerformance());
+    }
+
+    @Test
+    public void randomChangesMatchASortedMap() {
+        Random rnd = new Random(17);
+        Member m = member("M0000abcd");
+        TreeMap<YearMonth, Performance> expected = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            YearMonth month = YearMonth.of(1990 + rnd.nextInt(60), 1 + rnd.nextInt(12));
+            int op = rnd.nextInt(4);
+            if (op == 0) {
+                assertEquals(expected.remove(month) != null, m.removePerformance(month));
+            } else {
+                String notes = rnd.nextInt(4) == 0 ? "n" + i : "";
+                Performance p = new Performance("M0000abcd", month, rnd.nextBoolean(), 1 + rnd.nextInt(5), notes);
+                if (op == 1) {
+                    assertEquals(!expected.containsKey(month), m.addPerformance(p));
+                    expected.putIfAbsent(month, p);
+                } else {
+                    assertTrue(m.addOrReplacePerformance(p));
+                    expected.put(month, p);
+                }
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        long ratings = 0;
+        int goals = 0;
+        for (Performance p : expected.values()) {
+            rows.add(row(p));
+            ratings += p.getRating();
+            if (p.getGoalAchieved()) goals++;
+        }
+        assertEquals(rows, history(m));
+        assertEquals(ratings / (double) expected.size(), m.getAverageRating(), 1e-9);
+        assertEquals(goals, m.getGoalsAchievedCount());
+        for (YearMonth month : expected.keySet()) {
+            assertEquals(row(expected.get(month)), row(m.getPerformance(month)));
+            assertEquals("M0000abcd", m.getPerformance(month).getMemberId());
+        }
+    }
+
+    @Test
+    public void packedRecordsKeepEveryField() {
+        for (YearMonth month : new YearMonth[] {YearMonth.of(0, 1), YearMonth.of(-1, 12), YearMonth.of(2024, 7),
+                YearMonth.of(11_000_000, 12), YearMonth.of(-11_000_000, 1)}) {
+            for (int rating = 1; rating <= 5; rating++) {
+                int packed = PackedPerformance.pack(PackedPerformance.epochMonth(month), rating, rating % 2 == 0);
+                assertEquals(month, PackedPerformance.month(packed));
+                assertEquals(rating, PackedPerformance.rating(packed));
+                assertEquals(rating % 2 == 0, PackedPerformance.goalAchieved(packed));
+                assertTrue(packed != PackedPerformance.NONE);
+            }
+        }
+        // packed values order like their months
+        assertTrue(PackedPerformance.pack(-1, 1, false) < PackedPerformance.pack(0, 1, false));
+        assertTrue(PackedPerformance.pack(5, 5, true) < PackedPerformance.pack(6, 1, false));
+    }
+
+    @Test
+    public void monthsBeyondThePackedRangeAreRefused() {
+        YearMonth far = YearMonth.of(20_000_000, 1); // would wrap into the past once shifted
+        assertFalse(PackedPerformance.fits(far));
+        assertFalse(PackedPerformance.fits(YearMonth.of(-20_000_000, 1)));
+        assertFalse(PackedPerformance.fits(YearMonth.of(999_999_999, 12))); // year * 12 overflows an int
+        assertTrue(PackedPerformance.fits(YearMonth.of(11_000_000, 12)));
+        assertThrows(IllegalArgumentException.class, () -> PackedPerformance.epochMonth(far));
+        assertThrows(IllegalArgumentException.class, () -> PackedPerformance.pack(1 << 27, 3, true));
+        assertThrows(IllegalArgumentException.class, () -> PackedPerformance.pack(-(1 << 27) - 1, 3, true));
+
+        Member m = member("A1");
+        m.addPerformance(new Performance("A1", YearMonth.of(2024, 1), true, 4, ""));
+        assertFalse(m.addPerformance(new Performance("A1", far, true, 5, "")));
+        assertFalse(m.addOrReplacePerformance(new Performance("A1", far, true, 5, "")));
+        assertNull(m.getPerformance(far));
+        assertEquals(PackedPerformance.NONE, m.getPackedPerformance(far));
+        assertFalse(m.removePerformance(far));
+        assertEquals(List.of("2024-01,true,4,"), history(m));
+        assertEquals(4.0, m.getAverageRating());
+    }
+
+    private static Member member(String id) {
+        return new RegularMember(id, "Ann", "Lee", 30, JOIN, 40.0);
+    }
+
+    private static List<String> history(Member m) {
+        List<String> rows = new ArrayList<>();
+        for (Performance p : m.getPerformanceHistory()) rows.add(row(p));
+        return rows;
+    }
+
+    private static String row(Performance p) {
+        return p.getMonth() + "," + p.getGoalAchieved() + "," + p.getRating() + "," + p.getNotes();
+    }
+}
@@ -0,0 +1,85 @@
+package com.gym.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Only "M" + 8 lowercase hex digits packs, and unpack gives exactly that text back; every other
+// ID is kept as text. Lookups go through packIgnoreCase and key, which ignore case for both forms.
+public class MemberIdTest {
+
+    @Test
+    public void canonicalIdsRoundTrip() {
+        Random rnd = new Random(15);
+        for (int i = 0; i < 1000; i++) {
+            int bits = rnd.nextInt();
+            String id = "M" + String.format("%08x", bits);
+            long packed = MemberId.pack(id);
+            assertEquals(bits & 0xFFFFFFFFL, packed, id);
+            assertEquals(id, MemberId.unpack((int) packed));
+        }
+        assertEquals(0L, MemberId.pack("M00000000"));
+        assertEquals(0xFFFFFFFFL, MemberId.pack("Mffffffff")); // not NOT_PACKED, though the int is -1
+        assertEquals("Mffffffff", MemberId.unpack(-1));
+    }
+
+    @Test
+    public void writePutsTheTextAtTheOffset() {
+        char[] to = "..........xx".toCharArray();
+        MemberId.write((int) MemberId.pack("M0a1b2c3d"), to, 1);
+        assertEquals(".M0a1b2c3dxx", new String(to));
+    }
+
+    @Test
+    public void nonCanonicalIdsAreNotPacked() {
+        for (String id : new String[] {
+                null, "", "M", "M1234567", "M123456789", "m12345678", "M1234567A", "M1234567g",
+                "X12345678", " M1234567", "M1234567 ", "M-1234567", "M+1234567", "A1", "UNKNOWN-12345678"}) {
+            assertEquals(MemberId.NOT_PACKED, MemberId.pack(id), String.valueOf(id));
+        }
+    }
+
+    @Test
+    public void packIgnoreCaseMatchesTheCanonicalSpelling() {
+        long packed = MemberId.pack("M1a2b3c4d");
+        assertEquals(packed, MemberId.packIgnoreCase("M1a2b3c4d"));
+        assertEquals(packed, MemberId.packIgnoreCase("m1A2B3C4D"));
+        assertEquals(packed, MemberId.packIgnoreCase("M1A2b3C4d"));
+        assertEquals(MemberId.NOT_PACKED, MemberId.packIgnoreCase("M1a2b3c4g"));
+        assertEquals(MemberId.NOT_PACKED, MemberId.packIgnoreCase("N1a2b3c4d"));
+        assertEquals(MemberId.NOT_PACKED, MemberId.packIgnoreCase("M1a2b3c4"));
+    }
+
+    @Test
+    public void keysIgnoreCaseForBothForms() {
+        assertEquals(MemberId.key("M1a2b3c4d"), MemberId.key("m1A2B3C4D"));
+        assertEquals(Integer.valueOf(0x1a2b3c4d), MemberId.key("M1a2b3c4d"));
+        assertEquals("a1", MemberId.key("A1"));
+        assertEquals(MemberId.key("a1"), MemberId.key("A1"));
+        assertNull(MemberId.key((String) null));
+    }
+
+    @Test
+    public void membersStoreCanonicalIdsPackedAndOthersAsText() {
+        LocalDate join = LocalDate.of(2021, 1, 1);
+        Member packed = new RegularMember("M0a1b2c3d", "Ann", "Lee", 30, join, 40.0);
+        assertEquals(0x0a1b2c3dL, packed.getPackedId());
+        assertEquals("M0a1b2c3d", packed.getMemberId());
+        assertEquals(MemberId.key("m0A1B2C3D"), MemberId.key(packed));
+
+        // the uppercase spelling is kept exactly as written, not folded into the packed form
+        Member text = new RegularMember("M0A1B2C3D", "Ann", "Lee", 30, join, 40.0);
+        assertEquals(MemberId.NOT_PACKED, text.getPackedId());
+        assertEquals("M0A1B2C3D", text.getMemberId());
+        assertEquals(MemberId.key(packed), MemberId.key(text));
+
+        Member generated = new RegularMember("Bo", "Lee", 30, join, 40.0);
+        String id = generated.getMemberId();
+        assertEquals(id, MemberId.unpack((int) MemberId.pack(id)));
+        assertEquals(generated.getPackedId(), MemberId.pack(id));
+    }
+}
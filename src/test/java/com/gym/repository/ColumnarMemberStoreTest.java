@@ -0,0 +1,180 @@
+package com.gym.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// The columns must give back every profile field of every member added, find rows by ID the
+// way MemberRepository finds members, and aggregate to what a loop over the Members gives
+public class ColumnarMemberStoreTest {
+
+    private static final LocalDate JOIN = LocalDate.of(2021, 3, 4);
+
+    @Test
+    public void rowOfIgnoresCaseForPackedAndTextIds() {
+        ColumnarMemberStore store = new ColumnarMemberStore();
+        assertTrue(store.add(new RegularMember("M0a1b2c3d", "Anna", "Smith", 30, JOIN, 40.0)));
+        assertTrue(store.add(new RegularMember("Legacy-7", "Bob", "Ng", 41, JOIN, 30.0)));
+        assertTrue(store.add(new RegularMember("m0A1B2C3E", "Cy", "Ito", 27, JOIN, 50.0))); // packs ignoring case only
+
+        assertEquals(0, store.rowOf("M0a1b2c3d"));
+        assertEquals(0, store.rowOf("m0A1B2C3D"));
+        assertEquals(1, store.rowOf("legacy-7"));
+        assertEquals(1, store.rowOf("LEGACY-7"));
+        assertEquals(2, store.rowOf("M0a1b2c3e"));
+        assertEquals(-1, store.rowOf("M0a1b2c3f"));
+        assertEquals(-1, store.rowOf("legacy-8"));
+        assertEquals(-1, store.rowOf(null));
+        assertNull(store.findMemberById("nobody"));
+
+        // IDs come back as written
+        assertEquals("M0a1b2c3d", store.idAt(0));
+        assertEquals("Legacy-7", store.idAt(1));
+        assertEquals("m0A1B2C3E", store.idAt(2));
+    }
+
+    @Test
+    public void duplicatesAndUnknownTypesAreRefused() {
+        ColumnarMemberStore store = new ColumnarMemberStore();
+        assertTrue(store.add(new RegularMember("M00000001", "Anna", "Smith", 30, JOIN, 40.0)));
+        assertTrue(store.add(new RegularMember("legacy-1", "Bob", "Ng", 41, JOIN, 30.0)));
+        assertFalse(store.add(new PremiumMember("m00000001", "Other", "One", 30, JOIN, 40.0, true, 1.0)));
+        assertFalse(store.add(new RegularMember("LEGACY-1", "Other", "Two", 30, JOIN, 40.0)));
+        assertFalse(store.add(null));
+        assertFalse(store.add(new Member("M00000002", "Hal", "Ito", 40, JOIN, 10.0) {
+            @Override
+            public double calculateMonthlyFee(YearMonth month) {
+                return 0;
+            }
+        }));
+        assertEquals(2, store.size());
+        assertEquals("Anna", store.firstNameAt(store.rowOf("M00000001"))); // the first one wins
+
+        // of() keeps the first of duplicates too
+        ColumnarMemberStore built = ColumnarMemberStore.of(List.of(
+                new RegularMember("x-1", "First", "A", 30, JOIN, 1.0), new RegularMember("X-1", "Second", "B", 30, JOIN, 2.0)));
+        assertEquals(1, built.size());
+        assertEquals("First", built.firstNameAt(0));
+    }
+
+    @Test
+    public void lookupsSurviveGrowth() {
+        // starts small, so the columns and the ID table are resized many times
+        ColumnarMemberStore store = new ColumnarMemberStore(1);
+        List<Member> members = roster(20_000, new Random(16));
+        for (Member m : members) assertTrue(store.add(m));
+        assertEquals(members.size(), store.size());
+        for (int row = 0; row < members.size(); row++) {
+            String id = members.get(row).getMemberId();
+            assertEquals(row, store.rowOf(id), id);
+            assertEquals(row, store.rowOf(row % 2 == 0 ? id.toUpperCase() : id.toLowerCase()), id);
+            assertEquals(id, store.idAt(row));
+        }
+        for (Member m : roster(100, new Random(17))) assertFalse(store.add(m)); // same IDs again
+        assertEquals(members.size(), store.size());
+    }
+
+    @Test
+    public void memberAtRoundTrips() {
+        List<Member> members = new ArrayList<>(roster(3_000, new Random(3)));
+        members.add(new RegularMember("far-future", "Zed", "Ray", 99, LocalDate.of(9_000_000, 12, 31), 1.0));
+        members.add(new RegularMember("far-past", "Old", "Ray", 99, LocalDate.of(-9_000_000, 1, 1), 1.0));
+        members.add(new PremiumMember("max-date", "Max", "Ray", 99, LocalDate.MAX, 1.0, false, 0.0));
+        ColumnarMemberStore store = ColumnarMemberStore.of(members);
+
+        for (int row = 0; row < members.size(); row++) {
+            Member m = members.get(row);
+            Member copy = store.memberAt(row);
+            assertEquals(profile(m), profile(copy));
+            assertTrue(copy.getPerformanceHistory().isEmpty());
+            assertEquals(profile(m), profile(store.findMemberById(m.getMemberId())));
+            assertEquals(m.getJoinDate().toEpochDay(), store.joinEpochDayAt(row));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> store.memberAt(members.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.ageAt(-1));
+    }
+
+    @Test
+    public void aggregationsMatchALoopOverMembers() {
+        List<Member> members = roster(5_000, new Random(5));
+        ColumnarMemberStore store = ColumnarMemberStore.of(members);
+        YearMonth noRecord = YearMonth.of(1999, 1);
+
+        int[] counts = new int[3];
+        double[] fees = new double[3];
+        long ages = 0;
+        int joined = 0;
+        int over40 = 0;
+        double ptBase = 0;
+        LocalDate from = LocalDate.of(2019, 1, 1);
+        LocalDate to = LocalDate.of(2020, 6, 30);
+        for (Member m : members) {
+            int type = m instanceof PersonalTrainingMember ? 1 : m instanceof PremiumMember ? 2 : 0;
+            counts[type]++;
+            fees[type] += m.calculateMonthlyFee(noRecord);
+            ages += m.getAge();
+            if (!m.getJoinDate().isBefore(from) && !m.getJoinDate().isAfter(to)) joined++;
+            if (m.getAge() > 40) over40++;
+            if (type == 1) ptBase += m.getBaseFee();
+        }
+
+        assertArrayEquals(counts, store.countByType());
+        double[] byType = store.listFeesByType();
+        for (int t = 0; t < 3; t++) assertEquals(fees[t], byType[t], 1e-6);
+        assertEquals(ages / (double) members.size(), store.averageAge(), 1e-9);
+        assertEquals(joined, store.countJoinedBetween(from, to));
+        assertEquals(over40, store.count(row -> store.ageAt(row) > 40));
+        assertEquals(ptBase, store.sum(row -> store.typeAt(row) == ColumnarMemberStore.PT, store::baseFeeAt), 1e-6);
+        for (int row = 0; row < members.size(); row++) {
+            assertEquals(members.get(row).calculateMonthlyFee(noRecord), store.listFeeAt(row), 1e-9);
+        }
+
+        ColumnarMemberStore empty = new ColumnarMemberStore();
+        assertEquals(0.0, empty.averageAge());
+        assertArrayEquals(new int[3], empty.countByType());
+        assertEquals(0, empty.countJoinedBetween(from, to));
+    }
+
+    // packed, case-varied and text IDs; all three types
+    private static List<Member> roster(int size, Random rnd) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String id = i % 3 == 0 ? "legacy-" + i : String.format(i % 3 == 1 ? "M%08x" : "m%08X", i);
+            String first = new String[] {"Anna", "Bob", "Cleo", "José"}[rnd.nextInt(4)];
+            String last = "Smith " + rnd.nextInt(50);
+            int age = 18 + rnd.nextInt(60);
+            LocalDate join = LocalDate.of(2015, 1, 1).plusDays(rnd.nextInt(3000));
+            double fee = rnd.nextInt(8000) / 100.0;
+            switch (rnd.nextInt(3)) {
+            case 0:  members.add(new RegularMember(id, first, last, age, join, fee)); break;
+            case 1:  members.add(new PersonalTrainingMember(id, first, last, age, join, fee, rnd.nextInt(12), rnd.nextInt(4000) / 100.0)); break;
+            default: members.add(new PremiumMember(id, first, last, age, join, fee, rnd.nextBoolean(), rnd.nextInt(3000) / 100.0)); break;
+            }
+        }
+        return members;
+    }
+
+    private static String profile(Member m) {
+        String extra = "";
+        if (m instanceof PersonalTrainingMember pt) extra = pt.getSessionsPerMonth() + "x" + pt.getFeePerSession();
+        if (m instanceof PremiumMember pm) extra = pm.hasSpaAccess() + "/" + pm.getPremiumServiceFee();
+        return m.getClass().getSimpleName() + " " + m.getMemberId() + " " + m.getFirstName() + " " + m.getLastName()
+                + " " + m.getAge() + " " + m.getJoinDate() + " " + m.getBaseFee() + " " + extra;
+    }
+}
@@ -0,0 +1,125 @@
+package com.gym.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// query and count must give what a filter over the whole roster gives, in repository order,
+// whatever adds, deletes and replacements came before
+public class MemberQueryTest {
+
+    private static final LocalDate EPOCH = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void queryMatchesLinearScanAfterRandomChanges() {
+        MemberRepository repo = new MemberRepository();
+        Random rnd = new Random(18);
+        List<String> live = new ArrayList<>();
+        int nextId = 0;
+        for (int round = 0; round < 3000; round++) {
+            int pick = live.isEmpty() ? 0 : rnd.nextInt(100);
+            if (pick < 45) {
+                String id = "Q" + nextId++;
+                repo.addMember(randomMember(id, rnd));
+                live.add(id);
+            } else if (pick < 70) {
+                String id = live.get(rnd.nextInt(live.size()));
+                repo.replaceMember(id, randomMember(id, rnd));
+            } else {
+                // enough deletes that the indexes turn sparse and get rebuilt along the way
+                String id = live.remove(rnd.nextInt(live.size()));
+                repo.deleteMember(id);
+            }
+            if (round % 10 == 0) checkQueries(repo, rnd);
+        }
+        // every delete path, down to an empty roster
+        for (String id : live) repo.deleteMember(id);
+        checkQueries(repo, rnd);
+    }
+
+    @Test
+    public void sharedValuesSurviveRemovalInAnyOrder() {
+        MemberRepository repo = new MemberRepository();
+        // one age and one fee for everyone: every change lands in the same two buckets
+        for (int i = 0; i < 50; i++) {
+            repo.addMember(new RegularMember("S" + i, "first", "last", 40, EPOCH.plusDays(i), 30.0));
+        }
+        for (int i = 0; i < 50; i += 3) repo.deleteMember("S" + i);
+        for (int i = 1; i < 50; i += 3) {
+            repo.replaceMember("S" + i, new PremiumMember("S" + i, "first", "last", 41, EPOCH.plusDays(i), 30.0, true, 5.0));
+        }
+
+        assertEquals(17, repo.count(new MemberQuery().ageBetween(41, 41)));
+        assertEquals(16, repo.count(new MemberQuery().ageBetween(40, 40)));
+        assertEquals(33, repo.count(new MemberQuery().baseFeeBetween(30.0, 30.0)));
+        assertEquals(repo.getAllMembers(), repo.query(new MemberQuery().baseFeeBetween(30.0, 30.0)));
+        List<Member> premium = new ArrayList<>();
+        for (Member m : repo.getAllMembers()) if (m instanceof PremiumMember) premium.add(m);
+        assertEquals(premium, repo.query(new MemberQuery().ageBetween(41, 41)));
+    }
+
+    private static void checkQueries(MemberRepository repo, Random rnd) {
+        for (int i = 0; i < 5; i++) {
+            MemberQuery q = new MemberQuery();
+            LocalDate joinFrom = null, joinTo = null;
+            Integer ageFrom = null, ageTo = null;
+            Double feeFrom = null, feeTo = null;
+            int types = 0;
+            if (rnd.nextBoolean()) {
+                joinFrom = EPOCH.plusDays(rnd.nextInt(400));
+                joinTo = joinFrom.plusDays(rnd.nextInt(200) - 20); // sometimes an empty range
+                q.joinedBetween(joinFrom, joinTo);
+            }
+            if (rnd.nextBoolean()) {
+                ageFrom = 18 + rnd.nextInt(10);
+                ageTo = ageFrom + rnd.nextInt(5);
+                q.ageBetween(ageFrom, ageTo);
+            }
+            if (rnd.nextBoolean()) {
+                feeFrom = 20.0 + rnd.nextInt(5) * 10;
+                feeTo = feeFrom + rnd.nextInt(3) * 10;
+                q.baseFeeBetween(feeFrom, feeTo);
+            }
+            if (rnd.nextBoolean()) {
+                switch (rnd.nextInt(3)) {
+                case 0:  q.ofType(RegularMember.class); types |= MemberQuery.REGULAR; break;
+                case 1:  q.ofType(PersonalTrainingMember.class); types |= MemberQuery.PT; break;
+                default: q.ofType(PremiumMember.class, RegularMember.class); types |= MemberQuery.PREMIUM | MemberQuery.REGULAR;
+                }
+            }
+
+            List<Member> expected = new ArrayList<>();
+            for (Member m : repo.getAllMembers()) {
+                if (joinFrom != null && (m.getJoinDate().isBefore(joinFrom) || m.getJoinDate().isAfter(joinTo))) continue;
+                if (ageFrom != null && (m.getAge() < ageFrom || m.getAge() > ageTo)) continue;
+                if (feeFrom != null && (m.getBaseFee() < feeFrom || m.getBaseFee() > feeTo)) continue;
+                if (types != 0 && (MemberQuery.typeBit(m) & types) == 0) continue;
+                expected.add(m);
+            }
+            assertEquals(expected, repo.query(q));
+            assertEquals(expected.size(), repo.count(q));
+        }
+    }
+
+    // few distinct ages and fees, so the range indexes have large shared buckets
+    private static Member randomMember(String id, Random rnd) {
+        int age = 18 + rnd.nextInt(12);
+        LocalDate join = EPOCH.plusDays(rnd.nextInt(500));
+        double fee = 20 + rnd.nextInt(5) * 10;
+        switch (rnd.nextInt(3)) {
+        case 0:  return new RegularMember(id, "first", "last", age, join, fee);
+        case 1:  return new PersonalTrainingMember(id, "first", "last", age, join, fee, 4, 25.0);
+        default: return new PremiumMember(id, "first", "last", age, join, fee, true, 15.0);
+        }
+    }
+}
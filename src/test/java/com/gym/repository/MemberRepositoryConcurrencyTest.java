@@ -0,0 +1,219 @@
+package com.gym.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// Writers add, replace, record and delete on their own ranges of IDs while readers use every
+// read path; afterwards the repository must match what each writer did, and no reader may
+// have seen a half-applied change
+public class MemberRepositoryConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int OPS_PER_WRITER = 4000;
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2024, 1);
+
+    // What one writer expects of a member it owns
+    private static final class Expected {
+        int type;
+        double baseFee;
+        final TreeMap<YearMonth, Integer> ratings = new TreeMap<>();
+    }
+
+    @Test
+    public void concurrentWritersAndReadersKeepRepositoryConsistent() throws Exception {
+        MemberRepository repo = new MemberRepository();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Map<String, Expected>> models = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            Map<String, Expected> model = new LinkedHashMap<>();
+            models.add(model);
+            int writer = w;
+            writers.add(new Thread(() -> write(repo, writer, model, start, failures), "writer-" + w));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            long seed = r;
+            readers.add(new Thread(() -> read(repo, seed, writing, start, failures), "reader-" + r));
+        }
+        writers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+        start.countDown();
+        for (Thread t : writers) t.join();
+        writing.set(false);
+        for (Thread t : readers) t.join();
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " failures, first: " + failures.peek());
+
+        int total = 0, pt = 0;
+        for (Map<String, Expected> model : models) {
+            for (Map.Entry<String, Expected> e : model.entrySet()) {
+                Member m = repo.findMemberById(e.getKey());
+                assertNotNull(m, e.getKey());
+                Expected x = e.getValue();
+                assertEquals(x.type, MemberQuery.typeBit(m), e.getKey());
+                assertEquals(x.baseFee, m.getBaseFee(), e.getKey());
+                TreeMap<YearMonth, Integer> actual = new TreeMap<>();
+                for (Performance p : m.getPerformanceHistory()) actual.put(p.getMonth(), p.getRating());
+                assertEquals(x.ratings, actual, e.getKey());
+                if (x.type == MemberQuery.PT) pt++;
+            }
+            total += model.size();
+        }
+        List<Member> all = repo.getAllMembers();
+        assertEquals(total, all.size());
+        // the secondary and name indexes followed every change
+        assertEquals(all, repo.query(new MemberQuery()));
+        assertEquals(pt, repo.count(new MemberQuery().ofType(PersonalTrainingMember.class)));
+        for (int n = 0; n < 10; n++) {
+            String name = "last" + n + "x";
+            long expected = all.stream().filter(m -> m.getLastName().equals(name)).count();
+            assertEquals(expected, repo.findMembersByName(name).size(), name);
+        }
+    }
+
+    private static void write(MemberRepository repo, int writer, Map<String, Expected> model,
+                              CountDownLatch start, Queue<String> failures) {
+        Random rnd = new Random(writer);
+        List<String> live = new ArrayList<>();
+        int nextId = 0;
+        try {
+            start.await();
+            for (int op = 0; op < OPS_PER_WRITER; op++) {
+                int pick = live.isEmpty() ? 0 : rnd.nextInt(100);
+                if (pick < 30) {
+                    String id = String.format("M%08x", writer << 24 | nextId++);
+                    Expected x = new Expected();
+                    Member m = newMember(id, rnd, x);
+                    if (!repo.addMember(m)) failures.add("add failed for " + id);
+                    model.put(id, x);
+                    live.add(id);
+                } else if (pick < 55) {
+                    String id = live.get(rnd.nextInt(live.size()));
+                    Expected x = model.get(id);
+                    Expected fresh = new Expected();
+                    // no history on the new object: the repository carries the old one over
+                    if (!repo.replaceMember(id, newMember(id, rnd, fresh))) failures.add("replace failed for " + id);
+                    x.type = fresh.type;
+                    x.baseFee = fresh.baseFee;
+                } else if (pick < 90) {
+                    String id = live.get(rnd.nextInt(live.size()));
+                    YearMonth month = FIRST_MONTH.plusMonths(rnd.nextInt(24));
+                    int rating = 1 + rnd.nextInt(5);
+                    Performance p = new Performance(id, month, rnd.nextBoolean(), rating, "");
+                    if (!repo.recordPerformance(id, p)) failures.add("record failed for " + id);
+                    model.get(id).ratings.put(month, rating);
+                } else {
+                    int i = rnd.nextInt(live.size());
+                    String id = live.get(i);
+                    live.set(i, live.get(live.size() - 1));
+                    live.remove(live.size() - 1);
+                    if (!repo.deleteMember(id)) failures.add("delete failed for " + id);
+                    model.remove(id);
+                }
+            }
+        } catch (Throwable t) {
+            failures.add(Thread.currentThread().getName() + ": " + t);
+        }
+    }
+
+    private static Member newMember(String id, Random rnd, Expected x) {
+        String first = "first" + rnd.nextInt(100);
+        String last = "last" + rnd.nextInt(10) + "x";
+        int age = 18 + rnd.nextInt(50);
+        LocalDate join = LocalDate.of(2020, 1, 1).plusDays(rnd.nextInt(1000));
+        // few distinct fees, so the fee index has large shared buckets
+        x.baseFee = 20 + rnd.nextInt(5) * 10;
+        switch (rnd.nextInt(3)) {
+        case 0:
+            x.type = MemberQuery.REGULAR;
+            return new RegularMember(id, first, last, age, join, x.baseFee);
+        case 1:
+            x.type = MemberQuery.PT;
+            return new PersonalTrainingMember(id, first, last, age, join, x.baseFee, 4, 25.0);
+        default:
+            x.type = MemberQuery.PREMIUM;
+            return new PremiumMember(id, first, last, age, join, x.baseFee, true, 15.0);
+        }
+    }
+
+    private static void read(MemberRepository repo, long seed, AtomicBoolean writing,
+                             CountDownLatch start, Queue<String> failures) {
+        Random rnd = new Random(seed);
+        try {
+            start.await();
+            while (writing.get()) {
+                String id = String.format("M%08x", rnd.nextInt(WRITERS) << 24 | rnd.nextInt(OPS_PER_WRITER / 3));
+                Member found = repo.findMemberById(id);
+                if (found != null && !found.getMemberId().equalsIgnoreCase(id)) {
+                    failures.add("lookup of " + id + " returned " + found.getMemberId());
+                }
+
+                // a history read under the lock is never half-updated
+                String problem = repo.read(id, m -> m == null ? null : checkHistory(m));
+                if (problem != null) failures.add(problem);
+
+                for (Member m : repo.findMembersByName("last" + rnd.nextInt(10))) {
+                    if (m == null) failures.add("null member in name search");
+                }
+                for (Member m : repo.query(new MemberQuery().ofType(PremiumMember.class).baseFeeBetween(30, 40))) {
+                    if (!(m instanceof PremiumMember) || m.getBaseFee() < 30 || m.getBaseFee() > 40) {
+                        failures.add("query returned " + (m == null ? null : m.getMemberId()));
+                    }
+                }
+                List<Member> all = repo.getAllMembers();
+                Set<String> ids = new HashSet<>();
+                for (Member m : all) {
+                    if (m == null || !ids.add(m.getMemberId())) failures.add("bad snapshot entry " + m);
+                }
+                Integer size = repo.readAll(List::size);
+                if (size < 0) failures.add("negative size");
+            }
+        } catch (Throwable t) {
+            failures.add(Thread.currentThread().getName() + ": " + t);
+        }
+    }
+
+    // null when months are strictly increasing and the running totals match the records
+    private static String checkHistory(Member m) {
+        List<Performance> history = m.getPerformanceHistory();
+        long ratings = 0;
+        YearMonth previous = null;
+        for (Performance p : history) {
+            if (previous != null && !p.getMonth().isAfter(previous)) return m.getMemberId() + ": history out of order";
+            previous = p.getMonth();
+            ratings += p.getRating();
+        }
+        double average = history.isEmpty() ? 0.0 : ratings / (double) history.size();
+        if (Math.abs(average - m.getAverageRating()) > 1e-9) return m.getMemberId() + ": average out of step";
+        return null;
+    }
+}
@@ -0,0 +1,209 @@
+package com.gym.repository;
+
+import static com.gym.TestMembers.JOIN;
+import static com.gym.TestMembers.describe;
+import static com.gym.TestMembers.history;
+import static com.gym.TestMembers.random;
+import static com.gym.TestMembers.regular;
+import static com.gym.TestMembers.withRecords;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// merge must give the same roster, order, histories and index contents as the single-member
+// calls it stands for, whether it updates the indexes one by one or rebuilds them
+public class MemberRepositoryMergeTest {
+
+    private static final YearMonth FROM = YearMonth.of(2024, 1);
+    private static final YearMonth TO = YearMonth.of(2024, 3);
+
+    @Test
+    public void upsertReplacesInPlaceAndKeepsHistory() {
+        MemberRepository repo = roster("A", "B", "C");
+        repo.recordPerformance("B", new Performance("B", YearMonth.of(2024, 1), true, 4, "kept"));
+
+        IngestReport report = repo.merge(List.of(
+                new PremiumMember("b", "Bea", "New", 35, JOIN, 70.0, true, 5.0), // case-insensitive match
+                regular("D", "Dan"),
+                regular("A", "Ann")), MergePolicy.UPSERT);
+
+        assertEquals(List.of("D"), report.getInserted());
+        assertEquals(List.of("b", "A"), report.getReplaced());
+        assertEquals(List.of(), report.getRejected());
+        assertEquals(List.of("A", "b", "C", "D"), ids(repo.getAllMembers()));
+        Member b = repo.findMemberById("B");
+        assertTrue(b instanceof PremiumMember);
+        assertEquals("Bea", b.getFirstName());
+        assertEquals(List.of("b,2024-01,true,4,kept"), history(b)); // re-tagged with the new spelling
+        assertEquals("Ann", repo.findMemberById("a").getFirstName());
+    }
+
+    @Test
+    public void upsertKeepsIncomingHistoryWhenItHasOne() {
+        MemberRepository repo = roster("A");
+        repo.recordPerformance("A", new Performance("A", YearMonth.of(2024, 1), true, 4, "old"));
+        Member incoming = regular("A", "Ann");
+        incoming.addOrReplacePerformance(new Performance("A", YearMonth.of(2024, 2), false, 2, "new"));
+
+        repo.merge(List.of(incoming), MergePolicy.UPSERT);
+
+        assertEquals(List.of("A,2024-02,false,2,new"), history(repo.findMemberById("A")));
+    }
+
+    @Test
+    public void skipExistingLeavesExistingMembersAlone() {
+        MemberRepository repo = roster("A", "B");
+        Member oldB = repo.findMemberById("B");
+
+        IngestReport report = repo.merge(List.of(regular("b", "Other"), regular("C", "Cat"), regular("A", "Other")),
+                MergePolicy.SKIP_EXISTING);
+
+        assertEquals(List.of("C"), report.getInserted());
+        assertEquals(List.of(), report.getReplaced());
+        assertEquals(List.of("b", "A"), report.getRejected());
+        assertEquals(List.of("A", "B", "C"), ids(repo.getAllMembers()));
+        assertSame(oldB, repo.findMemberById("B"));
+        assertEquals(List.of(), repo.findMembersByName("other"));
+    }
+
+    @Test
+    public void firstOccurrenceInBatchWins() {
+        for (MergePolicy policy : MergePolicy.values()) {
+            MemberRepository repo = roster("A");
+            IngestReport report = repo.merge(Arrays.asList(
+                    regular("N", "First"), null, regular("n", "Second"), regular("A", "One"), regular("a", "Two"), regular("N", "Third")),
+                    policy);
+
+            assertEquals(List.of("N"), report.getInserted(), policy.name());
+            assertEquals("First", repo.findMemberById("N").getFirstName(), policy.name());
+            if (policy == MergePolicy.UPSERT) {
+                assertEquals(List.of("A"), report.getReplaced());
+                assertEquals(List.of("n", "a", "N"), report.getRejected());
+                assertEquals("One", repo.findMemberById("A").getFirstName());
+            } else {
+                assertEquals(List.of("n", "A", "a", "N"), report.getRejected());
+                assertEquals("A0", repo.findMemberById("A").getFirstName());
+            }
+            assertEquals(List.of("A", "N"), ids(repo.getAllMembers()), policy.name());
+        }
+    }
+
+    @Test
+    public void emptyOrFullyRejectedBatchChangesNothing() {
+        MemberRepository repo = roster("A", "B");
+        List<Member> before = repo.getAllMembers();
+        assertEquals("0 inserted, 0 replaced, 0 rejected", repo.merge(List.of(), MergePolicy.UPSERT).toString());
+        repo.merge(List.of(regular("A", "X"), regular("B", "Y")), MergePolicy.SKIP_EXISTING);
+        assertSame(before, repo.getAllMembers()); // not even the snapshot was dropped
+    }
+
+    @Test
+    public void rebuildAndIncrementalMergesGiveSameIndexes() {
+        for (MergePolicy policy : MergePolicy.values()) {
+            Random rnd = new Random(24);
+            List<Member> base = new ArrayList<>();
+            for (int i = 0; i < 800; i++) base.add(withRecords(random("R" + i, rnd), rnd, FROM, TO));
+            // 400 incoming: half new IDs, half existing ones in another case
+            List<Member> batch = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String id = i % 2 == 0 ? "r" + rnd.nextInt(800) : "New" + i;
+                batch.add(withRecords(random(id, rnd), rnd, FROM, TO));
+            }
+
+            // one merge of 400 against 800 members rebuilds the indexes; chunks of 20 update them
+            MemberRepository rebuilt = new MemberRepository();
+            rebuilt.replaceAllMembers(copies(base));
+            rebuilt.merge(copies(batch), policy);
+            MemberRepository incremental = new MemberRepository();
+            incremental.replaceAllMembers(copies(base));
+            List<Member> chunked = copies(batch);
+            // a repeated ID in a later chunk would replace instead of being rejected, so only
+            // first occurrences are sent in chunks
+            List<Member> firsts = new ArrayList<>();
+            List<String> seen = new ArrayList<>();
+            for (Member m : chunked) {
+                String key = m.getMemberId().toLowerCase();
+                if (!seen.contains(key)) {
+                    seen.add(key);
+                    firsts.add(m);
+                }
+            }
+            for (int from = 0; from < firsts.size(); from += 20) {
+                incremental.merge(firsts.subList(from, Math.min(from + 20, firsts.size())), policy);
+            }
+
+            assertEquals(describe(rebuilt.getAllMembers()), describe(incremental.getAllMembers()), policy.name());
+            MemberRepository fresh = new MemberRepository();
+            fresh.replaceAllMembers(rebuilt.getAllMembers());
+            for (MemberRepository repo : List.of(rebuilt, incremental)) {
+                for (MemberQuery q : queries()) {
+                    assertEquals(ids(fresh.query(q)), ids(repo.query(q)), policy.name());
+                    assertEquals(fresh.count(q), repo.count(q), policy.name());
+                }
+                // lookups by ID, which a small merge updates in place and a big one swaps in
+                for (Member m : repo.getAllMembers()) assertSame(m, repo.findMemberById(m.getMemberId().toUpperCase()));
+                assertNull(repo.findMemberById("New0")); // even batch positions reuse an existing ID
+                for (String name : new String[] {"ann", "bo", "smith 3", "x", "new"}) {
+                    assertEquals(ids(fresh.findMembersByName(name)), ids(repo.findMembersByName(name)), name);
+                }
+            }
+        }
+    }
+
+    private static List<MemberQuery> queries() {
+        return List.of(
+                new MemberQuery(),
+                new MemberQuery().ageBetween(20, 30),
+                new MemberQuery().baseFeeBetween(30.0, 50.0).ofType(PremiumMember.class),
+                new MemberQuery().joinedBetween(JOIN, JOIN.plusDays(100)),
+                new MemberQuery().ofType(PersonalTrainingMember.class, RegularMember.class).ageBetween(40, 60));
+    }
+
+    private static MemberRepository roster(String... ids) {
+        MemberRepository repo = new MemberRepository();
+        for (int i = 0; i < ids.length; i++) repo.addMember(regular(ids[i], ids[i] + i));
+        return repo;
+    }
+
+    // fresh objects, so the two repositories never share a member or its history
+    private static List<Member> copies(List<Member> members) {
+        List<Member> out = new ArrayList<>();
+        for (Member m : members) {
+            Member c;
+            if (m instanceof PersonalTrainingMember pt) {
+                c = new PersonalTrainingMember(m.getMemberId(), m.getFirstName(), m.getLastName(), m.getAge(),
+                        m.getJoinDate(), m.getBaseFee(), pt.getSessionsPerMonth(), pt.getFeePerSession());
+            } else if (m instanceof PremiumMember pm) {
+                c = new PremiumMember(m.getMemberId(), m.getFirstName(), m.getLastName(), m.getAge(),
+                        m.getJoinDate(), m.getBaseFee(), pm.hasSpaAccess(), pm.getPremiumServiceFee());
+            } else {
+                c = new RegularMember(m.getMemberId(), m.getFirstName(), m.getLastName(), m.getAge(),
+                        m.getJoinDate(), m.getBaseFee());
+            }
+            for (Performance p : m.getPerformanceHistory()) c.addOrReplacePerformance(p);
+            out.add(c);
+        }
+        return out;
+    }
+
+    private static List<String> ids(List<Member> members) {
+        List<String> ids = new ArrayList<>();
+        for (Member m : members) ids.add(m.getMemberId());
+        return ids;
+    }
+}
@@ -0,0 +1,112 @@
+package com.gym.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.RegularMember;
+
+// findMembersByName must give what the linear scan it replaced gave: matches in repository order
+public class NameIndexTest {
+
+    private static final String[] FIRST = {"Anna", "Ann", "Hannah", "Joanna", "Bob", "Robert", "Zoe"};
+    private static final String[] LAST = {"Smith", "Smithson", "Nash", "Banner", "O'Brien", "Li"};
+
+    @Test
+    public void renamedMemberKeepsItsPlaceInResults() {
+        MemberRepository repo = new MemberRepository();
+        repo.addMember(member("A1", "Anna", "Smith"));
+        repo.addMember(member("A2", "Joanna", "Banner"));
+        repo.addMember(member("A3", "Hannah", "Nash"));
+
+        repo.replaceMember("A1", member("A1", "Annabel", "Smith"));
+
+        assertEquals(List.of("A1", "A2", "A3"), ids(repo.findMembersByName("ann")));
+        assertEquals(List.of("A1", "A2", "A3"), ids(repo.findMembersByName("an")));
+    }
+
+    @Test
+    public void searchMatchesLinearScanAfterRandomChanges() {
+        MemberRepository repo = new MemberRepository();
+        Random rnd = new Random(7);
+        int nextId = 0;
+        for (int i = 0; i < 300; i++) repo.addMember(randomMember("X" + nextId++, rnd));
+        for (int op = 0; op < 2000; op++) {
+            List<Member> all = repo.getAllMembers();
+            Member target = all.get(rnd.nextInt(all.size()));
+            switch (rnd.nextInt(3)) {
+            case 0 -> repo.replaceMember(target.getMemberId(), randomMember(target.getMemberId(), rnd));
+            case 1 -> repo.deleteMember(target.getMemberId());
+            default -> repo.addMember(randomMember("X" + nextId++, rnd));
+            }
+        }
+
+        for (String query : new String[] {"a", "an", "ann", "anna", "smith", "SMITHSON", "h s", "o'b", "li", "zzz"}) {
+            assertEquals(ids(scan(repo.getAllMembers(), query)), ids(repo.findMembersByName(query)), query);
+        }
+    }
+
+    @Test
+    public void searchMatchesLinearScanAfterMostMembersLeave() {
+        // enough removals that freed slots are renumbered, with renames and additions in between
+        MemberRepository repo = new MemberRepository();
+        Random rnd = new Random(11);
+        for (int i = 0; i < 2000; i++) repo.addMember(randomMember("Y" + i, rnd));
+        for (int round = 0; round < 3; round++) {
+            for (Member m : repo.getAllMembers()) {
+                if (rnd.nextInt(10) < 8) repo.deleteMember(m.getMemberId());
+                else if (rnd.nextBoolean()) repo.replaceMember(m.getMemberId(), randomMember(m.getMemberId(), rnd));
+            }
+            for (int i = 0; i < 1500; i++) repo.addMember(randomMember("Y" + round + "-" + i, rnd));
+            for (String query : new String[] {"a", "nn", "anna", "h s", "son", "bob smith", "ert o'b", "zoe li"}) {
+                assertEquals(ids(scan(repo.getAllMembers(), query)), ids(repo.findMembersByName(query)), query);
+            }
+        }
+    }
+
+    @Test
+    public void repeatedTrigramsInOneName() {
+        MemberRepository repo = new MemberRepository();
+        repo.addMember(member("B1", "Anana", "Banana"));
+        repo.addMember(member("B2", "Nan", "Ana"));
+        assertEquals(List.of("B1"), ids(repo.findMembersByName("banana")));
+        assertEquals(List.of("B1", "B2"), ids(repo.findMembersByName("ana")));
+        repo.replaceMember("B1", member("B1", "Ananas", "Bananas"));
+        assertEquals(List.of("B1"), ids(repo.findMembersByName("nanas")));
+        repo.replaceMember("B2", member("B2", "Bob", "Li"));
+        assertEquals(List.of("B1"), ids(repo.findMembersByName("ana")));
+        repo.deleteMember("B1");
+        assertEquals(List.of(), ids(repo.findMembersByName("ana")));
+    }
+
+    // The baseline: every member whose full name contains the text, ignoring case
+    private static List<Member> scan(List<Member> all, String text) {
+        String q = text.toLowerCase(Locale.ROOT);
+        List<Member> found = new ArrayList<>();
+        for (Member m : all) {
+            if ((m.getFirstName() + " " + m.getLastName()).toLowerCase(Locale.ROOT).contains(q)) found.add(m);
+        }
+        return found;
+    }
+
+    private static Member randomMember(String id, Random rnd) {
+        return member(id, FIRST[rnd.nextInt(FIRST.length)], LAST[rnd.nextInt(LAST.length)]);
+    }
+
+    private static Member member(String id, String first, String last) {
+        return new RegularMember(id, first, last, 30, LocalDate.of(2023, 1, 1), 40.0);
+    }
+
+    private static List<String> ids(List<Member> members) {
+        List<String> ids = new ArrayList<>();
+        for (Member m : members) ids.add(m.getMemberId());
+        return ids;
+    }
+}
@@ -0,0 +1,55 @@
+package com.gym.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+// The request parser takes flat objects of strings, numbers, booleans and nulls and refuses
+// anything else with IllegalArgumentException; quote() must give back what parseObject reads
+public class JsonTest {
+
+    @Test
+    public void parsesFlatObjects() {
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("month", "2024-03");
+        expected.put("rating", 4.0);
+        expected.put("goalAchieved", true);
+        expected.put("done", false);
+        expected.put("notes", null);
+        expected.put("big", -1.5e3);
+        assertEquals(expected, Json.parseObject(
+                " { \"month\" : \"2024-03\", \"rating\":4,\"goalAchieved\":true,\"done\":false,\"notes\":null,\"big\":-1.5e3 } "));
+        assertEquals(Map.of(), Json.parseObject("{}"));
+        assertEquals(List.of("a", "b"), List.copyOf(Json.parseObject("{\"a\":1,\"b\":2}").keySet())); // in order
+        assertEquals(Map.of("k", 2.0), Json.parseObject("{\"k\":1,\"k\":2}")); // last one wins
+    }
+
+    @Test
+    public void decodesEscapes() {
+        assertEquals("q\"b\\s/\b\f\n\r\té", Json.parseObject("{\"s\":\"q\\\"b\\\\s\\/\\b\\f\\n\\r\\t\\u00e9\"}").get("s"));
+    }
+
+    @Test
+    public void rejectsMalformedInput() {
+        for (String bad : Arrays.asList("", "   ", "null", "[]", "{", "}", "{\"a\"}", "{\"a\":}", "{\"a\":1,}",
+                "{\"a\":1 \"b\":2}", "{a:1}", "{\"a\":\"open}", "{\"a\":tru}", "{\"a\":1.2.3}", "{\"a\":--1}",
+                "{\"a\":\"\\x\"}", "{\"a\":\"\\u12\"}", "{\"a\":\"\\uzzzz\"}", "{\"a\":1} x", "{\"a\":{\"b\":1}}",
+                "{\"a\":[1]}")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parseObject(bad), bad);
+        }
+    }
+
+    @Test
+    public void quoteRoundTrips() {
+        for (String s : new String[] {"", "plain", "say \"hi\"", "back\\slash", "line\nbreak\r\ttab", "\u0001\u001f", "José 😀"}) {
+            assertEquals(s, Json.parseObject("{\"s\":" + Json.quote(s) + "}").get("s"), s);
+        }
+        assertEquals("\"\\u0001\"", Json.quote("\u0001"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.gym.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gym.billing.FeeCache;
+import com.gym.model.Performance;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// Every route answers with the documented status: 200/201 on success, 404 for unknown members
+// and paths, 405 for the wrong method, 400 for bad parameters and bodies; a refused request
+// changes nothing
+public class MemberHttpServerTest {
+
+    private static final LocalDate JOIN = LocalDate.of(2022, 5, 1);
+
+    private final MemberRepository repo = new MemberRepository();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MemberHttpServer server;
+
+    @BeforeEach
+    public void start() throws IOException {
+        repo.addMember(new RegularMember("M00000001", "Anna", "Smith", 30, JOIN, 40.0));
+        repo.addMember(new PremiumMember("legacy-7", "Bob", "Annan", 41, JOIN, 60.0, true, 15.0));
+        repo.recordPerformance("M00000001", new Performance("M00000001", YearMonth.of(2024, 1), true, 5, "good"));
+        server = new MemberHttpServer(repo, new FeeCache(100), p -> repo.recordPerformance(p.getMemberId(), p));
+        server.start(0);
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    @Test
+    public void getMember() throws Exception {
+        HttpResponse<String> r = send("GET", "/members/m00000001", null);
+        assertEquals(200, r.statusCode());
+        assertTrue(r.body().startsWith("{\"id\":\"M00000001\",\"type\":\"REGULAR\",\"firstName\":\"Anna\""), r.body());
+        assertTrue(r.body().endsWith(",\"performances\":[{\"month\":\"2024-01\",\"goalAchieved\":true,\"rating\":5,\"notes\":\"good\"}]}"),
+                r.body());
+        assertEquals("application/json; charset=utf-8", r.headers().firstValue("Content-Type").orElse(""));
+
+        assertStatus(404, "GET", "/members/nobody", null);
+        assertStatus(405, "DELETE", "/members/M00000001", null);
+        assertStatus(404, "GET", "/members/M00000001/history", null);
+        assertStatus(404, "GET", "/members/M00000001/fee/x", null);
+        assertStatus(404, "GET", "/members//fee", null);
+        assertStatus(404, "GET", "/membersx", null);
+    }
+
+    @Test
+    public void searchByName() throws Exception {
+        HttpResponse<String> r = send("GET", "/members?name=ann", null);
+        assertEquals(200, r.statusCode());
+        assertTrue(r.body().startsWith("{\"count\":2,\"members\":[{\"id\":\"M00000001\""), r.body());
+        assertTrue(!r.body().contains("performances"), r.body()); // no histories in search results
+
+        HttpResponse<String> limited = send("GET", "/members/?name=Ann&limit=1", null);
+        assertEquals(200, limited.statusCode());
+        assertTrue(limited.body().startsWith("{\"count\":2,\"members\":[{"), limited.body());
+        assertEquals(1, limited.body().split("\"id\"").length - 1);
+        assertEquals("{\"count\":0,\"members\":[]}", send("GET", "/members?name=zz%20top", null).body());
+
+        assertStatus(400, "GET", "/members", null);
+        assertStatus(400, "GET", "/members?name=ann&limit=ten", null);
+        assertStatus(400, "GET", "/members?name=ann&limit=-1", null);
+        assertStatus(405, "POST", "/members?name=ann", "{}");
+    }
+
+    @Test
+    public void feeForMonth() throws Exception {
+        HttpResponse<String> r = send("GET", "/members/M00000001/fee?month=2024-01", null);
+        assertEquals(200, r.statusCode());
+        assertEquals("{\"memberId\":\"M00000001\",\"type\":\"REGULAR\",\"month\":\"2024-01\",\"base\":40.0,\"extras\":0.0,"
+                + "\"discount\":4.0,\"penalty\":0.0,\"total\":36.0}", r.body());
+
+        assertStatus(400, "GET", "/members/M00000001/fee", null);
+        assertStatus(400, "GET", "/members/M00000001/fee?month=2024-13", null);
+        assertStatus(404, "GET", "/members/nobody/fee?month=2024-13", null); // unknown member first
+        assertStatus(405, "POST", "/members/M00000001/fee?month=2024-01", "{}");
+    }
+
+    @Test
+    public void recordPerformance() throws Exception {
+        HttpResponse<String> r = send("POST", "/members/legacy-7/performances",
+                "{\"month\":\"2024-02\",\"goalAchieved\":false,\"rating\":2,\"notes\":\"tired, \\\"sore\\\"\"}");
+        assertEquals(201, r.statusCode());
+        assertEquals("{\"month\":\"2024-02\",\"goalAchieved\":false,\"rating\":2,\"notes\":\"tired, \\\"sore\\\"\"}", r.body());
+        assertEquals(List.of("tired, \"sore\""), repo.read("legacy-7", m -> List.of(m.getPerformanceHistory().get(0).getNotes())));
+        // goalAchieved and notes are optional
+        assertEquals(201, send("POST", "/members/LEGACY-7/performances", "{\"month\":\"2024-03\",\"rating\":4.0}").statusCode());
+
+        assertStatus(404, "POST", "/members/nobody/performances", "{\"month\":\"2024-02\",\"rating\":2}");
+        assertStatus(405, "GET", "/members/legacy-7/performances", null);
+        assertEquals(2, (int) repo.read("legacy-7", m -> m.getPerformanceHistory().size()));
+    }
+
+    @Test
+    public void badBodiesAreRefused() throws Exception {
+        String[] bodies = {
+                "", "not json", "{", "{\"month\":\"2024-02\",\"rating\":2,}", "{\"month\":\"2024-02\",\"rating\":2} trailing",
+                "{\"rating\":2}", "{\"month\":\"Feb\",\"rating\":2}", "{\"month\":202402,\"rating\":2}",
+                "{\"month\":\"2024-02\"}", "{\"month\":\"2024-02\",\"rating\":0}", "{\"month\":\"2024-02\",\"rating\":6}",
+                "{\"month\":\"2024-02\",\"rating\":4.5}", "{\"month\":\"2024-02\",\"rating\":\"4\"}",
+                "{\"month\":\"2024-02\",\"rating\":4,\"goalAchieved\":\"yes\"}",
+                "{\"month\":\"2024-02\",\"rating\":4,\"notes\":5}",
+                "{\"month\":\"2024-02\",\"rating\":4,\"notes\":\"two\\nlines\"}",
+                "{\"month\":\"2024-02\",\"rating\":4,\"notes\":\"cr\\r\"}",
+                "{\"month\":\"2024-02\",\"rating\":4,\"notes\":\"nul\\u0000\"}",
+                "{\"month\":\"2024-02\",\"rating\":4,\"notes\":\"" + "x".repeat(70_000) + "\"}",
+        };
+        for (String body : bodies) {
+            HttpResponse<String> r = send("POST", "/members/M00000001/performances", body);
+            assertEquals(400, r.statusCode(), body.length() > 100 ? "large body" : body);
+            assertTrue(r.body().startsWith("{\"error\":"), r.body());
+        }
+        assertEquals(1, (int) repo.read("M00000001", m -> m.getPerformanceHistory().size()));
+    }
+
+    private void assertStatus(int status, String method, String path, String body) throws Exception {
+        HttpResponse<String> r = send(method, path, body);
+        assertEquals(status, r.statusCode(), method + " " + path + ": " + r.body());
+        assertTrue(r.body().startsWith("{\"error\":"), r.body());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
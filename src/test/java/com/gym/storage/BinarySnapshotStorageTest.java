@@ -0,0 +1,164 @@
+package com.gym.storage;
+
+import static com.gym.TestMembers.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// A snapshot must give back exactly the members that were saved, and a damaged one must fail
+// with an IOException instead of whatever the byte buffer throws
+public class BinarySnapshotStorageTest {
+
+    // header ints and long before the string table
+    private static final int HEADER_BYTES = 24;
+
+    @TempDir
+    Path dir;
+
+    private final BinarySnapshotStorage snapshots = new BinarySnapshotStorage();
+
+    @Test
+    public void roundTripIsLossless() throws IOException {
+        List<Member> members = roster();
+        String file = snapshots.save(members, dir.resolve("snap/roster.bin").toString());
+
+        assertEquals(describe(members), describe(snapshots.load(file)));
+        // nothing left behind by the atomic replace
+        assertEquals(List.of(dir.resolve("snap/roster.bin")), list(dir.resolve("snap")));
+    }
+
+    @Test
+    public void repositorySaveMatchesListSave() throws IOException {
+        MemberRepository repo = new MemberRepository();
+        repo.replaceAllMembers(roster());
+        String file = snapshots.save(repo, dir.resolve("repo.bin").toString());
+
+        assertEquals(describe(repo.getAllMembers()), describe(snapshots.load(file)));
+        assertEquals(Arrays.toString(BinarySnapshotStorage.encode(repo.getAllMembers())),
+                Arrays.toString(Files.readAllBytes(Path.of(file))));
+    }
+
+    @Test
+    public void everyTruncationFailsWithIOException() {
+        byte[] full = BinarySnapshotStorage.encode(roster());
+        for (int len = 0; len < full.length; len++) {
+            ByteBuffer cut = ByteBuffer.wrap(Arrays.copyOf(full, len));
+            assertThrows(IOException.class, () -> BinarySnapshotStorage.decode(cut, "cut"), "length " + len);
+        }
+    }
+
+    @Test
+    public void corruptLengthsAndIndexesFailWithIOException() {
+        byte[] full = BinarySnapshotStorage.encode(roster());
+        int membersAt = membersAt(full);
+
+        // negative and oversized string lengths
+        assertCorrupt(full, HEADER_BYTES, -5);
+        assertCorrupt(full, HEADER_BYTES, Integer.MAX_VALUE);
+        // string count, member count and performance count out of range
+        assertCorrupt(full, 8, -1);
+        assertCorrupt(full, 8, Integer.MAX_VALUE);
+        assertCorrupt(full, 12, -1);
+        assertCorrupt(full, 12, Integer.MAX_VALUE);
+        assertCorrupt(full, 16, -1);
+        // string indexes of the first member's ID and first name
+        assertCorrupt(full, membersAt, 9999);
+        assertCorrupt(full, membersAt + 5, -1);
+        // an unknown member type
+        byte[] badType = full.clone();
+        badType[membersAt + 4] = 7;
+        assertThrows(IOException.class, () -> BinarySnapshotStorage.decode(ByteBuffer.wrap(badType), "type"));
+        // a join date LocalDate cannot hold
+        ByteBuffer badDate = ByteBuffer.wrap(full.clone());
+        badDate.putLong(membersAt + 17, Long.MAX_VALUE);
+        assertThrows(IOException.class, () -> BinarySnapshotStorage.decode(badDate, "date"));
+    }
+
+    @Test
+    public void corruptPerformanceOffsetsFailWithIOException() {
+        List<Member> members = roster();
+        byte[] full = BinarySnapshotStorage.encode(members);
+        int offsetsAt = membersAt(full) + members.size() * (4 + 1 + 4 + 4 + 4 + 8 + 8 + 4 + 8 + 1 + 8);
+
+        for (long bad : new long[] {-1, 1, Long.MAX_VALUE}) {
+            ByteBuffer buf = ByteBuffer.wrap(full.clone());
+            buf.putLong(offsetsAt, bad); // the first member's history no longer starts at 0
+            assertThrows(IOException.class, () -> BinarySnapshotStorage.decode(buf, "offsets"), "offset " + bad);
+        }
+        ByteBuffer past = ByteBuffer.wrap(full.clone());
+        past.putLong(offsetsAt + members.size() * 8, 1000); // end beyond the performance count
+        assertThrows(IOException.class, () -> BinarySnapshotStorage.decode(past, "end"));
+    }
+
+    @Test
+    public void notASnapshotFailsWithIOException() throws IOException {
+        Path csv = dir.resolve("members.csv");
+        Files.writeString(csv, "id,type,firstName,lastName,age,joinDate,baseFee\n");
+        assertThrows(IOException.class, () -> snapshots.load(csv.toString()));
+    }
+
+    // All three types, notes that would need quoting in a CSV, and IDs in every form
+    private static List<Member> roster() {
+        List<Member> members = new ArrayList<>();
+        Member regular = new RegularMember("M0a1b2c3d", "Anna", "Smith", 30, LocalDate.of(2021, 3, 4), 45.5);
+        regular.addOrReplacePerformance(new Performance("M0a1b2c3d", YearMonth.of(2024, 1), true, 5, "great, \"really\""));
+        regular.addOrReplacePerformance(new Performance("M0a1b2c3d", YearMonth.of(2024, 2), false, 1, "line one\nline two\r\n"));
+        members.add(regular);
+
+        // upper-case hex and free-form IDs are kept as written
+        Member pt = new PersonalTrainingMember("M0A1B2C3E", "Bob", "O'Brien, Jr", 41, LocalDate.of(1999, 12, 31),
+                30.125, 8, 25.1);
+        pt.addOrReplacePerformance(new Performance("M0A1B2C3E", YearMonth.of(1999, 12), true, 3, ""));
+        members.add(pt);
+
+        Member premium = new PremiumMember("legacy-77", "José", "Müller", 33, LocalDate.of(2022, 2, 28),
+                0.1 + 0.2, true, 9.99);
+        premium.addOrReplacePerformance(new Performance("legacy-77", YearMonth.of(2023, 7), false, 4, "Ünïcode, \"notes\""));
+        premium.addOrReplacePerformance(new Performance("legacy-77", YearMonth.of(2023, 8), true, 2, "great, \"really\""));
+        members.add(premium);
+
+        members.add(new PremiumMember("c 12", "No", "History", 70, LocalDate.of(2020, 1, 1), 60.0, false, 0.0));
+        // a generated ID, held packed
+        members.add(new RegularMember("Eve", "Ng", 19, LocalDate.of(2023, 5, 6), 35.0));
+        return members;
+    }
+
+    // Position of the first member record, just past the string table
+    private static int membersAt(byte[] snapshot) {
+        ByteBuffer buf = ByteBuffer.wrap(snapshot);
+        int at = HEADER_BYTES;
+        for (int i = buf.getInt(8); i > 0; i--) at += 4 + buf.getInt(at);
+        return at;
+    }
+
+    private static void assertCorrupt(byte[] snapshot, int at, int value) {
+        ByteBuffer buf = ByteBuffer.wrap(snapshot.clone());
+        buf.putInt(at, value);
+        assertThrows(IOException.class, () -> BinarySnapshotStorage.decode(buf, "corrupt"), at + " = " + value);
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.gym.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+
+// CSV headers and helpers shared by the storage tests
+final class CsvFixtures {
+
+    static final String MEMBERS_HEADER =
+            "id,type,firstName,lastName,age,joinDate,baseFee,sessionsPerMonth,feePerSession,spaAccess,premiumServiceFee";
+    static final String PERFORMANCES_HEADER = "memberId,month,goalAchieved,rating,notes";
+
+    private CsvFixtures() {}
+
+    static Path write(Path dir, String name, String text) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // Class plus every written field, so any difference in a parsed value shows up
+    static List<String> memberRows(List<Member> members) {
+        List<String> rows = new ArrayList<>();
+        for (Member m : members) rows.add(m.getClass().getSimpleName() + ":" + CsvStorage.memberRow(m));
+        return rows;
+    }
+
+    static List<String> rows(List<Performance> performances) {
+        List<String> rows = new ArrayList<>();
+        for (Performance p : performances) rows.add(CsvStorage.performanceRow(p));
+        return rows;
+    }
+}
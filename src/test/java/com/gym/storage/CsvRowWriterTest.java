@@ -0,0 +1,163 @@
+package com.gym.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.PersonalTrainingMember;
+import com.gym.model.PremiumMember;
+import com.gym.model.RegularMember;
+
+// CsvRowWriter must write character for character what the String.join / String.format / esc
+// rows it replaced wrote; the old code is kept below as the reference
+public class CsvRowWriterTest {
+
+    private static final LocalDate JOIN = LocalDate.of(2021, 3, 4);
+
+    // Rounding ties, values just either side of them, the fast path's limits and the slow-path cases
+    private static final double[] AMOUNTS = {
+            0.0, -0.0, 0.001, 0.004999, 0.005, 0.015, 0.025, 0.125, 0.994999, 0.995, 0.999,
+            1.005, 1.015, 2.675, 10.0, 45.5, 99.99, 100.045, 123456.785, 1234567.125,
+            9999999.99, 9999999.994, 9999999.995, 1e7 - 1e-9, 1e7, 1e7 + 0.005, 1e12, 1e300,
+            Double.MIN_VALUE, 1e-300, Double.MAX_VALUE,
+            -0.005, -1.5, -45.555, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+    };
+    private static final int[] INTS = {0, 1, 9, 10, 99, 100, 12345, Integer.MAX_VALUE, -1, -10, Integer.MIN_VALUE};
+    private static final String[] TEXTS = {
+            "", "Anna", "Smith, Jr", "O\"Brien", "\"\"", "\"", "a,\"b\",c", "line one\nline two\r\n",
+            "José Müller", "emoji 😀", " padded ",
+    };
+
+    @Test
+    public void memberRowsMatchOldFormatting() {
+        for (double fee : AMOUNTS) {
+            assertMember(new RegularMember("M0a1b2c3d", "Anna", "Smith", 30, JOIN, fee));
+            assertMember(new PersonalTrainingMember("legacy-1", "Bob", "Jones", 41, JOIN, 30.0, 8, fee));
+            assertMember(new PremiumMember("M0A1B2C3D", "Cara", "Lee", 27, JOIN, fee, true, fee));
+        }
+        for (int n : INTS) {
+            assertMember(new RegularMember("C-77", "Dana", "Fox", n, JOIN, 35.0));
+            assertMember(new PersonalTrainingMember("C-78", "Dana", "Fox", 20, JOIN, 35.0, n, 20.0));
+        }
+        for (String s : TEXTS) {
+            assertMember(new PremiumMember("x", s, s, 33, JOIN, 55.0, false, 0.0));
+        }
+        for (LocalDate d : new LocalDate[] {LocalDate.of(0, 1, 1), LocalDate.of(999, 12, 31), LocalDate.of(9999, 12, 31),
+                LocalDate.of(10000, 1, 1), LocalDate.of(-1, 6, 15), LocalDate.MIN, LocalDate.MAX}) {
+            assertMember(new RegularMember("M00000001", "Eve", "Ng", 19, d, 35.0));
+        }
+        // a generated ID, written from its packed form
+        assertMember(new RegularMember("Gus", "Hill", 44, JOIN, 50.0));
+    }
+
+    @Test
+    public void performanceRowsMatchOldFormatting() {
+        for (String notes : TEXTS) {
+            assertPerformance(new Performance("M0a1b2c3d", YearMonth.of(2024, 1), true, 5, notes));
+        }
+        assertPerformance(new Performance("M0a1b2c3d", YearMonth.of(2024, 1), false, 1, null));
+        for (YearMonth ym : new YearMonth[] {YearMonth.of(0, 1), YearMonth.of(999, 12), YearMonth.of(9999, 12),
+                YearMonth.of(10000, 1), YearMonth.of(-1, 6), YearMonth.of(-999_999_999, 1), YearMonth.of(999_999_999, 12)}) {
+            assertPerformance(new Performance("legacy-1", ym, false, 3, "n"));
+        }
+        for (int rating = 1; rating <= 5; rating++) {
+            assertPerformance(new Performance("C-77", YearMonth.of(2024, rating), rating % 2 == 0, rating, ""));
+        }
+    }
+
+    @Test
+    public void randomAmountsMatchOldFormatting() {
+        Random rnd = new Random(13);
+        for (int i = 0; i < 200_000; i++) {
+            double fee;
+            switch (i % 4) {
+            case 0:  fee = rnd.nextInt(1_000_000) / 100.0; break;             // whole cents
+            case 1:  fee = rnd.nextInt(10_000_000) / 1000.0; break;           // half-cent ties among them
+            case 2:  fee = rnd.nextDouble() * 1e7; break;                     // anywhere on the fast path
+            default: fee = Double.longBitsToDouble(rnd.nextLong()); break;    // any bit pattern
+            }
+            assertMember(new PremiumMember("M00000002", "Ida", "Ray", 30, JOIN, fee, true, fee));
+        }
+    }
+
+    @Test
+    public void unknownSubtypeIsSkipped() {
+        Member other = new Member("M00000003", "Hal", "Ito", 40, JOIN, 10.0) {
+            @Override
+            public double calculateMonthlyFee(YearMonth month) {
+                return 0;
+            }
+        };
+        assertNull(CsvStorage.memberRow(other));
+    }
+
+    private static void assertMember(Member m) {
+        assertEquals(oldMemberRow(m), CsvStorage.memberRow(m), () -> "fee " + m.getBaseFee());
+    }
+
+    private static void assertPerformance(Performance p) {
+        assertEquals(oldPerformanceRow(p), CsvStorage.performanceRow(p));
+    }
+
+    // The rows saveMembersToFile and savePerformancesToFile wrote before CsvRowWriter
+
+    private static String oldMemberRow(Member m) {
+        String type;
+        String sessions = "";
+        String feePerSession = "";
+        String spaAccess = "";
+        String premiumFee = "";
+        if (m instanceof RegularMember) {
+            type = "REGULAR";
+        } else if (m instanceof PersonalTrainingMember pt) {
+            type = "PT";
+            sessions = String.valueOf(pt.getSessionsPerMonth());
+            feePerSession = formatDouble(pt.getFeePerSession());
+        } else if (m instanceof PremiumMember pm) {
+            type = "PREMIUM";
+            spaAccess = String.valueOf(pm.hasSpaAccess());
+            premiumFee = formatDouble(pm.getPremiumServiceFee());
+        } else {
+            return null;
+        }
+        return String.join(",",
+                m.getMemberId(),
+                type,
+                esc(m.getFirstName()),
+                esc(m.getLastName()),
+                String.valueOf(m.getAge()),
+                m.getJoinDate().toString(),
+                formatDouble(m.getBaseFee()),
+                sessions,
+                feePerSession,
+                spaAccess,
+                premiumFee);
+    }
+
+    private static String oldPerformanceRow(Performance p) {
+        return String.join(",",
+                p.getMemberId(),
+                p.getMonth().toString(),
+                String.valueOf(p.getGoalAchieved()),
+                String.valueOf(p.getRating()),
+                esc(p.getNotes()));
+    }
+
+    private static String formatDouble(double d) {
+        return String.format(Locale.ROOT, "%.2f", d);
+    }
+
+    private static String esc(String s) {
+        if (s == null) return "";
+        String v = s.replace("\"", "\"\"");
+        return "\"" + v + "\"";
+    }
+}
@@ -0,0 +1,117 @@
+package com.gym.storage;
+
+import static com.gym.storage.CsvFixtures.MEMBERS_HEADER;
+import static com.gym.storage.CsvFixtures.PERFORMANCES_HEADER;
+import static com.gym.storage.CsvFixtures.memberRows;
+import static com.gym.storage.CsvFixtures.rows;
+import static com.gym.storage.CsvFixtures.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+
+// The streams give what the list loaders give, row by row: same rows skipped, same errors,
+// but only as far as the stream is read, and the file stays open only until the stream is closed
+public class CsvStorageStreamTest {
+
+    @TempDir
+    Path dir;
+
+    private final CsvStorage storage = new CsvStorage();
+
+    @Test
+    public void rowsAreSkippedAsLoadMembersSkipsThem() throws IOException {
+        Path file = write(dir, "members.csv", String.join("\n",
+                MEMBERS_HEADER,
+                "M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,",
+                "",
+                "too,few,columns",
+                "M00000002,GOLD,\"Bob\",\"Jones\",41,2020-12-31,30.00,,,,", // unknown type
+                "M00000003,PT,\"Cara\",\"Lee, \"\"CL\"\"\",27,2019-01-01,30.00,8,25.00,,",
+                "legacy-4,PREMIUM,\"Dan\",\"Ng\",50,2018-06-30,60.00,,,yes,15.25",
+                ""));
+
+        List<Member> loaded = storage.loadMembers(file.toString());
+        assertEquals(3, loaded.size());
+        try (Stream<Member> members = storage.streamMembers(file.toString())) {
+            assertEquals(memberRows(loaded), memberRows(members.collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    public void performanceRowsAreSkippedAsLoadPerformancesSkipsThem() throws IOException {
+        Path file = write(dir, "performances.csv", String.join("\r\n",
+                PERFORMANCES_HEADER,
+                "M00000001,2024-01,true,5,\"great\"",
+                "M00000001,2024-02",                    // too few columns
+                "M00000001,2024-03,false,9,\"clamped\"", // rating out of range
+                "legacy-4,2024-04,yes,2"));
+
+        List<Performance> loaded = storage.loadPerformances(file.toString());
+        assertEquals(3, loaded.size());
+        try (Stream<Performance> performances = storage.streamPerformances(file.toString())) {
+            assertEquals(rows(loaded), rows(performances.collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    public void rowsAreParsedOnlyAsFarAsTheStreamIsRead() throws IOException {
+        Path file = write(dir, "members.csv", MEMBERS_HEADER + "\n"
+                + "M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,\n"
+                + "M00000002,REGULAR,\"Bob\",\"Jones\",41,2020-13-31,30.00,,,,\n"); // bad join date
+
+        assertThrows(DateTimeParseException.class, () -> storage.loadMembers(file.toString()));
+        try (Stream<Member> members = storage.streamMembers(file.toString())) {
+            Optional<Member> first = members.findFirst(); // the second row is never parsed
+            assertEquals("Anna", first.get().getFirstName());
+        }
+        try (Stream<Member> members = storage.streamMembers(file.toString())) {
+            assertThrows(DateTimeParseException.class, () -> members.count());
+        }
+    }
+
+    @Test
+    public void closingTheStreamClosesTheFile() throws IOException {
+        StringBuilder sb = new StringBuilder(PERFORMANCES_HEADER).append('\n');
+        // well past the reader's buffer, so later rows still have to come from the file
+        for (int i = 0; i < 5_000; i++) sb.append("M00000001,2024-01,true,3,\"row ").append(i).append("\"\n");
+        Path file = write(dir, "performances.csv", sb.toString());
+
+        Stream<Performance> performances = storage.streamPerformances(file.toString());
+        Iterator<Performance> it = performances.iterator();
+        assertEquals("row 0", it.next().getNotes());
+        performances.close();
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> {
+            while (it.hasNext()) it.next();
+        });
+        assertTrue(e.getCause().getMessage().contains("closed"), e.getCause().getMessage());
+    }
+
+    @Test
+    public void missingFileIsAnEmptyStream() throws IOException {
+        String missing = dir.resolve("none.csv").toString();
+        try (Stream<Member> members = storage.streamMembers(missing)) {
+            assertEquals(0, members.count());
+        }
+        try (Stream<Performance> performances = storage.streamPerformances(missing)) {
+            assertEquals(0, performances.count());
+        }
+        assertEquals(List.of(), storage.loadMembers(missing));
+    }
+}
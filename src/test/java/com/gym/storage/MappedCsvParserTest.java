@@ -0,0 +1,98 @@
+package com.gym.storage;
+
+import static com.gym.storage.CsvFixtures.MEMBERS_HEADER;
+import static com.gym.storage.CsvFixtures.PERFORMANCES_HEADER;
+import static com.gym.storage.CsvFixtures.memberRows;
+import static com.gym.storage.CsvFixtures.rows;
+import static com.gym.storage.CsvFixtures.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+
+// The memory-mapped loaders must return exactly what the BufferedReader loaders return
+public class MappedCsvParserTest {
+
+    @TempDir
+    Path dir;
+
+    private final CsvStorage storage = new CsvStorage();
+
+    @Test
+    public void membersMatchStringParser() throws IOException {
+        Path file = write(dir, "members.csv", String.join("\n",
+                MEMBERS_HEADER,
+                "M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,",
+                "M00000002,PT,\"Bob\",\"Jones\",41,2020-12-31,30.00,8,25.00,,",
+                "M00000003,PREMIUM,\"Cara\",\"Lee\",27,2019-01-01,60.00,,,true,15.25",
+                // quoted commas, doubled quotes and non-ASCII names
+                "M00000004,REGULAR,\"Smith, Jr\",\"O\"\"Brien\",52,2018-07-15,40.00,,,,",
+                "M00000005,premium,\"José\",\"Müller\",33,2022-02-28,55.00,,,yes,9.99",
+                "C-77, PT ,Dana,  Fox  ,19,2023-05-06,35,4,20,,",
+                // fallback values: bad numbers become 0, a missing spa flag false
+                "M00000006,REGULAR,\"Eve\",\"Ng\",abc,2020-01-01,xyz,,,,",
+                "M00000007,PT,\"Finn\",\"Ray\",,2020-01-01,,many,lots,,",
+                "M00000008,PREMIUM,\"Gus\",\"Hill\",44,2020-01-01,50.00,,,maybe,",
+                // skipped: unknown type and too few columns
+                "M00000009,GOLD,\"Hal\",\"Ito\",40,2020-01-01,10.00,,,,",
+                "M0000000a,REGULAR,\"Ida\"",
+                ""));
+        assertSameMembers(file, 9);
+    }
+
+    @Test
+    public void membersMatchWithCrlfAndLoneCr() throws IOException {
+        Path file = write(dir, "members.csv", MEMBERS_HEADER + "\r\n"
+                + "M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-03-04,45.50,,,,\r\n"
+                + "M00000002,PT,\"Bob\",\"Jones\",41,2020-12-31,30.00,8,25.00,,\r"
+                + "M00000003,PREMIUM,\"Cara\",\"Lee, \"\"CL\"\"\",27,2019-01-01,60.00,,,true,15.25\r\n"
+                + "\r\n");
+        assertSameMembers(file, 3);
+    }
+
+    @Test
+    public void badJoinDateFailsBothWays() throws IOException {
+        Path file = write(dir, "members.csv", MEMBERS_HEADER + "\n"
+                + "M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-13-04,45.50,,,,\n");
+        assertThrows(DateTimeParseException.class, () -> storage.loadMembers(file.toString()));
+        assertThrows(DateTimeParseException.class, () -> storage.loadMembersMapped(file.toString()));
+    }
+
+    @Test
+    public void performancesMatchStringParser() throws IOException {
+        Path file = write(dir, "performances.csv", String.join("\r\n",
+                PERFORMANCES_HEADER,
+                "M00000001,2024-01,true,5,\"great\"",
+                "M00000001,2024-02,false,1,\"said \"\"no\"\", then yes\"",
+                "M00000002,2024-03,yes,4,",
+                "M00000002,2024-04,TRUE,2",
+                "C-77,2024-05,false,3,\"Ünïcode notes\"",
+                // fallback values: a bad month becomes the current one, a bad rating 3
+                "M00000003,2024-13,true,4,\"bad month\"",
+                "M00000003,2024-06,true,x,\"bad rating\"",
+                "M00000003,2024-07,true,9,\"out of range\"",
+                // skipped: too few columns
+                "M00000004,2024-01,true",
+                ""));
+        List<Performance> expected = storage.loadPerformances(file.toString());
+        List<Performance> mapped = storage.loadPerformancesMapped(file.toString());
+        assertEquals(8, expected.size());
+        assertEquals(rows(expected), rows(mapped));
+    }
+
+    private void assertSameMembers(Path file, int count) throws IOException {
+        List<Member> expected = storage.loadMembers(file.toString());
+        assertEquals(count, expected.size());
+        List<Member> mapped = storage.loadMembersMapped(file.toString());
+        assertEquals(memberRows(expected), memberRows(mapped));
+    }
+}
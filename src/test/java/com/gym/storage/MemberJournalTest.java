@@ -0,0 +1,174 @@
+package com.gym.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// A crash can cut the last journal record short; recovery must replay every complete record,
+// drop the torn one, and leave a journal that later records can be appended to
+public class MemberJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final CsvStorage storage = new CsvStorage();
+
+    @Test
+    public void recoversAfterTruncatedLastLine() throws IOException {
+        MemberRepository repo = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            journal.recover(repo);
+            Member anna = member("M00000001", "Anna");
+            repo.addMember(anna);
+            journal.memberSaved(anna);
+            Member bob = member("M00000002", "Bob");
+            repo.addMember(bob);
+            journal.memberSaved(bob);
+            Performance p = new Performance("M00000001", YearMonth.of(2024, 3), true, 5, "first");
+            repo.recordPerformance("M00000001", p);
+            journal.performanceSaved(p);
+            repo.deleteMember("M00000002");
+            journal.memberDeleted("M00000002");
+        }
+        // the crash: a record for Anna cut off mid-rating, which would still parse as rating 4
+        Files.write(dir.resolve("journal.log"), "P,M00000001,2024-04,false,4".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        MemberRepository recovered = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            assertEquals(4, journal.recover(recovered));
+        }
+        assertEquals(List.of("M00000001"), ids(recovered.getAllMembers()));
+        assertEquals(List.of("M00000001,2024-03,true,5,\"first\""), history(recovered, "M00000001"));
+        // folded into the snapshot: the torn record is gone for good
+        assertEquals(0, Files.size(dir.resolve("journal.log")));
+        assertEquals(List.of("M00000001"), ids(storage.loadMembers(dir.resolve("members.csv").toString())));
+    }
+
+    @Test
+    public void recordsAfterRecoveryAreReplayed() throws IOException {
+        Files.write(dir.resolve("journal.log"), ("M," + CsvStorage.memberRow(member("M00000001", "Anna")) + "\r\n"
+                + "P,M00000001,2024-0").getBytes(StandardCharsets.UTF_8));
+
+        MemberRepository repo = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            assertEquals(1, journal.recover(repo));
+            Performance p = new Performance("M00000001", YearMonth.of(2024, 5), false, 2, "");
+            repo.recordPerformance("M00000001", p);
+            journal.performanceSaved(p);
+            Member cara = member("M00000003", "Cara");
+            repo.addMember(cara);
+            journal.memberSaved(cara);
+        }
+
+        MemberRepository recovered = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            assertEquals(2, journal.recover(recovered));
+        }
+        assertEquals(List.of("M00000001", "M00000003"), ids(recovered.getAllMembers()));
+        assertEquals(List.of("M00000001,2024-05,false,2,\"\""), history(recovered, "M00000001"));
+        assertNull(recovered.findMemberById("M00000002"));
+    }
+
+    @Test
+    public void badRecordInTheMiddleFailsRecoveryAndKeepsTheLog() throws IOException {
+        Path log = dir.resolve("journal.log");
+        byte[] contents = ("M," + CsvStorage.memberRow(member("M00000001", "Anna")) + "\n"
+                + "P,M00000001,2024-03\n" // cut short, yet followed by a good record
+                + "M," + CsvStorage.memberRow(member("M00000002", "Bob")) + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.write(log, contents);
+
+        MemberRepository repo = new MemberRepository();
+        repo.addMember(member("M00000009", "Untouched"));
+        try (MemberJournal journal = journal()) {
+            IOException e = assertThrows(IOException.class, () -> journal.recover(repo));
+            assertTrue(e.getMessage().contains("record 2"), e.getMessage());
+            // nothing may be appended after, or checkpointed over, the records still in the log
+            assertThrows(IOException.class, () -> journal.memberSaved(member("M00000003", "Cara")));
+            assertThrows(IOException.class, () -> journal.checkpoint(repo));
+        }
+        assertArrayEquals(contents, Files.readAllBytes(log));
+        assertEquals(List.of("M00000009"), ids(repo.getAllMembers()));
+    }
+
+    @Test
+    public void lineBreaksAndBackslashesInRecordsRoundTrip() throws IOException {
+        String notes = "first line\nsecond\r\nthird \\n not a break, C:\\temp\\";
+        MemberRepository repo = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            journal.recover(repo);
+            Member anna = new RegularMember("M00000001", "Anna\nMarie", "Smith", 30, LocalDate.of(2023, 1, 1), 40.0);
+            repo.addMember(anna);
+            journal.memberSaved(anna);
+            Performance p = new Performance("M00000001", YearMonth.of(2024, 3), true, 5, notes);
+            repo.recordPerformance("M00000001", p);
+            journal.performanceSaved(p);
+            Member bob = member("M00000002", "Bob");
+            repo.addMember(bob);
+            journal.memberSaved(bob);
+        }
+        assertEquals(3, Files.readAllLines(dir.resolve("journal.log")).size()); // one line per record
+
+        MemberRepository recovered = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            assertEquals(3, journal.recover(recovered));
+        }
+        assertEquals(List.of("M00000001", "M00000002"), ids(recovered.getAllMembers()));
+        assertEquals("Anna\nMarie", recovered.findMemberById("M00000001").getFirstName());
+        assertEquals(notes, recovered.read("M00000001", m -> m.getPerformanceHistory().get(0).getNotes()));
+    }
+
+    @Test
+    public void backslashesFromOlderLogsAreKept() throws IOException {
+        Files.write(dir.resolve("journal.log"), ("M," + CsvStorage.memberRow(member("M00000001", "Anna")) + "\n"
+                + "P,M00000001,2024-03,true,5,\"C:\\temp\\x\"\n").getBytes(StandardCharsets.UTF_8));
+        MemberRepository repo = new MemberRepository();
+        try (MemberJournal journal = journal()) {
+            assertEquals(2, journal.recover(repo));
+        }
+        assertEquals("C:\\temp\\x", repo.read("M00000001", m -> m.getPerformanceHistory().get(0).getNotes()));
+    }
+
+    private MemberJournal journal() {
+        return new MemberJournal(storage, dir.resolve("journal.log").toString(),
+                dir.resolve("members.csv").toString(), dir.resolve("performances.csv").toString(), 200);
+    }
+
+    private static Member member(String id, String first) {
+        return new RegularMember(id, first, "Smith", 30, LocalDate.of(2023, 1, 1), 40.0);
+    }
+
+    private static List<String> ids(List<Member> members) {
+        List<String> ids = new ArrayList<>();
+        for (Member m : members) ids.add(m.getMemberId());
+        return ids;
+    }
+
+    private static List<String> history(MemberRepository repo, String id) {
+        return repo.read(id, m -> {
+            List<String> rows = new ArrayList<>();
+            for (Performance p : m.getPerformanceHistory()) rows.add(CsvStorage.performanceRow(p));
+            return rows;
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package com.gym.storage;
+
+import static com.gym.storage.CsvFixtures.MEMBERS_HEADER;
+import static com.gym.storage.CsvFixtures.PERFORMANCES_HEADER;
+import static com.gym.storage.CsvFixtures.memberRows;
+import static com.gym.storage.CsvFixtures.rows;
+import static com.gym.storage.CsvFixtures.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+
+// The parallel loaders must return exactly what the BufferedReader loaders return, in file order,
+// for files big enough to be split into many chunks
+public class ParallelCsvLoaderTest {
+
+    // comfortably above the size the loader starts splitting at
+    private static final int TARGET_BYTES = 3 << 20;
+    private static final int[] THREADS = {1, 2, 3, 8};
+
+    @TempDir
+    Path dir;
+
+    private final CsvStorage storage = new CsvStorage();
+
+    @Test
+    public void membersMatchWithEveryLineEnding() throws IOException {
+        for (String eol : new String[] {"\n", "\r\n", "mixed"}) {
+            for (boolean trailingNewline : new boolean[] {true, false}) {
+                Path file = write(dir, "members.csv", membersFile(new Random(eol.length()), eol, trailingNewline));
+                List<Member> expected = storage.loadMembers(file.toString());
+                assertTrue(expected.size() > 10_000, "file too small to split");
+                for (int threads : THREADS) {
+                    assertEquals(memberRows(expected), memberRows(storage.loadMembersParallel(file.toString(), threads)),
+                            eol.replace("\r", "CR").replace("\n", "LF") + ", trailing newline " + trailingNewline
+                                    + ", " + threads + " threads");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void performancesMatchWithEveryLineEnding() throws IOException {
+        for (String eol : new String[] {"\n", "\r\n", "mixed"}) {
+            for (boolean trailingNewline : new boolean[] {true, false}) {
+                Path file = write(dir, "performances.csv", performancesFile(new Random(eol.length() + 7), eol, trailingNewline));
+                List<Performance> expected = storage.loadPerformances(file.toString());
+                assertTrue(expected.size() > 10_000, "file too small to split");
+                for (int threads : THREADS) {
+                    assertEquals(rows(expected), rows(storage.loadPerformancesParallel(file.toString(), threads)),
+                            eol.replace("\r", "CR").replace("\n", "LF") + ", trailing newline " + trailingNewline
+                                    + ", " + threads + " threads");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void duplicateIdsAcrossChunksAreAllKeptInOrder() throws IOException {
+        // the same two IDs at the start, middle and end of a split file; dedup is the repository's job
+        StringBuilder sb = new StringBuilder(MEMBERS_HEADER).append('\n');
+        Random rnd = new Random(3);
+        int row = 0;
+        while (sb.length() < TARGET_BYTES) {
+            if (row % 20_000 == 0) {
+                sb.append("DUP-1,REGULAR,\"First\",\"Copy ").append(row).append("\",30,2020-01-01,10.00,,,,\n");
+                sb.append("dup-1,PT,\"Second\",\"Copy ").append(row).append("\",31,2020-01-02,11.00,2,5.00,,\n");
+            }
+            sb.append(memberRow(rnd, row++)).append('\n');
+        }
+        sb.append("DUP-1,PREMIUM,\"Last\",\"Copy\",32,2020-01-03,12.00,,,true,1.00");
+        Path file = write(dir, "members.csv", sb.toString());
+
+        List<Member> expected = storage.loadMembers(file.toString());
+        List<Member> parallel = storage.loadMembersParallel(file.toString(), 4);
+        assertEquals(memberRows(expected), memberRows(parallel));
+        long copies = parallel.stream().filter(m -> m.getMemberId().equalsIgnoreCase("dup-1")).count();
+        assertEquals(2 * ((row + 19_999) / 20_000) + 1, copies);
+    }
+
+    @Test
+    public void smallAndEmptyFilesMatch() throws IOException {
+        Path empty = write(dir, "empty.csv", "");
+        assertEquals(List.of(), storage.loadMembersParallel(empty.toString(), 4));
+        Path headerOnly = write(dir, "header.csv", MEMBERS_HEADER);
+        assertEquals(List.of(), storage.loadMembersParallel(headerOnly.toString(), 4));
+        Path small = write(dir, "small.csv", MEMBERS_HEADER + "\r\n" + memberRow(new Random(1), 1) + "\r" + memberRow(new Random(2), 2));
+        assertEquals(memberRows(storage.loadMembers(small.toString())),
+                memberRows(storage.loadMembersParallel(small.toString(), 4)));
+        assertEquals(List.of(), storage.loadMembersParallel(dir.resolve("missing.csv").toString(), 4));
+    }
+
+    @Test
+    public void badJoinDateFailsBothWays() throws IOException {
+        StringBuilder sb = new StringBuilder(MEMBERS_HEADER).append('\n');
+        Random rnd = new Random(5);
+        int row = 0;
+        while (sb.length() < TARGET_BYTES) sb.append(memberRow(rnd, row++)).append('\n');
+        sb.append("M00000001,REGULAR,\"Anna\",\"Smith\",30,2021-13-04,45.50,,,,\n"); // in the last chunk
+        Path file = write(dir, "members.csv", sb.toString());
+        assertThrows(DateTimeParseException.class, () -> storage.loadMembers(file.toString()));
+        assertThrows(DateTimeParseException.class, () -> storage.loadMembersParallel(file.toString(), 4));
+    }
+
+    // Rows of all three types with quoted commas, doubled quotes, non-ASCII names and skipped rows
+    private static String membersFile(Random rnd, String eol, boolean trailingNewline) {
+        StringBuilder sb = new StringBuilder(MEMBERS_HEADER);
+        int row = 0;
+        while (sb.length() < TARGET_BYTES) {
+            sb.append(eol(rnd, eol)).append(memberRow(rnd, row++));
+        }
+        if (trailingNewline) sb.append(eol(rnd, eol));
+        return sb.toString();
+    }
+
+    private static String memberRow(Random rnd, int row) {
+        String id = String.format("M%08x", row);
+        // lines of very different lengths, so split points land anywhere in a row
+        String first = rnd.nextInt(10) == 0 ? "Smith, \"Jr\" " + "x".repeat(rnd.nextInt(200)) : "José" + row;
+        String last = "O\"\"Brien";
+        switch (rnd.nextInt(5)) {
+        case 0:  return id + ",REGULAR,\"" + first + "\",\"" + last + "\",30,2021-03-04,45.50,,,,";
+        case 1:  return id + ",PT,\"" + first + "\",\"Müller\",41,2020-12-31,30.00,8,25.00,,";
+        case 2:  return id + ",premium,\"" + first + "\",Lee,27,2019-01-01,60,,,yes,15.25";
+        case 3:  return id + ",GOLD,\"" + first + "\",\"Skip\",40,2020-01-01,10.00,,,,"; // unknown type
+        default: return id + ",REGULAR,\"short\""; // too few columns
+        }
+    }
+
+    private static String performancesFile(Random rnd, String eol, boolean trailingNewline) {
+        StringBuilder sb = new StringBuilder(PERFORMANCES_HEADER);
+        int row = 0;
+        while (sb.length() < TARGET_BYTES) {
+            String id = String.format("M%08x", row++ / 12);
+            sb.append(eol(rnd, eol)).append(id).append(",2024-").append(String.format("%02d", 1 + row % 12))
+                    .append(',').append(rnd.nextBoolean()).append(',').append(1 + rnd.nextInt(5)).append(',');
+            switch (rnd.nextInt(4)) {
+            case 0:  sb.append("\"said \"\"no\"\", then yes\""); break;
+            case 1:  sb.append("\"Ünïcode ").append("n".repeat(rnd.nextInt(150))).append('"'); break;
+            case 2:  break; // empty notes
+            default: sb.setLength(sb.length() - 1); // no notes column
+            }
+        }
+        if (trailingNewline) sb.append(eol(rnd, eol));
+        return sb.toString();
+    }
+
+    // "mixed" picks LF, CRLF or a lone CR per line
+    private static String eol(Random rnd, String eol) {
+        if (!eol.equals("mixed")) return eol;
+        switch (rnd.nextInt(3)) {
+        case 0:  return "\n";
+        case 1:  return "\r\n";
+        default: return "\r";
+        }
+    }
+}
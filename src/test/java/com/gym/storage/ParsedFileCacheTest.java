@@ -0,0 +1,159 @@
+package com.gym.storage;
+
+import static com.gym.TestMembers.describe;
+import static com.gym.storage.CsvFixtures.MEMBERS_HEADER;
+import static com.gym.storage.CsvFixtures.PERFORMANCES_HEADER;
+import static com.gym.storage.CsvFixtures.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+
+// An unchanged pair of files is served from the cache; a change to either file in size,
+// modification time or identity (a new file moved over the old one) must be parsed again
+public class ParsedFileCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final CsvStorage storage = new CsvStorage();
+
+    @Test
+    public void unchangedFilesAreHitsWithFreshObjects() throws IOException {
+        Path members = write(dir, "members.csv", membersCsv("Anna", "45.50"));
+        Path perfs = write(dir, "performances.csv", PERFORMANCES_HEADER + "\nM00000001,2024-01,true,5,\"good, \"\"really\"\"\"\n");
+        ParsedFileCache cache = new ParsedFileCache(storage, 1 << 20);
+
+        List<Member> first = cache.load(members.toString(), perfs.toString());
+        List<Member> second = cache.load(members.toString(), perfs.toString());
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(describe(parse(members, perfs)), describe(first));
+        assertEquals(describe(first), describe(second));
+        assertNotSame(first.get(0), second.get(0)); // callers may change what they get
+        // same path spelled differently
+        cache.load(dir.resolve(".").resolve("members.csv").toString(), perfs.toString());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void missAfterSizeChange() throws IOException {
+        Path members = write(dir, "members.csv", membersCsv("Anna", "45.50"));
+        ParsedFileCache cache = new ParsedFileCache(storage, 1 << 20);
+        cache.load(members.toString(), null);
+
+        Files.write(members, membersCsv("Annabel", "45.50").getBytes(StandardCharsets.UTF_8)); // in place
+        List<Member> reloaded = cache.load(members.toString(), null);
+
+        assertEquals("Annabel", reloaded.get(0).getFirstName());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void missAfterSameSizeRewriteWithNewTime() throws IOException {
+        Path members = write(dir, "members.csv", membersCsv("Anna", "45.50"));
+        ParsedFileCache cache = new ParsedFileCache(storage, 1 << 20);
+        cache.load(members.toString(), null);
+        FileTime before = Files.getLastModifiedTime(members);
+
+        Files.write(members, membersCsv("Anna", "99.99").getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        Files.setLastModifiedTime(members, FileTime.fromMillis(before.toMillis() + 2_000));
+        List<Member> reloaded = cache.load(members.toString(), null);
+
+        assertEquals(99.99, reloaded.get(0).getBaseFee());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void missAfterAtomicReplaceWithinTheSameTick() throws IOException {
+        Path members = write(dir, "members.csv", membersCsv("Anna", "45.50"));
+        ParsedFileCache cache = new ParsedFileCache(storage, 1 << 20);
+        cache.load(members.toString(), null);
+        FileTime before = Files.getLastModifiedTime(members);
+
+        // same size and time, only the file key (inode) tells the new file from the old one
+        AtomicFiles.replace(members.toString(),
+                path -> Files.write(Paths.get(path), membersCsv("Anna", "99.99").getBytes(StandardCharsets.UTF_8)));
+        Files.setLastModifiedTime(members, before);
+        List<Member> reloaded = cache.load(members.toString(), null);
+
+        assertEquals(99.99, reloaded.get(0).getBaseFee());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void missAfterPerformancesChange() throws IOException {
+        Path members = write(dir, "members.csv", membersCsv("Anna", "45.50"));
+        Path perfs = write(dir, "performances.csv", PERFORMANCES_HEADER + "\nM00000001,2024-01,true,5,\n");
+        ParsedFileCache cache = new ParsedFileCache(storage, 1 << 20);
+        cache.load(members.toString(), perfs.toString());
+
+        Files.write(perfs, "M00000001,2024-02,false,1,\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        List<Member> reloaded = cache.load(members.toString(), perfs.toString());
+
+        assertEquals(2, reloaded.get(0).getPerformanceHistory().size());
+        assertEquals(2, cache.getMisses());
+        // without performances it is a different entry again
+        assertEquals(0, cache.load(members.toString(), null).get(0).getPerformanceHistory().size());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void missingFilesAreNotCached() throws IOException {
+        ParsedFileCache cache = new ParsedFileCache(storage, 1 << 20);
+        String missing = dir.resolve("missing.csv").toString();
+        assertEquals(List.of(), cache.load(missing, null));
+        assertEquals(0, cache.size());
+
+        Path members = write(dir, "missing.csv", membersCsv("Anna", "45.50"));
+        assertEquals(3, cache.load(members.toString(), null).size()); // created later: parsed, not an empty hit
+    }
+
+    @Test
+    public void staysWithinItsBudget() throws IOException {
+        Path a = write(dir, "a.csv", membersCsv("Anna", "45.50"));
+        Path b = write(dir, "b.csv", membersCsv("Bob", "45.50"));
+        ParsedFileCache probe = new ParsedFileCache(storage, 1 << 20);
+        probe.load(a.toString(), null);
+        long one = probe.getUsedBytes();
+
+        ParsedFileCache cache = new ParsedFileCache(storage, one + one / 2); // room for one roster
+        cache.load(a.toString(), null);
+        cache.load(b.toString(), null);
+        assertEquals(1, cache.size());
+        assertEquals(cache.getUsedBytes(), one, one / 4);
+        cache.load(a.toString(), null); // evicted by b
+        assertEquals(3, cache.getMisses());
+
+        ParsedFileCache none = new ParsedFileCache(storage, 0);
+        assertEquals(3, none.load(a.toString(), null).size());
+        assertEquals(0, none.size());
+    }
+
+    private static String membersCsv(String first, String fee) {
+        return MEMBERS_HEADER + "\n"
+                + "M00000001,REGULAR,\"" + first + "\",\"Smith, Jr\",30,2021-03-04," + fee + ",,,,\n"
+                + "legacy-7,PT,\"Bob\",\"Ng\",41,2020-12-31,30.00,8,25.00,,\n"
+                + "M0000000a,PREMIUM,\"Cy\",\"Ito\",27,2019-01-01,60.00,,,yes,15.25\n";
+    }
+
+    private List<Member> parse(Path members, Path perfs) throws IOException {
+        List<Member> list = storage.loadMembers(members.toString());
+        storage.attachPerformancesToMembers(list, storage.loadPerformances(perfs.toString()));
+        return list;
+    }
+}
@@ -0,0 +1,181 @@
+package com.gym.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.gym.model.Member;
+import com.gym.model.Performance;
+import com.gym.model.RegularMember;
+import com.gym.repository.MemberRepository;
+
+// Requests made while a write runs are covered by one write after it; flush() returns only once
+// everything requested is on disk; a failed write, of any kind, is reported to the callers it
+// covered and the writer keeps going
+public class PersistenceServiceTest {
+
+    private static final Duration LIMIT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path dir;
+
+    private final MemberRepository repo = new MemberRepository();
+
+    // Lets the test hold each members write until it says so, and make it fail
+    private static final class GatedStorage extends CsvStorage {
+        final Semaphore permits = new Semaphore(0);
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile RuntimeException runtimeFailure;
+        volatile IOException ioFailure;
+
+        @Override
+        public String saveMembersToFile(List<Member> members, String filePath) throws IOException {
+            started.countDown();
+            permits.acquireUninterruptibly();
+            if (runtimeFailure != null) throw runtimeFailure;
+            if (ioFailure != null) throw ioFailure;
+            return super.saveMembersToFile(members, filePath);
+        }
+    }
+
+    @Test
+    public void requestsDuringAWriteShareTheNextOne() throws Exception {
+        GatedStorage storage = new GatedStorage();
+        PersistenceService service = service(storage);
+        add("M00000001");
+        service.requestSave();
+        assertTrue(storage.started.await(10, TimeUnit.SECONDS));
+        long last = 0;
+        for (int i = 2; i <= 20; i++) {
+            add(String.format("M%08d", i));
+            last = service.requestSave();
+        }
+        storage.permits.release(100);
+        long generation = last;
+        assertTimeoutPreemptively(LIMIT, () -> service.await(generation));
+
+        assertEquals(2, service.getWriteCount()); // the blocked write, then one for the 19 requests
+        assertEquals(20, storage.loadMembers(members()).size());
+        assertTimeoutPreemptively(LIMIT, service::close);
+        assertEquals(2, service.getWriteCount());
+    }
+
+    @Test
+    public void flushWaitsForEverythingRequested() throws Exception {
+        CsvStorage storage = new CsvStorage();
+        PersistenceService service = service(storage);
+        assertTimeoutPreemptively(LIMIT, service::flush); // nothing requested yet
+        assertEquals(0, service.getWriteCount());
+
+        for (int i = 1; i <= 50; i++) {
+            add(String.format("M%08d", i));
+            repo.recordPerformance(String.format("M%08d", i),
+                    new Performance(String.format("M%08d", i), YearMonth.of(2024, 1), true, 4, "n" + i));
+            service.requestSave();
+            if (i % 10 == 0) {
+                assertTimeoutPreemptively(LIMIT, service::flush);
+                assertEquals(i, storage.loadMembers(members()).size());
+                assertEquals(i, storage.loadPerformances(dir.resolve("performances.csv").toString()).size());
+            }
+        }
+        assertTimeoutPreemptively(LIMIT, service::close);
+        assertThrows(IllegalStateException.class, service::requestSave);
+    }
+
+    @Test
+    public void runtimeFailureIsReportedAndTheWriterCarriesOn() throws Exception {
+        GatedStorage storage = new GatedStorage();
+        PersistenceService service = service(storage);
+        RuntimeException boom = new IllegalStateException("boom");
+        storage.runtimeFailure = boom;
+        add("M00000001");
+        long failedGeneration = service.requestSave();
+        storage.permits.release();
+
+        IOException e = assertThrows(IOException.class, () -> assertTimeoutPreemptively(LIMIT, () -> service.await(failedGeneration)));
+        assertSame(boom, e.getCause());
+        assertSame(e, service.getLastFailure());
+
+        storage.runtimeFailure = null;
+        add("M00000002");
+        long okGeneration = service.requestSave();
+        storage.permits.release();
+        assertTimeoutPreemptively(LIMIT, () -> service.await(okGeneration));
+        assertNull(service.getLastFailure());
+        assertEquals(2, storage.loadMembers(members()).size());
+        // the write that covered the first request still failed, whatever happened since
+        assertThrows(IOException.class, () -> service.await(failedGeneration));
+
+        storage.permits.release(100);
+        assertTimeoutPreemptively(LIMIT, service::close);
+    }
+
+    @Test
+    public void eachCallerSeesTheOutcomeOfItsOwnWrite() throws Exception {
+        GatedStorage storage = new GatedStorage();
+        PersistenceService service = service(storage);
+        long first = service.requestSave();       // succeeds
+        storage.permits.release();
+        assertTimeoutPreemptively(LIMIT, () -> service.await(first));
+
+        storage.ioFailure = new IOException("disk full");
+        long second = service.requestSave();      // fails
+        long third = service.requestSave();       // same write, or a second failed one
+        storage.permits.release(2);
+        assertThrows(IOException.class, () -> assertTimeoutPreemptively(LIMIT, () -> service.await(third)));
+        assertThrows(IOException.class, () -> service.await(second));
+
+        storage.ioFailure = null;
+        long fourth = service.requestSave();      // succeeds
+        storage.permits.release();
+        assertTimeoutPreemptively(LIMIT, () -> service.await(fourth));
+
+        service.await(first);
+        assertThrows(IOException.class, () -> service.await(second));
+        assertThrows(IOException.class, () -> service.await(third));
+        service.await(fourth);
+
+        storage.permits.release(100);
+        assertTimeoutPreemptively(LIMIT, service::close);
+    }
+
+    @Test
+    public void closeReportsAFailedLastWriteWithoutHanging() throws Exception {
+        GatedStorage storage = new GatedStorage();
+        PersistenceService service = service(storage);
+        storage.runtimeFailure = new NullPointerException("no member");
+        storage.permits.release(100);
+        service.requestSave();
+        assertThrows(IOException.class, () -> assertTimeoutPreemptively(LIMIT, service::close));
+        assertTrue(!Files.exists(dir.resolve("members.csv")));
+    }
+
+    private PersistenceService service(CsvStorage storage) {
+        return new PersistenceService(storage, repo, members(), dir.resolve("performances.csv").toString());
+    }
+
+    private String members() {
+        return dir.resolve("members.csv").toString();
+    }
+
+    private void add(String id) {
+        repo.addMember(new RegularMember(id, "Anna", "Smith", 30, LocalDate.of(2023, 1, 1), 40.0));
+    }
+}